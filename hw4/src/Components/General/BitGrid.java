@@ -0,0 +1,173 @@
+package Components.General;
+
+import java.util.Arrays;
+
+/**
+ * The BitGrid class is a bitboard with one bit per cell of the lake, stored row by row in long words.
+ * Neighbourhood queries read a three-bit window per row instead of visiting the neighbours one by one,
+ * and whole rows can be combined with shifts and masks.
+ */
+final class BitGrid {
+
+    private final int rows;
+    private final int columns;
+    private final int words;
+    private final long[] bits;
+
+    /**
+     * Creates an empty bitboard.
+     *
+     * @param rows The number of rows.
+     * @param columns The number of columns.
+     */
+    BitGrid(int rows, int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.words = (columns + 63) >>> 6;
+        this.bits = new long[rows * words];
+    }
+
+    /**
+     * Retrieves the number of long words used for one row.
+     *
+     * @return The number of words per row.
+     */
+    int wordsPerRow() {
+        return words;
+    }
+
+    /**
+     * Checks whether the bit of a cell is set.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return true if the bit is set.
+     */
+    boolean get(int row, int col) {
+        return (bits[row * words + (col >>> 6)] & (1L << col)) != 0;
+    }
+
+    /**
+     * Sets the bit of a cell.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     */
+    void set(int row, int col) {
+        bits[row * words + (col >>> 6)] |= 1L << col;
+    }
+
+    /**
+     * Clears the bit of a cell.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     */
+    void clear(int row, int col) {
+        bits[row * words + (col >>> 6)] &= ~(1L << col);
+    }
+
+    /**
+     * Clears every bit.
+     */
+    void clearAll() {
+        Arrays.fill(bits, 0L);
+    }
+
+    /**
+     * Checks whether any of the eight neighbours of a cell is set.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return true if a neighbouring bit is set.
+     */
+    boolean anyAround(int row, int col) {
+        return (window(row - 1, col) | window(row + 1, col) | (window(row, col) & 0b101)) != 0;
+    }
+
+    /**
+     * Checks whether any of the four directly adjacent neighbours of a cell is set.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return true if an adjacent bit is set.
+     */
+    boolean anyAdjacent(int row, int col) {
+        return (((window(row - 1, col) | window(row + 1, col)) & 0b010) | (window(row, col) & 0b101)) != 0;
+    }
+
+    /**
+     * Reads the bits of columns col - 1, col and col + 1 of a row.
+     *
+     * @param row The row index, may be outside the grid.
+     * @param col The column index.
+     * @return The three bits, with column col - 1 in the lowest bit.
+     */
+    private long window(int row, int col) {
+        if (row < 0 || row >= rows) {
+            return 0;
+        }
+        int base = row * words;
+        if (col == 0) {
+            return (bits[base] << 1) & 0b111;
+        }
+        int start = col - 1;
+        int word = start >>> 6;
+        int offset = start & 63;
+        long value = bits[base + word] >>> offset;
+        if (offset > 61 && word + 1 < words) {
+            value |= bits[base + word + 1] << (64 - offset);
+        }
+        return value & 0b111;
+    }
+
+    /**
+     * Combines a row into a row mask with a bitwise or.
+     *
+     * @param row The row index, may be outside the grid.
+     * @param out The row mask to update.
+     */
+    void orRow(int row, long[] out) {
+        if (row < 0 || row >= rows) {
+            return;
+        }
+        int base = row * words;
+        for (int w = 0; w < words; w++) {
+            out[w] |= bits[base + w];
+        }
+    }
+
+    /**
+     * Combines a row and its one-column shifts in both directions into a row mask, so every cell whose
+     * left or right neighbour (or itself) is set ends up set.
+     *
+     * @param row The row index, may be outside the grid.
+     * @param out The row mask to update.
+     */
+    void orRowSpread(int row, long[] out) {
+        if (row < 0 || row >= rows) {
+            return;
+        }
+        int base = row * words;
+        for (int w = 0; w < words; w++) {
+            long value = bits[base + w];
+            long carryIn = w > 0 ? bits[base + w - 1] >>> 63 : 0;
+            long carryOut = w + 1 < words ? bits[base + w + 1] << 63 : 0;
+            out[w] |= value | (value << 1) | carryIn | (value >>> 1) | carryOut;
+        }
+    }
+
+    /**
+     * Creates a row mask with every valid column of the grid set.
+     *
+     * @return A row mask covering columns 0 to columns - 1.
+     */
+    long[] fullRow() {
+        long[] mask = new long[words];
+        for (int w = 0; w < words; w++) {
+            int remaining = columns - (w << 6);
+            mask[w] = remaining >= 64 ? -1L : (1L << remaining) - 1;
+        }
+        return mask;
+    }
+}
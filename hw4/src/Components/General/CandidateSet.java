@@ -0,0 +1,112 @@
+package Components.General;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The CandidateSet class is a set of int values from a fixed range that supports adding, removing and drawing a
+ * uniformly random member in constant time. Members are kept densely packed in an array, and every value
+ * remembers its slot in that array, so a removal moves the last member into the freed slot. Not thread-safe.
+ */
+final class CandidateSet {
+
+    private final int[] members;
+    private final int[] slots;
+    private int size;
+
+    /**
+     * Creates an empty set.
+     *
+     * @param capacity The number of possible values; members must lie in [0, capacity).
+     */
+    CandidateSet(int capacity) {
+        members = new int[capacity];
+        slots = new int[capacity];
+        Arrays.fill(slots, -1);
+    }
+
+    /**
+     * Retrieves the number of possible values.
+     *
+     * @return The capacity given when the set was created.
+     */
+    int capacity() {
+        return members.length;
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value The value.
+     * @return true if the value was not in the set yet.
+     */
+    boolean add(int value) {
+        if (slots[value] >= 0) {
+            return false;
+        }
+        slots[value] = size;
+        members[size++] = value;
+        return true;
+    }
+
+    /**
+     * Removes a value from the set.
+     *
+     * @param value The value.
+     * @return true if the value was in the set.
+     */
+    boolean remove(int value) {
+        int slot = slots[value];
+        if (slot < 0) {
+            return false;
+        }
+        int last = members[--size];
+        members[slot] = last;
+        slots[last] = slot;
+        slots[value] = -1;
+        return true;
+    }
+
+    /**
+     * Checks whether a value is in the set.
+     *
+     * @param value The value.
+     * @return true if the value is in the set.
+     */
+    boolean contains(int value) {
+        return slots[value] >= 0;
+    }
+
+    /**
+     * Retrieves the number of values in the set.
+     *
+     * @return The size of the set.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Draws a member of the set, each with the same probability. The member stays in the set.
+     *
+     * @param random The generator to draw with.
+     * @return The drawn member.
+     * @throws IllegalStateException if the set is empty.
+     */
+    int sample(SplittableRandom random) {
+        if (size == 0) {
+            throw new IllegalStateException("There are no candidates left.");
+        }
+        return members[random.nextInt(size)];
+    }
+
+    /**
+     * Removes every value, in time proportional to the size of the set.
+     */
+    void clear() {
+        for (int i = 0; i < size; i++) {
+            slots[members[i]] = -1;
+        }
+        size = 0;
+    }
+}
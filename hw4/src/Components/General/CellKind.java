@@ -0,0 +1,203 @@
+package Components.General;
+
+import Components.HazardEquipments.ClimbingEquipment;
+import Components.HazardEquipments.LargeWoodenBoard;
+import Components.HazardEquipments.ProtectiveHelmet;
+import Components.Hazards.CliffEdgeItem;
+import Components.Hazards.HoleInIceItem;
+import Components.Hazards.IceBlockItem;
+import Components.Hazards.IceSpikeItem;
+import Components.ResearchEquipmentItems.CameraItem;
+import Components.ResearchEquipmentItems.ChiselingEquipmentItem;
+import Components.ResearchEquipmentItems.TemperatureDetectorItem;
+import Components.ResearchEquipmentItems.WindSpeedMeasurement;
+
+/**
+ * The CellKind class defines the one-byte codes used by LakePuzzle to store the item kind of every cell.
+ * Walls, the entrance and hazards carry no state of their own, so they are kept only as a code and their
+ * MapItem objects are created on demand. Placed equipment is stateful and is always kept in the side table.
+ */
+public final class CellKind {
+
+    public static final byte EMPTY = 0;
+    public static final byte WALL = 1;
+    public static final byte ENTRANCE = 2;
+    public static final byte ICE_BLOCK = 3;
+    public static final byte HOLE = 4;
+    public static final byte SPIKE = 5;
+    public static final byte CLIFF_EDGE = 6;
+    public static final byte WOODEN_BOARD = 7;
+    public static final byte CLIMBING_EQUIPMENT = 8;
+    public static final byte PROTECTIVE_HELMET = 9;
+    public static final byte TEMPERATURE_DETECTOR = 10;
+    public static final byte CHISELING_EQUIPMENT = 11;
+    public static final byte CAMERA = 12;
+    public static final byte WIND_SPEED = 13;
+    public static final byte OTHER = 14;
+
+    /**
+     * Number of distinct cell kinds.
+     */
+    public static final int COUNT = 15;
+
+    private CellKind() {
+    }
+
+    /**
+     * Retrieves the code of the given item.
+     *
+     * @param item The item to classify, may be null.
+     * @return The cell kind of the item, EMPTY for null and OTHER for unknown item classes.
+     */
+    public static byte of(MapItem item) {
+        if (item == null) {
+            return EMPTY;
+        }
+        Class<?> type = item.getClass();
+        if (type == WallItem.class) return WALL;
+        if (type == EntranceItem.class) return ENTRANCE;
+        if (type == IceBlockItem.class) return ICE_BLOCK;
+        if (type == HoleInIceItem.class) return HOLE;
+        if (type == IceSpikeItem.class) return SPIKE;
+        if (type == CliffEdgeItem.class) return CLIFF_EDGE;
+        if (type == LargeWoodenBoard.class) return WOODEN_BOARD;
+        if (type == ClimbingEquipment.class) return CLIMBING_EQUIPMENT;
+        if (type == ProtectiveHelmet.class) return PROTECTIVE_HELMET;
+        if (type == TemperatureDetectorItem.class) return TEMPERATURE_DETECTOR;
+        if (type == ChiselingEquipmentItem.class) return CHISELING_EQUIPMENT;
+        if (type == CameraItem.class) return CAMERA;
+        if (type == WindSpeedMeasurement.class) return WIND_SPEED;
+        return OTHER;
+    }
+
+    /**
+     * Retrieves the item class stored under the given code.
+     *
+     * @param kind The cell kind.
+     * @return The class of the item, or null for EMPTY and OTHER.
+     */
+    public static Class<? extends MapItem> itemClass(byte kind) {
+        switch (kind) {
+            case WALL: return WallItem.class;
+            case ENTRANCE: return EntranceItem.class;
+            case ICE_BLOCK: return IceBlockItem.class;
+            case HOLE: return HoleInIceItem.class;
+            case SPIKE: return IceSpikeItem.class;
+            case CLIFF_EDGE: return CliffEdgeItem.class;
+            case WOODEN_BOARD: return LargeWoodenBoard.class;
+            case CLIMBING_EQUIPMENT: return ClimbingEquipment.class;
+            case PROTECTIVE_HELMET: return ProtectiveHelmet.class;
+            case TEMPERATURE_DETECTOR: return TemperatureDetectorItem.class;
+            case CHISELING_EQUIPMENT: return ChiselingEquipmentItem.class;
+            case CAMERA: return CameraItem.class;
+            case WIND_SPEED: return WindSpeedMeasurement.class;
+            default: return null;
+        }
+    }
+
+    /**
+     * Checks whether items of the given kind carry no state and can be recreated from their code alone.
+     *
+     * @param kind The cell kind.
+     * @return true for walls, the entrance and hazards.
+     */
+    public static boolean isStateless(byte kind) {
+        return kind >= WALL && kind <= CLIFF_EDGE;
+    }
+
+    /**
+     * Checks whether the given kind is a piece of equipment left on the lake.
+     *
+     * @param kind The cell kind.
+     * @return true for placed hazard and research equipment.
+     */
+    public static boolean isEquipment(byte kind) {
+        return kind >= WOODEN_BOARD && kind <= WIND_SPEED;
+    }
+
+    /**
+     * Checks whether the given kind is a hazard, as returned by MapSquare.getHazard.
+     *
+     * @param kind The cell kind.
+     * @return true for ice blocks, holes, ice spikes and cliff edges.
+     */
+    public static boolean isHazard(byte kind) {
+        return kind >= ICE_BLOCK && kind <= CLIFF_EDGE;
+    }
+
+    /**
+     * Checks whether the given kind is a hazard other than an ice block.
+     * A sliding researcher stops on these squares and interacts with them.
+     *
+     * @param kind The cell kind.
+     * @return true for holes, ice spikes and cliff edges.
+     */
+    public static boolean isDangerousHazard(byte kind) {
+        return kind == HOLE || kind == SPIKE || kind == CLIFF_EDGE;
+    }
+
+    /**
+     * Checks whether a sliding researcher stops in front of a cell of the given kind.
+     *
+     * @param kind The cell kind.
+     * @return true for ice blocks, walls, the entrance and unknown items.
+     */
+    public static boolean blocksSlide(byte kind) {
+        return kind == ICE_BLOCK || kind == WALL || kind == ENTRANCE || kind == OTHER;
+    }
+
+    /**
+     * Checks whether a sliding researcher stops on a cell of the given kind.
+     *
+     * @param kind The cell kind.
+     * @return true for hazards other than ice blocks and for placed equipment.
+     */
+    public static boolean stopsSlide(byte kind) {
+        return isDangerousHazard(kind) || isEquipment(kind);
+    }
+
+    /**
+     * Creates a new item of the given kind. Equipment is created in its initial state, so the state of a
+     * placed piece of equipment has to be restored by the caller.
+     *
+     * @param kind The cell kind.
+     * @return A new item of the given kind.
+     * @throws IllegalArgumentException for EMPTY, OTHER and unknown codes.
+     */
+    public static MapItem create(byte kind) {
+        switch (kind) {
+            case WALL: return new WallItem();
+            case ENTRANCE: return new EntranceItem();
+            case ICE_BLOCK: return new IceBlockItem();
+            case HOLE: return new HoleInIceItem();
+            case SPIKE: return new IceSpikeItem();
+            case CLIFF_EDGE: return new CliffEdgeItem();
+            case WOODEN_BOARD: return new LargeWoodenBoard();
+            case CLIMBING_EQUIPMENT: return new ClimbingEquipment();
+            case PROTECTIVE_HELMET: return new ProtectiveHelmet();
+            case TEMPERATURE_DETECTOR: return new TemperatureDetectorItem();
+            case CHISELING_EQUIPMENT: return new ChiselingEquipmentItem();
+            case CAMERA: return new CameraItem();
+            case WIND_SPEED: return new WindSpeedMeasurement();
+            default: throw new IllegalArgumentException("Cell kind " + kind + " cannot be created.");
+        }
+    }
+
+    /**
+     * Retrieves the short notation of a stateless kind, matching the toString of its item class.
+     *
+     * @param kind The cell kind.
+     * @return The short notation, or an empty string for EMPTY.
+     */
+    public static String symbol(byte kind) {
+        switch (kind) {
+            case ICE_BLOCK: return "ib";
+            case HOLE: return "hi";
+            case SPIKE: return "is";
+            case CLIFF_EDGE: return "ce";
+            case WALL:
+            case ENTRANCE: return "  ";
+            default: return "";
+        }
+    }
+}
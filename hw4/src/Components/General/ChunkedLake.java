@@ -0,0 +1,389 @@
+package Components.General;
+
+import Components.Hazards.HazardItem;
+import exceptions.UnavailableDirectionException;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The ChunkedLake class represents an open lake without a fixed size for the exploration mode.
+ * The lake is split into fixed-size chunks, each one a LakePuzzle generated on demand from the world seed
+ * and the chunk coordinates, so a chunk always comes back the same when it is generated again.
+ * At most a fixed number of chunks is kept in memory in least-recently-used order. Chunks that were changed
+ * by the researchers are stored in a compact form when they are evicted, and unchanged chunks are simply
+ * generated again. A stored chunk keeps its compact form while it is loaded again, until it changes, so it can
+ * be evicted again without being stored. Chunks with a researcher on them are never evicted.
+ */
+public class ChunkedLake {
+
+    private final long seed;
+    private final LakePuzzle.Builder chunkSettings;
+    private final int chunkRows;
+    private final int chunkColumns;
+    private final int maxLoadedChunks;
+    private final LinkedHashMap<Long, LakePuzzle> loadedChunks;
+    private final Map<Long, StoredChunk> storedChunks;
+    private final Map<Researcher, Long> researcherChunks;
+    private long generatedChunkCount;
+    private long restoredChunkCount;
+    private long evictedChunkCount;
+    private boolean evictionPaused;
+
+    /**
+     * Constructs a new open lake.
+     *
+     * @param seed The world seed every chunk is generated from.
+     * @param chunkSettings The size and hazard settings of one chunk. The builder is copied.
+     * @param maxLoadedChunks The maximum number of chunks kept in memory, at least 1.
+     */
+    public ChunkedLake(long seed, LakePuzzle.Builder chunkSettings, int maxLoadedChunks) {
+        if (maxLoadedChunks < 1) {
+            throw new IllegalArgumentException("At least one chunk must be kept in memory.");
+        }
+        this.seed = seed;
+        this.chunkSettings = new LakePuzzle.Builder(chunkSettings).chunk(true);
+        this.chunkRows = this.chunkSettings.getRows();
+        this.chunkColumns = this.chunkSettings.getColumns();
+        this.maxLoadedChunks = maxLoadedChunks;
+        this.loadedChunks = new LinkedHashMap<>(16, 0.75f, true);
+        this.storedChunks = new HashMap<>();
+        this.researcherChunks = new IdentityHashMap<>();
+    }
+
+    /**
+     * Retrieves a specific MapSquare from the lake, loading its chunk if necessary.
+     * The position reported by the returned square is local to its chunk, and the square should not be kept
+     * across other calls since its chunk may be evicted.
+     *
+     * @param row The row index of the square.
+     * @param col The column index of the square.
+     * @return A view of the square at the specified position.
+     */
+    public MapSquare getMapSquare(long row, long col) {
+        LakePuzzle lake = chunkAt(row, col);
+        return lake.getMapSquare(localRow(row), localColumn(col));
+    }
+
+    /**
+     * Places a researcher on an empty square of the lake.
+     *
+     * @param researcher The researcher to place.
+     * @param row The row index of the square.
+     * @param col The column index of the square.
+     * @throws IllegalArgumentException if the square is not empty or the researcher is already on the lake.
+     */
+    public void addResearcher(Researcher researcher, long row, long col) {
+        if (researcherChunks.containsKey(researcher)) {
+            throw new IllegalArgumentException("The researcher is already on the lake.");
+        }
+        long key = chunkKey(Math.floorDiv(row, chunkRows), Math.floorDiv(col, chunkColumns));
+        LakePuzzle lake = chunk(key);
+        int index = lake.indexOf(localRow(row), localColumn(col));
+        if (lake.kindAt(index) != CellKind.EMPTY || lake.researcherAt(index) != null) {
+            throw new IllegalArgumentException("Researchers can only be placed on an empty square.");
+        }
+        lake.placeResearcher(index, researcher);
+        researcherChunks.put(researcher, key);
+        prefetchAround(row, col);
+    }
+
+    /**
+     * Finds the position of a researcher.
+     *
+     * @param researcher The researcher to search for.
+     * @return An array with [row, column] coordinates, or null if the researcher is not on the lake.
+     */
+    public long[] findResearcher(Researcher researcher) {
+        Long key = researcherChunks.get(researcher);
+        if (key == null) {
+            return null;
+        }
+        int index = loadedChunks.get(key).findResearcherIndex(researcher);
+        return new long[]{
+                (long) chunkRowOf(key) * chunkRows + index / chunkColumns,
+                (long) chunkColumnOf(key) * chunkColumns + index % chunkColumns
+        };
+    }
+
+    /**
+     * Moves a researcher on the lake with the same sliding rules as Researcher.move. A slide that reaches the
+     * side of a chunk continues into the neighbouring chunk, which is loaded if necessary.
+     *
+     * @param researcher The researcher to move.
+     * @param direction The direction of the slide.
+     * @return The square where the researcher stopped.
+     * @throws UnavailableDirectionException if the first step is blocked.
+     */
+    public MapSquare move(Researcher researcher, Direction direction) throws UnavailableDirectionException {
+        Long startKey = researcherChunks.get(researcher);
+        if (startKey == null) {
+            throw new IllegalArgumentException("The researcher is not on the lake.");
+        }
+        LakePuzzle startLake = loadedChunks.get(startKey);
+        int startIndex = startLake.findResearcherIndex(researcher);
+
+        long key = startKey;
+        LakePuzzle lake = startLake;
+        int row = startIndex / chunkColumns;
+        int col = startIndex % chunkColumns;
+        boolean moved = false;
+        // Chunks the slide passes through must stay in memory until the researcher has been placed
+        evictionPaused = true;
+        try {
+            while (true) {
+                int destination = lake.getSlideDestination(row, col, direction);
+                if (destination >= 0) {
+                    moved = true;
+                    row = destination / chunkColumns;
+                    col = destination % chunkColumns;
+                    if (!atChunkSide(row, col, direction) || lake.kindAt(destination) != CellKind.EMPTY) {
+                        break;
+                    }
+                } else if (!atChunkSide(row, col, direction)) {
+                    break;
+                }
+
+                // The slide reached the side of the chunk, continue in the neighbouring chunk
+                long nextKey = chunkKey(chunkRowOf(key) + direction.getRowChange(), chunkColumnOf(key) + direction.getColumnChange());
+                LakePuzzle next = chunk(nextKey);
+                int nextRow = Math.floorMod(row + direction.getRowChange(), chunkRows);
+                int nextCol = Math.floorMod(col + direction.getColumnChange(), chunkColumns);
+                int entry = next.indexOf(nextRow, nextCol);
+                if (next.blocksSlide(entry)) {
+                    break;
+                }
+                moved = true;
+                key = nextKey;
+                lake = next;
+                row = nextRow;
+                col = nextCol;
+                if (next.stopsSlide(entry)) {
+                    break;
+                }
+            }
+            if (!moved) {
+                throw new UnavailableDirectionException("Cannot move in that direction");
+            }
+
+            int destination = lake.indexOf(row, col);
+            if (CellKind.isDangerousHazard(lake.kindAt(destination))) {
+                ((HazardItem) lake.itemAt(destination)).interact(researcher, lake);
+            }
+            lake.placeResearcher(destination, researcher);
+            startLake.clearResearcher(startIndex);
+            researcherChunks.put(researcher, key);
+        } finally {
+            evictionPaused = false;
+        }
+        prefetchAround((long) chunkRowOf(key) * chunkRows + row, (long) chunkColumnOf(key) * chunkColumns + col);
+        evictColdChunks(maxLoadedChunks);
+        return lake.squareAt(lake.indexOf(row, col));
+    }
+
+    /**
+     * Removes a researcher from the lake.
+     *
+     * @param researcher The researcher to remove.
+     */
+    public void removeResearcher(Researcher researcher) {
+        Long key = researcherChunks.remove(researcher);
+        if (key != null) {
+            LakePuzzle lake = loadedChunks.get(key);
+            lake.clearResearcher(lake.findResearcherIndex(researcher));
+            evictColdChunks(maxLoadedChunks);
+        }
+    }
+
+    /**
+     * Retrieves the number of chunks currently kept in memory.
+     *
+     * @return The number of loaded chunks.
+     */
+    public int getLoadedChunkCount() {
+        return loadedChunks.size();
+    }
+
+    /**
+     * Retrieves the number of changed chunks kept in compact form, including those that are loaded again.
+     *
+     * @return The number of stored chunks.
+     */
+    public int getStoredChunkCount() {
+        return storedChunks.size();
+    }
+
+    /**
+     * Retrieves the number of chunks generated from the seed so far.
+     *
+     * @return The number of generated chunks.
+     */
+    public long getGeneratedChunkCount() {
+        return generatedChunkCount;
+    }
+
+    /**
+     * Retrieves the number of chunks restored from their compact form so far.
+     *
+     * @return The number of restored chunks.
+     */
+    public long getRestoredChunkCount() {
+        return restoredChunkCount;
+    }
+
+    /**
+     * Retrieves the number of chunks evicted from memory so far.
+     *
+     * @return The number of evicted chunks.
+     */
+    public long getEvictedChunkCount() {
+        return evictedChunkCount;
+    }
+
+    /**
+     * Loads the chunks a researcher at the given position is about to slide into, so they are ready before
+     * the researcher reaches them. A neighbouring chunk is loaded when the position is within a quarter of a
+     * chunk of the shared side.
+     *
+     * @param row The row index of the position.
+     * @param col The column index of the position.
+     */
+    private void prefetchAround(long row, long col) {
+        int chunkRow = (int) Math.floorDiv(row, chunkRows);
+        int chunkCol = (int) Math.floorDiv(col, chunkColumns);
+        int localRow = localRow(row);
+        int localCol = localColumn(col);
+        int rowMargin = Math.max(1, chunkRows / 4);
+        int colMargin = Math.max(1, chunkColumns / 4);
+        if (localRow < rowMargin) {
+            chunk(chunkKey(chunkRow - 1, chunkCol));
+        } else if (localRow >= chunkRows - rowMargin) {
+            chunk(chunkKey(chunkRow + 1, chunkCol));
+        }
+        if (localCol < colMargin) {
+            chunk(chunkKey(chunkRow, chunkCol - 1));
+        } else if (localCol >= chunkColumns - colMargin) {
+            chunk(chunkKey(chunkRow, chunkCol + 1));
+        }
+        chunk(chunkKey(chunkRow, chunkCol));
+    }
+
+    /**
+     * Retrieves the chunk containing a position, loading it if necessary.
+     *
+     * @param row The row index of the position.
+     * @param col The column index of the position.
+     * @return The chunk.
+     */
+    private LakePuzzle chunkAt(long row, long col) {
+        return chunk(chunkKey(Math.floorDiv(row, chunkRows), Math.floorDiv(col, chunkColumns)));
+    }
+
+    /**
+     * Retrieves a chunk, restoring or generating it if it is not in memory, and marks it as recently used.
+     *
+     * @param key The packed chunk coordinates.
+     * @return The chunk.
+     */
+    private LakePuzzle chunk(long key) {
+        LakePuzzle lake = loadedChunks.get(key);
+        if (lake != null) {
+            return lake;
+        }
+        StoredChunk stored = storedChunks.get(key);
+        if (stored != null) {
+            lake = new LakePuzzle(chunkSettings, ByteBuffer.wrap(stored.cells), stored.items, -1, chunkSeed(key));
+            restoredChunkCount++;
+        } else {
+            lake = new LakePuzzle.Builder(chunkSettings).seed(chunkSeed(key)).build();
+            generatedChunkCount++;
+        }
+        if (!evictionPaused) {
+            evictColdChunks(maxLoadedChunks - 1);
+        }
+        loadedChunks.put(key, lake);
+        return lake;
+    }
+
+    /**
+     * Evicts least recently used chunks until at most the given number of chunks is in memory.
+     * Chunks with researchers on them are skipped, and changed chunks are kept in compact form.
+     *
+     * @param limit The number of chunks that may stay in memory.
+     */
+    private void evictColdChunks(int limit) {
+        Iterator<Map.Entry<Long, LakePuzzle>> iterator = loadedChunks.entrySet().iterator();
+        while (loadedChunks.size() > limit && iterator.hasNext()) {
+            Map.Entry<Long, LakePuzzle> entry = iterator.next();
+            LakePuzzle lake = entry.getValue();
+            if (lake.hasResearchers()) {
+                continue;
+            }
+            // A restored chunk that did not change since is still stored as it is
+            if (lake.getModificationCount() > 0) {
+                storedChunks.put(entry.getKey(), new StoredChunk(lake.copyCells(), lake.copyStatefulItems()));
+            }
+            iterator.remove();
+            evictedChunkCount++;
+        }
+    }
+
+    /**
+     * Derives the seed of a chunk from the world seed and the chunk coordinates.
+     *
+     * @param key The packed chunk coordinates.
+     * @return The seed of the chunk.
+     */
+    private long chunkSeed(long key) {
+        long z = seed ^ (key * 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private boolean atChunkSide(int row, int col, Direction direction) {
+        switch (direction) {
+            case UP: return row == 0;
+            case DOWN: return row == chunkRows - 1;
+            case LEFT: return col == 0;
+            default: return col == chunkColumns - 1;
+        }
+    }
+
+    private int localRow(long row) {
+        return (int) Math.floorMod(row, (long) chunkRows);
+    }
+
+    private int localColumn(long col) {
+        return (int) Math.floorMod(col, (long) chunkColumns);
+    }
+
+    private static long chunkKey(long chunkRow, long chunkCol) {
+        return (chunkRow << 32) | (chunkCol & 0xFFFFFFFFL);
+    }
+
+    private static int chunkRowOf(long key) {
+        return (int) (key >> 32);
+    }
+
+    private static int chunkColumnOf(long key) {
+        return (int) key;
+    }
+
+    /**
+     * The compact form of an evicted chunk that was changed: its cell codes and its stateful items.
+     */
+    private static class StoredChunk {
+        private final byte[] cells;
+        private final Map<Integer, MapItem> items;
+
+        private StoredChunk(byte[] cells, Map<Integer, MapItem> items) {
+            this.cells = cells;
+            this.items = items;
+        }
+    }
+}
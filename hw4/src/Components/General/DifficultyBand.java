@@ -0,0 +1,42 @@
+package Components.General;
+
+/**
+ * The DifficultyBand enum groups lakes by the difficulty score computed by DifficultyEvaluator,
+ * together with the lowest score of each band.
+ */
+public enum DifficultyBand {
+    EASY(0),
+    MEDIUM(4),
+    HARD(8);
+
+    private final int minimumScore;
+
+    DifficultyBand(int minimumScore) {
+        this.minimumScore = minimumScore;
+    }
+
+    /**
+     * Retrieves the lowest difficulty score of the band.
+     *
+     * @return The lowest score that falls into this band.
+     */
+    public int getMinimumScore() {
+        return minimumScore;
+    }
+
+    /**
+     * Finds the band of a difficulty score.
+     *
+     * @param score The difficulty score, at least 0.
+     * @return The band the score falls into.
+     */
+    public static DifficultyBand of(int score) {
+        DifficultyBand[] bands = values();
+        for (int i = bands.length - 1; i > 0; i--) {
+            if (score >= bands[i].minimumScore) {
+                return bands[i];
+            }
+        }
+        return bands[0];
+    }
+}
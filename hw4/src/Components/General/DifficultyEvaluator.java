@@ -0,0 +1,396 @@
+package Components.General;
+
+import Components.ResearchEquipmentItems.CameraItem;
+import Components.ResearchEquipmentItems.ChiselingEquipmentItem;
+import Components.ResearchEquipmentItems.ResearchEquipmentItem;
+import Components.ResearchEquipmentItems.TemperatureDetectorItem;
+import Components.ResearchEquipmentItems.WindSpeedMeasurement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The DifficultyEvaluator class rates how hard the research goals of a lake are.
+ * For every goal it finds the fastest round trip from the entrance square to a square where the goal's
+ * equipment can be used and back, counting the slides, the hazards the researcher cannot avoid without taking
+ * a slower route, and the hazard equipment needed to survive them. Stopping on a hazard is allowed, as the
+ * researcher may carry the matching equipment; a neutralized hazard is still treated as a stop.
+ * The score of a lake adds up the slides of all goals, with every unavoidable hazard weighing like
+ * several extra slides.
+ */
+public final class DifficultyEvaluator {
+
+    /**
+     * The number of slides an unavoidable hazard counts as in the score.
+     */
+    public static final int HAZARD_WEIGHT = 4;
+
+    private static final int MAX_CELLS = 1 << 20;
+    private static final long UNREACHED = Long.MAX_VALUE;
+
+    private DifficultyEvaluator() {
+    }
+
+    /**
+     * Evaluates a lake for all four research goals of the game.
+     *
+     * @param lake The lake to evaluate.
+     * @return The evaluation of the lake.
+     */
+    public static Evaluation evaluate(LakePuzzle lake) {
+        return evaluate(lake, Arrays.asList(new CameraItem(), new TemperatureDetectorItem(),
+                new ChiselingEquipmentItem(), new WindSpeedMeasurement()));
+    }
+
+    /**
+     * Evaluates a lake for a set of research goals.
+     *
+     * @param lake The lake to evaluate.
+     * @param goals The research equipment of the goals.
+     * @return The evaluation of the lake.
+     * @throws IllegalArgumentException if the lake has more than 2^20 cells.
+     */
+    public static Evaluation evaluate(LakePuzzle lake, Collection<? extends ResearchEquipmentItem> goals) {
+        int[] size = lake.getMapSize();
+        if ((long) size[0] * size[1] > MAX_CELLS) {
+            throw new IllegalArgumentException("The lake is too large to evaluate.");
+        }
+        RouteMap routes = new RouteMap(lake);
+        List<GoalEvaluation> results = new ArrayList<>(goals.size());
+        for (ResearchEquipmentItem goal : goals) {
+            results.add(routes.bestRoute(goal));
+        }
+        return new Evaluation(results);
+    }
+
+    /**
+     * The fastest routes from the entrance square to every square and back. Route costs are packed into a long
+     * as slides in the high bits and hazards below them, so comparing two costs compares slides first and
+     * hazards second, and the cell is packed into the lowest bits of queue entries.
+     */
+    private static final class RouteMap {
+        private static final int CELL_BITS = 20;
+        private static final int HAZARD_SHIFT = CELL_BITS;
+        private static final int SLIDE_SHIFT = 2 * CELL_BITS;
+        private static final long CELL_MASK = (1L << CELL_BITS) - 1;
+        private static final Direction[] DIRECTIONS = Direction.values();
+
+        private final LakePuzzle lake;
+        private final int columns;
+        private final int cellCount;
+        private final int entrance;
+        private final int[] next;
+        private final int[] sourceStart;
+        private final int[] sources;
+        private final long[] outCost;
+        private final int[] outVia;
+        private final long[] backCost;
+        private final int[] backVia;
+
+        private RouteMap(LakePuzzle lake) {
+            this.lake = lake;
+            int[] size = lake.getMapSize();
+            columns = size[0];
+            cellCount = size[0] * size[1];
+            int[] entrancePosition = lake.getEntrancePosition();
+            entrance = entrancePosition[1] * columns + entrancePosition[0];
+
+            next = new int[4 * cellCount];
+            sourceStart = new int[cellCount + 1];
+            for (int cell = 0; cell < cellCount; cell++) {
+                for (int d = 0; d < 4; d++) {
+                    int target = -1;
+                    if (isPassable(cell)) {
+                        target = lake.getSlideDestination(cell / columns, cell % columns, DIRECTIONS[d]);
+                        if (target >= 0 && !isPassable(target)) {
+                            target = -1;
+                        }
+                    }
+                    next[4 * cell + d] = target;
+                    if (target >= 0) {
+                        sourceStart[target + 1]++;
+                    }
+                }
+            }
+            for (int cell = 0; cell < cellCount; cell++) {
+                sourceStart[cell + 1] += sourceStart[cell];
+            }
+            sources = new int[sourceStart[cellCount]];
+            int[] fill = new int[cellCount];
+            for (int cell = 0; cell < cellCount; cell++) {
+                for (int d = 0; d < 4; d++) {
+                    int target = next[4 * cell + d];
+                    if (target >= 0) {
+                        sources[sourceStart[target] + fill[target]++] = cell;
+                    }
+                }
+            }
+
+            outCost = new long[cellCount];
+            outVia = new int[cellCount];
+            backCost = new long[cellCount];
+            backVia = new int[cellCount];
+            search(false, outCost, outVia);
+            search(true, backCost, backVia);
+        }
+
+        private boolean isPassable(int cell) {
+            byte kind = lake.kindAt(cell);
+            return kind == CellKind.EMPTY || CellKind.isEquipment(kind) || CellKind.isDangerousHazard(kind);
+        }
+
+        private long stepCost(int target) {
+            return (1L << SLIDE_SHIFT) + (CellKind.isDangerousHazard(lake.kindAt(target)) ? 1L << HAZARD_SHIFT : 0);
+        }
+
+        /**
+         * Finds the cheapest route between the entrance square and every square with Dijkstra's algorithm.
+         *
+         * @param towardsEntrance false for routes from the entrance square, true for routes back to it.
+         * @param cost The cost of every square's route, filled in.
+         * @param via The next square towards the entrance square on every square's route, filled in.
+         */
+        private void search(boolean towardsEntrance, long[] cost, int[] via) {
+            Arrays.fill(cost, UNREACHED);
+            Arrays.fill(via, -1);
+            if (!isPassable(entrance) || CellKind.isDangerousHazard(lake.kindAt(entrance))) {
+                return;
+            }
+            PriorityQueue<Long> queue = new PriorityQueue<>();
+            cost[entrance] = 0;
+            queue.add((long) entrance);
+            while (!queue.isEmpty()) {
+                long entry = queue.poll();
+                int cell = (int) (entry & CELL_MASK);
+                long current = entry & ~CELL_MASK;
+                if (current != cost[cell]) {
+                    continue;
+                }
+                if (towardsEntrance) {
+                    // A slide from source to cell costs what stopping on cell costs
+                    for (int i = sourceStart[cell]; i < sourceStart[cell + 1]; i++) {
+                        relax(sources[i], cell, current + stepCost(cell), cost, via, queue);
+                    }
+                } else {
+                    for (int d = 0; d < 4; d++) {
+                        int target = next[4 * cell + d];
+                        if (target >= 0) {
+                            relax(target, cell, current + stepCost(target), cost, via, queue);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void relax(int cell, int from, long candidate, long[] cost, int[] via, PriorityQueue<Long> queue) {
+            if (candidate < cost[cell]) {
+                cost[cell] = candidate;
+                via[cell] = from;
+                queue.add(candidate | cell);
+            }
+        }
+
+        /**
+         * Picks the cheapest round trip through a square where the equipment of a goal can be used, and counts
+         * the hazards on it. A hazard met on the way there and again on the way back is counted once.
+         *
+         * @param goal The research equipment of the goal.
+         * @return The evaluation of the goal.
+         */
+        private GoalEvaluation bestRoute(ResearchEquipmentItem goal) {
+            int best = -1;
+            long bestCost = UNREACHED;
+            for (int cell = 0; cell < cellCount; cell++) {
+                if (outCost[cell] == UNREACHED || backCost[cell] == UNREACHED) {
+                    continue;
+                }
+                long total = outCost[cell] + backCost[cell];
+                if (total < bestCost && lake.isExperimentCell(goal, cell / columns, cell % columns)) {
+                    best = cell;
+                    bestCost = total;
+                }
+            }
+            if (best < 0) {
+                return new GoalEvaluation(goal, false, -1, 0, 0, 0);
+            }
+            Set<Integer> hazards = new HashSet<>();
+            for (int cell = best; cell != entrance; cell = outVia[cell]) {
+                collectHazard(cell, hazards);
+            }
+            for (int cell = best; cell != entrance; cell = backVia[cell]) {
+                collectHazard(cell, hazards);
+            }
+            int boards = 0;
+            int helmets = 0;
+            int climbing = 0;
+            for (int cell : hazards) {
+                byte kind = lake.kindAt(cell);
+                if (kind == CellKind.HOLE) {
+                    boards++;
+                } else if (kind == CellKind.SPIKE) {
+                    helmets++;
+                } else {
+                    climbing++;
+                }
+            }
+            int slides = (int) (bestCost >>> SLIDE_SHIFT);
+            return new GoalEvaluation(goal, true, slides, boards, helmets, climbing);
+        }
+
+        private void collectHazard(int cell, Set<Integer> hazards) {
+            if (CellKind.isDangerousHazard(lake.kindAt(cell))) {
+                hazards.add(cell);
+            }
+        }
+    }
+
+    /**
+     * The fastest round trip for one research goal.
+     */
+    public static final class GoalEvaluation {
+        private final ResearchEquipmentItem goal;
+        private final boolean reachable;
+        private final int slides;
+        private final int woodenBoards;
+        private final int helmets;
+        private final int climbingEquipment;
+
+        private GoalEvaluation(ResearchEquipmentItem goal, boolean reachable, int slides, int woodenBoards,
+                               int helmets, int climbingEquipment) {
+            this.goal = goal;
+            this.reachable = reachable;
+            this.slides = slides;
+            this.woodenBoards = woodenBoards;
+            this.helmets = helmets;
+            this.climbingEquipment = climbingEquipment;
+        }
+
+        /**
+         * Retrieves the research equipment of the goal.
+         *
+         * @return The goal's equipment.
+         */
+        public ResearchEquipmentItem getGoal() {
+            return goal;
+        }
+
+        /**
+         * Checks whether the goal can be accomplished at all, with any hazard equipment.
+         *
+         * @return true if there is a round trip for the goal.
+         */
+        public boolean isReachable() {
+            return reachable;
+        }
+
+        /**
+         * Retrieves the minimum number of slides from the entrance square to a square where the goal's equipment
+         * can be used and back.
+         *
+         * @return The number of slides, or -1 if the goal cannot be accomplished.
+         */
+        public int getMinimumSlides() {
+            return slides;
+        }
+
+        /**
+         * Retrieves the number of hazards met on the fastest round trip with the fewest hazards; no round trip
+         * with as few slides avoids them.
+         *
+         * @return The number of unavoidable hazards.
+         */
+        public int getUnavoidableHazards() {
+            return woodenBoards + helmets + climbingEquipment;
+        }
+
+        /**
+         * Retrieves the number of large wooden boards needed for the holes on the route.
+         *
+         * @return The number of wooden boards.
+         */
+        public int getWoodenBoardsNeeded() {
+            return woodenBoards;
+        }
+
+        /**
+         * Retrieves the number of protective helmets needed for the ice spikes on the route.
+         *
+         * @return The number of helmets.
+         */
+        public int getHelmetsNeeded() {
+            return helmets;
+        }
+
+        /**
+         * Retrieves the number of climbing equipment needed for the cliff edges on the route.
+         *
+         * @return The number of climbing equipment.
+         */
+        public int getClimbingEquipmentNeeded() {
+            return climbingEquipment;
+        }
+    }
+
+    /**
+     * The evaluation of a lake for a set of research goals.
+     */
+    public static final class Evaluation {
+        private final List<GoalEvaluation> goals;
+        private final boolean solvable;
+        private final int score;
+
+        private Evaluation(List<GoalEvaluation> goals) {
+            this.goals = Collections.unmodifiableList(goals);
+            boolean allReachable = true;
+            int total = 0;
+            for (GoalEvaluation goal : goals) {
+                allReachable &= goal.isReachable();
+                total += goal.getMinimumSlides() + HAZARD_WEIGHT * goal.getUnavoidableHazards();
+            }
+            this.solvable = allReachable;
+            this.score = allReachable ? total : -1;
+        }
+
+        /**
+         * Retrieves the evaluations of the single goals, in the order the goals were given.
+         *
+         * @return The goal evaluations.
+         */
+        public List<GoalEvaluation> getGoals() {
+            return goals;
+        }
+
+        /**
+         * Checks whether every goal can be accomplished.
+         *
+         * @return true if every goal has a round trip.
+         */
+        public boolean isSolvable() {
+            return solvable;
+        }
+
+        /**
+         * Retrieves the difficulty score: the slides of all goals plus HAZARD_WEIGHT for every unavoidable hazard.
+         *
+         * @return The score, or -1 if a goal cannot be accomplished.
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * Retrieves the difficulty band of the score.
+         *
+         * @return The band, or null if a goal cannot be accomplished.
+         */
+        public DifficultyBand getBand() {
+            return solvable ? DifficultyBand.of(score) : null;
+        }
+    }
+}
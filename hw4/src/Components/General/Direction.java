@@ -0,0 +1,76 @@
+package Components.General;
+
+/**
+ * The Direction enum lists the four directions a researcher can slide in, together with the
+ * short notation used by the console and the row and column change of one step.
+ */
+public enum Direction {
+    UP("U", -1, 0),
+    DOWN("D", 1, 0),
+    LEFT("L", 0, -1),
+    RIGHT("R", 0, 1);
+
+    private final String code;
+    private final int rowChange;
+    private final int columnChange;
+
+    Direction(String code, int rowChange, int columnChange) {
+        this.code = code;
+        this.rowChange = rowChange;
+        this.columnChange = columnChange;
+    }
+
+    /**
+     * Retrieves the short notation of the direction.
+     *
+     * @return "U", "D", "L" or "R".
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Retrieves the row change of one step in this direction.
+     *
+     * @return -1, 0 or 1.
+     */
+    public int getRowChange() {
+        return rowChange;
+    }
+
+    /**
+     * Retrieves the column change of one step in this direction.
+     *
+     * @return -1, 0 or 1.
+     */
+    public int getColumnChange() {
+        return columnChange;
+    }
+
+    /**
+     * Checks whether the direction moves along a row.
+     *
+     * @return true for LEFT and RIGHT.
+     */
+    public boolean isHorizontal() {
+        return rowChange == 0;
+    }
+
+    /**
+     * Finds the direction with the given short notation.
+     *
+     * @param code The short notation, case-insensitive.
+     * @return The matching direction, or null if the notation is unknown.
+     */
+    public static Direction fromCode(String code) {
+        if (code == null) {
+            return null;
+        }
+        for (Direction direction : values()) {
+            if (direction.code.equalsIgnoreCase(code)) {
+                return direction;
+            }
+        }
+        return null;
+    }
+}
@@ -3,7 +3,9 @@ package Components.General;
 import Components.Interfaces.Equipment;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -13,12 +15,15 @@ import java.util.Set;
  */
 public class EquipmentBag<T extends Equipment> {
     private final Set<T> equipmentSet;
+    private final Map<String, Integer> codeCounts;
+    private long contentHash;
 
     /**
      * Constructs an empty EquipmentBag.
      */
     public EquipmentBag() {
         this.equipmentSet = new HashSet<>();
+        this.codeCounts = new HashMap<>();
     }
 
     /**
@@ -31,7 +36,11 @@ public class EquipmentBag<T extends Equipment> {
         if (equipment == null) {
             throw new IllegalArgumentException("Equipment cannot be null.");
         }
-        return equipmentSet.add(equipment);
+        if (!equipmentSet.add(equipment)) {
+            return false;
+        }
+        countChanged(equipment.toString(), 1);
+        return true;
     }
 
     /**
@@ -44,7 +53,38 @@ public class EquipmentBag<T extends Equipment> {
         if (equipment == null) {
             throw new IllegalArgumentException("Equipment cannot be null.");
         }
-        return equipmentSet.remove(equipment);
+        if (!equipmentSet.remove(equipment)) {
+            return false;
+        }
+        countChanged(equipment.toString(), -1);
+        return true;
+    }
+
+    /**
+     * Updates the number of pieces with a code and the content hash.
+     *
+     * @param code The code of the equipment.
+     * @param change 1 if a piece was added, -1 if one was removed.
+     */
+    private void countChanged(String code, int change) {
+        int previous = codeCounts.getOrDefault(code, 0);
+        int count = previous + change;
+        if (count == 0) {
+            codeCounts.remove(code);
+        } else {
+            codeCounts.put(code, count);
+        }
+        contentHash ^= Zobrist.equipment(code, previous) ^ Zobrist.equipment(code, count);
+    }
+
+    /**
+     * Retrieves the Zobrist hash of the bag's contents. Pieces with the same code are interchangeable, so bags
+     * holding the same number of pieces of every code have the same hash.
+     *
+     * @return The content hash, 0 for an empty bag.
+     */
+    public long getContentHash() {
+        return contentHash;
     }
 
     /**
@@ -0,0 +1,692 @@
+package Components.General;
+
+import Components.Interfaces.Equipment;
+import Components.ResearchEquipmentItems.CameraItem;
+import Components.ResearchEquipmentItems.ChiselingEquipmentItem;
+import Components.ResearchEquipmentItems.ResearchEquipmentItem;
+import Components.ResearchEquipmentItems.TemperatureDetectorItem;
+import Components.ResearchEquipmentItems.WindSpeedMeasurement;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The ExpeditionPlanner class plans a whole game: the equipment every researcher takes from the storage, the
+ * slides of their trip, where they use their research equipment and whether they come back to the entrance,
+ * until every research goal is accomplished. The rules are the rules of GameSession: a bag holds one to three
+ * pieces of equipment of the same category, hazard equipment is used up on the hazard it protects from,
+ * a researcher who ends their turn away from the entrance square stays on the lake as an obstacle and keeps
+ * their equipment, and the game is lost when the storage runs out of equipment for a pending goal.
+ * Researchers differ only in their IDs, so the order in which they go out is the order of the trips.
+ *
+ * The planner runs a depth-first search over every state of the game, from the loads chosen at the entrance
+ * to single slides on the lake. A state is the current square and bag, the storage, the pending goals, the
+ * researchers left and the changes made to the lake, so two paths that leave the game in the same state meet
+ * in the same entry of a transposition table shared by all threads. The loads of the first researcher are
+ * searched in parallel, each on its own copy of the lake, and the search stops as soon as any thread finds
+ * a plan. When every state has been searched without finding one, no plan exists.
+ * Research equipment is only carried and used for goals that are still pending, so placing equipment only to
+ * make a later researcher stop on it is not considered.
+ */
+public final class ExpeditionPlanner {
+
+    /**
+     * The number of states searched by plan before it gives up, unless a different limit is given.
+     */
+    public static final long DEFAULT_STATE_LIMIT = 1_000_000;
+
+    private static final int MAX_CELLS = 1 << 16;
+    private static final int MAX_RESEARCHERS = 16;
+    private static final int MAX_BAG = 3;
+    private static final int TYPES = 7;
+    private static final int RESEARCH_TYPES = 4;
+    private static final String[] CODES = {"cm", "ch", "td", "ws", "wb", "ph", "cl"};
+    private static final byte[] RESEARCH_KINDS = {CellKind.CAMERA, CellKind.CHISELING_EQUIPMENT,
+            CellKind.TEMPERATURE_DETECTOR, CellKind.WIND_SPEED};
+    private static final ResearchEquipmentItem[] RESEARCH = {new CameraItem(), new ChiselingEquipmentItem(),
+            new TemperatureDetectorItem(), new WindSpeedMeasurement()};
+    private static final Direction[] DIRECTIONS = Direction.values();
+    private static final byte RESEARCHER = 15;
+
+    private static final int GOAL_SHIFT = 56;
+    private static final int LEFT_SHIFT = 60;
+
+    private static final int LOAD = 0;
+    private static final int MOVE = 1;
+    private static final int USE = 2;
+    private static final int RETURN = 3;
+    private static final int STAY = 4;
+    private static final int END_TURN = 8;
+
+    private ExpeditionPlanner() {
+    }
+
+    /**
+     * The outcome of a search.
+     */
+    public enum Status {
+        /** A plan that accomplishes every goal was found. */
+        FOUND,
+        /** Every state was searched and no plan exists. */
+        IMPOSSIBLE,
+        /** The state limit was reached before a plan was found. */
+        LIMIT_REACHED
+    }
+
+    /**
+     * Plans a game on the common pool with the default state limit.
+     *
+     * @param lake The lake. Researchers standing on it, except on the entrance square, stay where they are.
+     * @param researchers The number of researchers that can still go out, including the one at the entrance.
+     * @param storage The equipment storage; it is not changed.
+     * @param goals The research goals that are not accomplished yet.
+     * @return The outcome of the search.
+     */
+    public static Plan plan(LakePuzzle lake, int researchers, EquipmentBag<? extends Equipment> storage,
+                            Collection<? extends ResearchEquipmentItem> goals) {
+        return plan(lake, researchers, storage, goals, ForkJoinPool.commonPool(), DEFAULT_STATE_LIMIT);
+    }
+
+    /**
+     * Plans a game, starting when the next researcher steps onto the entrance square with an empty bag.
+     *
+     * @param lake The lake. Researchers standing on it, except on the entrance square, stay where they are.
+     * @param researchers The number of researchers that can still go out, including the one at the entrance.
+     * @param storage The equipment storage; it is not changed.
+     * @param goals The research goals that are not accomplished yet.
+     * @param pool The pool the search runs on.
+     * @param stateLimit The largest number of states to search.
+     * @return The outcome of the search.
+     * @throws IllegalArgumentException if there are no researchers or more than 16, if the state limit is not
+     *         positive, if the lake has more than 2^16 cells or if the storage holds unknown equipment.
+     */
+    public static Plan plan(LakePuzzle lake, int researchers, EquipmentBag<? extends Equipment> storage,
+                            Collection<? extends ResearchEquipmentItem> goals, ForkJoinPool pool, long stateLimit) {
+        if (researchers < 1 || researchers > MAX_RESEARCHERS) {
+            throw new IllegalArgumentException("The number of researchers must be between 1 and 16.");
+        }
+        if (stateLimit < 1) {
+            throw new IllegalArgumentException("The state limit must be positive.");
+        }
+        int[] size = lake.getMapSize();
+        if ((long) size[0] * size[1] > MAX_CELLS) {
+            throw new IllegalArgumentException("The lake is too large to plan.");
+        }
+
+        int goalMask = 0;
+        for (ResearchEquipmentItem goal : goals) {
+            goalMask |= 1 << typeOf(goal);
+        }
+        long counters = 0;
+        int[] counts = new int[TYPES];
+        for (Equipment item : storage.getEquipmentSet()) {
+            counts[typeOf(item)]++;
+        }
+        for (int type = 0; type < TYPES; type++) {
+            // No game can take out more than three items per researcher, so larger counts make no difference
+            counters |= (long) Math.min(counts[type], MAX_BAG * researchers) << (8 * type);
+        }
+        counters |= (long) goalMask << GOAL_SHIFT | (long) (researchers - 1) << LEFT_SHIFT;
+
+        if (goalMask == 0) {
+            return new Plan(Status.FOUND, Collections.emptyList(), 0);
+        }
+        if (!hasEquipmentFor(counters)) {
+            return new Plan(Status.IMPOSSIBLE, Collections.emptyList(), 0);
+        }
+
+        Shared shared = new Shared(lake, stateLimit);
+        long start = counters;
+        shared.visited.add(new StateKey(start, 0, new int[0], 0));
+        int[] loads = loadsFor(start);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(loads.length);
+        for (int load : loads) {
+            tasks.add(pool.submit(() -> new Search(shared, start, load).run()));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        List<Trip> trips = shared.result.get();
+        long explored = shared.explored.get();
+        if (trips != null) {
+            return new Plan(Status.FOUND, trips, explored);
+        }
+        return new Plan(shared.limitReached.get() ? Status.LIMIT_REACHED : Status.IMPOSSIBLE,
+                Collections.emptyList(), explored);
+    }
+
+    private static int typeOf(Equipment equipment) {
+        String code = equipment.toString();
+        for (int type = 0; type < TYPES; type++) {
+            if (CODES[type].equals(code)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown equipment: " + code);
+    }
+
+    private static int count(long counters, int type) {
+        return (int) (counters >>> (8 * type)) & 0xFF;
+    }
+
+    private static int goalsOf(long counters) {
+        return (int) (counters >>> GOAL_SHIFT) & 0xF;
+    }
+
+    private static int leftOf(long counters) {
+        return (int) (counters >>> LEFT_SHIFT) & 0xF;
+    }
+
+    private static int bagCount(int bag, int type) {
+        return (bag >>> (2 * type)) & 3;
+    }
+
+    /**
+     * Checks the rule of GameSession that the storage must hold equipment for every pending goal.
+     *
+     * @param counters The packed storage, goals and researchers left.
+     * @return true if the game can go on.
+     */
+    private static boolean hasEquipmentFor(long counters) {
+        int goals = goalsOf(counters);
+        for (int type = 0; type < RESEARCH_TYPES; type++) {
+            if ((goals >>> type & 1) != 0 && count(counters, type) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Lists the loads a researcher can take from the storage, largest first and research loads before hazard
+     * loads. Research loads hold one item for each of some of the pending goals; hazard loads hold any mix of
+     * hazard equipment.
+     *
+     * @param counters The packed storage, goals and researchers left.
+     * @return The loads, as packed bags.
+     */
+    private static int[] loadsFor(long counters) {
+        List<int[]> loads = new ArrayList<>();
+        int goals = goalsOf(counters);
+        for (int subset = 1; subset < 1 << RESEARCH_TYPES; subset++) {
+            if ((subset & ~goals) != 0 || Integer.bitCount(subset) > MAX_BAG) {
+                continue;
+            }
+            int bag = 0;
+            for (int type = 0; type < RESEARCH_TYPES && bag >= 0; type++) {
+                if ((subset >>> type & 1) != 0) {
+                    bag = count(counters, type) > 0 ? bag | 1 << (2 * type) : -1;
+                }
+            }
+            if (bag > 0) {
+                loads.add(new int[]{bag, Integer.bitCount(subset), 1});
+            }
+        }
+        for (int boards = 0; boards <= Math.min(MAX_BAG, count(counters, 4)); boards++) {
+            for (int helmets = 0; helmets <= Math.min(MAX_BAG - boards, count(counters, 5)); helmets++) {
+                for (int climbing = 0; climbing <= Math.min(MAX_BAG - boards - helmets, count(counters, 6));
+                     climbing++) {
+                    int total = boards + helmets + climbing;
+                    if (total > 0) {
+                        loads.add(new int[]{boards << 8 | helmets << 10 | climbing << 12, total, 0});
+                    }
+                }
+            }
+        }
+        loads.sort((a, b) -> a[2] != b[2] ? b[2] - a[2] : b[1] - a[1]);
+        int[] bags = new int[loads.size()];
+        for (int i = 0; i < bags.length; i++) {
+            bags[i] = loads.get(i)[0];
+        }
+        return bags;
+    }
+
+    /**
+     * The state shared by all threads of one search.
+     */
+    private static final class Shared {
+        private final byte[] lakeRecord;
+        private final int[] obstacles;
+        private final long stateLimit;
+        private final Set<StateKey> visited = ConcurrentHashMap.newKeySet();
+        private final AtomicLong explored = new AtomicLong();
+        private final AtomicReference<List<Trip>> result = new AtomicReference<>();
+        private final AtomicBoolean limitReached = new AtomicBoolean();
+
+        private Shared(LakePuzzle lake, long stateLimit) {
+            ByteBuffer record = ByteBuffer.allocate((int) LakeFile.encodedSize(lake));
+            LakeFile.encode(lake, record);
+            this.lakeRecord = record.array();
+            this.stateLimit = stateLimit;
+            int[] entrance = lake.getEntrancePosition();
+            List<Integer> standing = new ArrayList<>();
+            for (Researcher researcher : lake.getResearchersOnMap()) {
+                int index = lake.findResearcherIndex(researcher);
+                if (index >= 0 && !lake.isEntranceSquare(index / lake.getMapSize()[0], index % lake.getMapSize()[0])) {
+                    standing.add(index);
+                }
+            }
+            this.obstacles = standing.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private boolean isStopped() {
+            return result.get() != null || limitReached.get();
+        }
+    }
+
+    /**
+     * A state of the game as stored in the transposition table: the storage, goals and researchers left, the
+     * current square and bag, and the sorted changes made to the lake, each packed as the cell and its new kind.
+     */
+    private static final class StateKey {
+        private final long counters;
+        private final int position;
+        private final int[] changes;
+        private final int hash;
+
+        private StateKey(long counters, int position, int[] changes, int changeCount) {
+            this.counters = counters;
+            this.position = position;
+            this.changes = Arrays.copyOf(changes, changeCount);
+            this.hash = 31 * (31 * Long.hashCode(counters) + position) + Arrays.hashCode(this.changes);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof StateKey)) {
+                return false;
+            }
+            StateKey key = (StateKey) other;
+            return hash == key.hash && counters == key.counters && position == key.position
+                    && Arrays.equals(changes, key.changes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * A node of the depth-first search. Entrance nodes, with no cell, choose a load; lake nodes try the
+     * research equipment, the four slides and ending the turn, in that order. A researcher who just took their
+     * load must slide first, so the node of the load only tries the slides.
+     */
+    private static final class Frame {
+        private final long counters;
+        private final int bag;
+        private final int cell;
+        private final int parentMark;
+        private final int tripMark;
+        private final int stepKind;
+        private final int stepValue;
+        private final int[] loads;
+        private final boolean slideRequired;
+        private int next;
+
+        private Frame(long counters, int bag, int cell, int parentMark, int tripMark, int stepKind, int stepValue,
+                      int[] loads) {
+            this.counters = counters;
+            this.bag = bag;
+            this.cell = cell;
+            this.parentMark = parentMark;
+            this.tripMark = tripMark;
+            this.stepKind = stepKind;
+            this.stepValue = stepValue;
+            this.loads = loads;
+            this.slideRequired = stepKind == LOAD && cell >= 0;
+            this.next = slideRequired ? RESEARCH_TYPES : 0;
+        }
+
+        private int lastAction() {
+            return cell < 0 ? loads.length - 1 : slideRequired ? END_TURN - 1 : END_TURN;
+        }
+    }
+
+    /**
+     * One thread of the search, working on its own copy of the lake. Changes to the lake are applied as the
+     * search goes deeper and undone as it backs up, and logged so they can be undone in order.
+     */
+    private static final class Search {
+        private final Shared shared;
+        private final LakePuzzle lake;
+        private final int columns;
+        private final int entrance;
+        private final List<Frame> stack = new ArrayList<>();
+        private int[] changes = new int[16];
+        private int changeCount;
+        private int[] log = new int[16];
+        private int logSize;
+
+        private Search(Shared shared, long counters, int load) {
+            this.shared = shared;
+            try {
+                this.lake = LakeFile.decode(ByteBuffer.wrap(shared.lakeRecord));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            this.columns = lake.getMapSize()[0];
+            int[] entrancePosition = lake.getEntrancePosition();
+            this.entrance = entrancePosition[1] * columns + entrancePosition[0];
+            for (int index : shared.obstacles) {
+                lake.placeResearcher(index, new Researcher(1));
+            }
+            stack.add(new Frame(counters, 0, -1, 0, 0, LOAD, 0, new int[]{load}));
+        }
+
+        private void run() {
+            while (!stack.isEmpty() && !shared.isStopped()) {
+                Frame frame = stack.get(stack.size() - 1);
+                if (frame.next > frame.lastAction()) {
+                    stack.remove(stack.size() - 1);
+                    undoTo(frame.parentMark);
+                    continue;
+                }
+                int action = frame.next++;
+                if (frame.cell < 0) {
+                    chooseLoad(frame, frame.loads[action]);
+                } else if (action < RESEARCH_TYPES) {
+                    useEquipment(frame, action);
+                } else if (action < END_TURN) {
+                    slide(frame, DIRECTIONS[action - RESEARCH_TYPES]);
+                } else {
+                    endTurn(frame);
+                }
+            }
+        }
+
+        private void chooseLoad(Frame frame, int load) {
+            long counters = frame.counters;
+            for (int type = 0; type < TYPES; type++) {
+                counters -= (long) bagCount(load, type) << (8 * type);
+            }
+            enter(frame, new Frame(counters, load, entrance, logSize, logSize, LOAD, load, null));
+        }
+
+        private void useEquipment(Frame frame, int type) {
+            int goals = goalsOf(frame.counters);
+            if (bagCount(frame.bag, type) == 0 || (goals >>> type & 1) == 0
+                    || !lake.isExperimentCell(RESEARCH[type], frame.cell / columns, frame.cell % columns)) {
+                return;
+            }
+            int mark = logSize;
+            apply(frame.cell, RESEARCH_KINDS[type]);
+            long counters = frame.counters & ~(1L << (GOAL_SHIFT + type));
+            if (goalsOf(counters) == 0) {
+                finish(new Frame(counters, 0, frame.cell, mark, frame.tripMark, USE, type, null));
+                return;
+            }
+            enter(frame, new Frame(counters, frame.bag - (1 << (2 * type)), frame.cell, mark, frame.tripMark,
+                    USE, type, null));
+        }
+
+        private void slide(Frame frame, Direction direction) {
+            int destination = lake.getSlideDestination(frame.cell / columns, frame.cell % columns, direction);
+            if (destination < 0) {
+                return;
+            }
+            int mark = logSize;
+            int bag = frame.bag;
+            byte kind = lake.kindAt(destination);
+            if (CellKind.isDangerousHazard(kind)) {
+                int type = kind == CellKind.HOLE ? 4 : kind == CellKind.SPIKE ? 5 : 6;
+                if (bagCount(bag, type) == 0) {
+                    return; // the researcher would die here
+                }
+                bag -= 1 << (2 * type);
+                apply(destination, kind == CellKind.HOLE ? CellKind.WOODEN_BOARD
+                        : kind == CellKind.SPIKE ? CellKind.EMPTY : CellKind.CLIMBING_EQUIPMENT);
+            }
+            enter(frame, new Frame(frame.counters, bag, destination, mark, frame.tripMark, MOVE,
+                    direction.ordinal(), null));
+        }
+
+        private void endTurn(Frame frame) {
+            long counters = frame.counters;
+            if (leftOf(counters) == 0) {
+                return;
+            }
+            int mark = logSize;
+            int stepKind;
+            if (frame.cell == entrance) {
+                if (logSize == frame.tripMark) {
+                    return; // nothing changed since the researcher went out
+                }
+                for (int type = 0; type < TYPES; type++) {
+                    counters += (long) bagCount(frame.bag, type) << (8 * type);
+                }
+                stepKind = RETURN;
+            } else {
+                apply(frame.cell, RESEARCHER);
+                stepKind = STAY;
+            }
+            counters -= 1L << LEFT_SHIFT;
+            if (!hasEquipmentFor(counters)) {
+                undoTo(mark);
+                return;
+            }
+            enter(frame, new Frame(counters, 0, -1, mark, logSize, stepKind, 0, loadsFor(counters)));
+        }
+
+        /**
+         * Pushes a new node unless its state was already searched by any thread.
+         */
+        private void enter(Frame parent, Frame child) {
+            // Bits 0-13 hold the bag, bits 14-30 the cell and bit 31 whether a slide is required
+            int position = child.cell < 0 ? 0
+                    : (child.slideRequired ? 1 << 31 : 0) | (child.cell + 1) << 14 | child.bag;
+            if (!shared.visited.add(new StateKey(child.counters, position, changes, changeCount))) {
+                undoTo(child.parentMark);
+                return;
+            }
+            if (shared.explored.incrementAndGet() > shared.stateLimit) {
+                shared.limitReached.set(true);
+                undoTo(child.parentMark);
+                return;
+            }
+            stack.add(child);
+        }
+
+        private void finish(Frame last) {
+            List<Trip> trips = new ArrayList<>();
+            List<String> load = null;
+            List<String> steps = null;
+            List<Frame> path = new ArrayList<>(stack);
+            path.add(last);
+            for (Frame frame : path) {
+                switch (frame.stepKind) {
+                    case LOAD:
+                        if (frame.cell >= 0) {
+                            load = new ArrayList<>();
+                            for (int type = 0; type < TYPES; type++) {
+                                for (int i = 0; i < bagCount(frame.stepValue, type); i++) {
+                                    load.add(CODES[type]);
+                                }
+                            }
+                            steps = new ArrayList<>();
+                        }
+                        break;
+                    case MOVE:
+                        steps.add(DIRECTIONS[frame.stepValue].getCode());
+                        break;
+                    case USE:
+                        steps.add(CODES[frame.stepValue]);
+                        break;
+                    default:
+                        trips.add(new Trip(load, steps, frame.stepKind == RETURN));
+                        break;
+                }
+            }
+            trips.add(new Trip(load, steps, false));
+            shared.result.compareAndSet(null, Collections.unmodifiableList(trips));
+            undoTo(last.parentMark);
+        }
+
+        /**
+         * Changes a cell of the lake and logs the change.
+         *
+         * @param cell The packed cell index.
+         * @param kind The new kind of the cell, or RESEARCHER for a researcher who stays on it.
+         */
+        private void apply(int cell, byte kind) {
+            if (kind == RESEARCHER) {
+                lake.placeResearcher(cell, new Researcher(1));
+            } else {
+                lake.clearItem(cell);
+                if (kind != CellKind.EMPTY) {
+                    lake.placeItem(cell, CellKind.create(kind));
+                }
+            }
+            int change = cell << 4 | kind;
+            if (changeCount == changes.length) {
+                changes = Arrays.copyOf(changes, changeCount * 2);
+            }
+            int at = changeCount;
+            while (at > 0 && changes[at - 1] > change) {
+                changes[at] = changes[at - 1];
+                at--;
+            }
+            changes[at] = change;
+            changeCount++;
+            if (logSize == log.length) {
+                log = Arrays.copyOf(log, logSize * 2);
+            }
+            log[logSize++] = change;
+        }
+
+        /**
+         * Undoes the logged changes down to the given log size, most recent first.
+         *
+         * @param mark The log size to return to.
+         */
+        private void undoTo(int mark) {
+            while (logSize > mark) {
+                int change = log[--logSize];
+                int cell = change >>> 4;
+                byte kind = (byte) (change & 0xF);
+                if (kind == RESEARCHER) {
+                    lake.clearResearcher(cell);
+                } else {
+                    lake.clearItem(cell);
+                    if (kind == CellKind.WOODEN_BOARD) {
+                        lake.placeItem(cell, CellKind.create(CellKind.HOLE));
+                    } else if (kind == CellKind.EMPTY) {
+                        lake.placeItem(cell, CellKind.create(CellKind.SPIKE));
+                    } else if (kind == CellKind.CLIMBING_EQUIPMENT) {
+                        lake.placeItem(cell, CellKind.create(CellKind.CLIFF_EDGE));
+                    }
+                }
+                int at = Arrays.binarySearch(changes, 0, changeCount, change);
+                System.arraycopy(changes, at + 1, changes, at, changeCount - at - 1);
+                changeCount--;
+            }
+        }
+    }
+
+    /**
+     * One trip of a researcher: the load taken from the storage, the steps on the lake and how the turn ends.
+     * Steps are written as they are typed in the game, a direction code for a slide and an equipment code for
+     * using research equipment.
+     */
+    public static final class Trip {
+        private final List<String> load;
+        private final List<String> steps;
+        private final boolean returning;
+
+        private Trip(List<String> load, List<String> steps, boolean returning) {
+            this.load = Collections.unmodifiableList(load);
+            this.steps = Collections.unmodifiableList(steps);
+            this.returning = returning;
+        }
+
+        /**
+         * Retrieves the codes of the equipment the researcher takes from the storage.
+         *
+         * @return The equipment codes.
+         */
+        public List<String> getLoad() {
+            return load;
+        }
+
+        /**
+         * Retrieves the steps of the trip in order.
+         *
+         * @return The direction and equipment codes.
+         */
+        public List<String> getSteps() {
+            return steps;
+        }
+
+        /**
+         * Checks whether the researcher ends the turn on the entrance square and leaves the lake.
+         *
+         * @return true if the researcher returns to the entrance, false if they stay on the lake or the game
+         *         ends during the trip.
+         */
+        public boolean isReturning() {
+            return returning;
+        }
+
+        @Override
+        public String toString() {
+            return load + " " + steps + (returning ? " return" : " stay");
+        }
+    }
+
+    /**
+     * The outcome of a search: its status and, if a plan was found, its trips.
+     */
+    public static final class Plan {
+        private final Status status;
+        private final List<Trip> trips;
+        private final long exploredStates;
+
+        private Plan(Status status, List<Trip> trips, long exploredStates) {
+            this.status = status;
+            this.trips = trips;
+            this.exploredStates = exploredStates;
+        }
+
+        /**
+         * Retrieves the status of the search.
+         *
+         * @return The status.
+         */
+        public Status getStatus() {
+            return status;
+        }
+
+        /**
+         * Retrieves the trips of the plan, one per researcher in the order they go out. The last trip ends
+         * when its researcher accomplishes the last goal.
+         *
+         * @return The trips, empty unless a plan was found.
+         */
+        public List<Trip> getTrips() {
+            return trips;
+        }
+
+        /**
+         * Retrieves the number of states the search went through.
+         *
+         * @return The number of searched states.
+         */
+        public long getExploredStates() {
+            return exploredStates;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package Components.General;
+
+/**
+ * The ExperimentMasks class keeps, for each kind of research equipment, a bitboard of the cells where it can be
+ * used, following the rules of the equipment's canBeUsedAt:
+ * - Temperature detector: an empty cell that is neither on the edge nor next to an ice block.
+ * - Chiseling equipment: an empty cell next to an ice block.
+ * - Wind speed measurement: an empty cell.
+ * - Camera: an empty cell whose first hazard in the direction of the cliff edge is the cliff edge itself.
+ *
+ * The masks are built once from every cell and then updated as cells change. A change touches the cell itself
+ * and, when an ice block appears or disappears, its eight neighbours. The camera's view is read from the lake's
+ * nearest hazard index. Only when a hazard is placed or removed are the cells behind it, up to the previous
+ * hazard, updated as well.
+ */
+final class ExperimentMasks {
+
+    private static final int TEMPERATURE = 0;
+    private static final int CHISELING = 1;
+    private static final int WIND = 2;
+    private static final int CAMERA = 3;
+
+    private final LakePuzzle lake;
+    private final int rows;
+    private final int columns;
+    private final BitGrid[] masks;
+    private int rowStep;
+    private int colStep;
+    private Direction sight;
+    private boolean built;
+
+    /**
+     * Creates the masks of a lake. They are built on first use.
+     *
+     * @param lake The lake.
+     * @param rows The number of rows of the lake.
+     * @param columns The number of columns of the lake.
+     */
+    ExperimentMasks(LakePuzzle lake, int rows, int columns) {
+        this.lake = lake;
+        this.rows = rows;
+        this.columns = columns;
+        this.masks = new BitGrid[4];
+        for (int i = 0; i < masks.length; i++) {
+            masks[i] = new BitGrid(rows, columns);
+        }
+    }
+
+    /**
+     * Marks the masks as out of date, so they are rebuilt on next use. Used when the whole map is generated again.
+     */
+    void invalidate() {
+        built = false;
+    }
+
+    /**
+     * Checks whether the masks are up to date, so cell changes have to be applied to them.
+     *
+     * @return true if the masks are built.
+     */
+    boolean isBuilt() {
+        return built;
+    }
+
+    /**
+     * Checks whether a piece of research equipment can be used at a position.
+     *
+     * @param equipmentKind The CellKind code of the research equipment.
+     * @param row The row index of the position.
+     * @param col The column index of the position.
+     * @return true if the equipment can be used at the position, false for other kinds.
+     */
+    boolean isValid(byte equipmentKind, int row, int col) {
+        int mask = maskOf(equipmentKind);
+        if (mask < 0) {
+            return false;
+        }
+        build();
+        return masks[mask].get(row, col);
+    }
+
+    /**
+     * Applies the change of a cell's kind. The lake's cells and ice block layer must already hold the new kind.
+     *
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     * @param previous The previous CellKind code.
+     * @param kind The new CellKind code.
+     */
+    void cellChanged(int row, int col, byte previous, byte kind) {
+        if ((previous == CellKind.ICE_BLOCK) != (kind == CellKind.ICE_BLOCK)) {
+            for (int r = Math.max(0, row - 1); r <= Math.min(rows - 1, row + 1); r++) {
+                for (int c = Math.max(0, col - 1); c <= Math.min(columns - 1, col + 1); c++) {
+                    updateNeighbourhoodMasks(r, c);
+                }
+            }
+        } else {
+            updateNeighbourhoodMasks(row, col);
+        }
+        write(WIND, row, col, kind == CellKind.EMPTY);
+        if (sight == null) {
+            return;
+        }
+        if (CellKind.isHazard(previous) == CellKind.isHazard(kind)) {
+            write(CAMERA, row, col, kind == CellKind.EMPTY && firstBlockerAhead(row, col) == CellKind.CLIFF_EDGE);
+        } else {
+            byte ahead = firstBlockerAhead(row, col);
+            write(CAMERA, row, col, kind == CellKind.EMPTY && ahead == CellKind.CLIFF_EDGE);
+            sweepBack(row - rowStep, col - colStep, CellKind.isHazard(kind) ? kind : ahead, false);
+        }
+    }
+
+    /**
+     * Builds every mask from the cells if they are out of date.
+     */
+    private void build() {
+        if (built) {
+            return;
+        }
+        for (BitGrid mask : masks) {
+            mask.clearAll();
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < columns; col++) {
+                updateNeighbourhoodMasks(row, col);
+                if (lake.kindAt(row, col) == CellKind.EMPTY) {
+                    masks[WIND].set(row, col);
+                }
+            }
+        }
+        switch (lake.getCliffEdgeDirection()) {
+            case 0: // Right
+                rowStep = 0;
+                colStep = 1;
+                sight = Direction.RIGHT;
+                for (int row = 0; row < rows; row++) {
+                    sweepBack(row, columns - 1, CellKind.EMPTY, true);
+                }
+                break;
+            case 1: // Bottom
+                rowStep = 1;
+                colStep = 0;
+                sight = Direction.DOWN;
+                for (int col = 0; col < columns; col++) {
+                    sweepBack(rows - 1, col, CellKind.EMPTY, true);
+                }
+                break;
+            case 2: // Left
+                rowStep = 0;
+                colStep = -1;
+                sight = Direction.LEFT;
+                for (int row = 0; row < rows; row++) {
+                    sweepBack(row, 0, CellKind.EMPTY, true);
+                }
+                break;
+            default:
+                rowStep = 0;
+                colStep = 0;
+                sight = null;
+        }
+        built = true;
+    }
+
+    /**
+     * Updates the temperature detector and chiseling masks of a cell, which depend on the ice blocks around it.
+     *
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     */
+    private void updateNeighbourhoodMasks(int row, int col) {
+        boolean empty = lake.kindAt(row, col) == CellKind.EMPTY;
+        boolean nextToIceBlock = lake.isNextToIceBlock(row, col);
+        write(TEMPERATURE, row, col, empty && !nextToIceBlock && !lake.isNextToEdge(row, col));
+        write(CHISELING, row, col, empty && nextToIceBlock);
+    }
+
+    /**
+     * Updates the camera mask from a cell backwards, away from the cliff. A cell that blocks the line of sight
+     * hides the cells behind it, so when only the cells in front of it changed the sweep stops there.
+     *
+     * @param row The row index of the first cell.
+     * @param col The column index of the first cell.
+     * @param ahead The kind of the first blocking hazard ahead of the first cell, or EMPTY if there is none.
+     * @param wholeLine Whether to go on past blocking hazards to the end of the line.
+     */
+    private void sweepBack(int row, int col, byte ahead, boolean wholeLine) {
+        while (row >= 0 && row < rows && col >= 0 && col < columns) {
+            byte kind = lake.kindAt(row, col);
+            write(CAMERA, row, col, kind == CellKind.EMPTY && ahead == CellKind.CLIFF_EDGE);
+            if (CellKind.isHazard(kind)) {
+                if (!wholeLine) {
+                    return;
+                }
+                ahead = kind;
+            }
+            row -= rowStep;
+            col -= colStep;
+        }
+    }
+
+    /**
+     * Finds the first hazard that blocks the line of sight ahead of a cell, in the direction of the cliff edge.
+     *
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     * @return The CellKind code of the hazard, or EMPTY if there is none.
+     */
+    private byte firstBlockerAhead(int row, int col) {
+        int hazard = lake.getNearestHazard(row, col, sight);
+        return hazard < 0 ? CellKind.EMPTY : lake.kindAt(hazard);
+    }
+
+    private void write(int mask, int row, int col, boolean valid) {
+        if (valid) {
+            masks[mask].set(row, col);
+        } else {
+            masks[mask].clear(row, col);
+        }
+    }
+
+    private static int maskOf(byte equipmentKind) {
+        switch (equipmentKind) {
+            case CellKind.TEMPERATURE_DETECTOR: return TEMPERATURE;
+            case CellKind.CHISELING_EQUIPMENT: return CHISELING;
+            case CellKind.WIND_SPEED: return WIND;
+            case CellKind.CAMERA: return CAMERA;
+            default: return -1;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package Components.General;
+
+import java.util.Arrays;
+
+/**
+ * The HazardRays class is an index of the nearest hazard in each direction from every cell, used for line of sight
+ * queries such as the camera's view of the cliff edge. Like the slide tables of LakePuzzle, it keeps one table
+ * per row and per column, built on first use with two sweeps along the line. Instead of being dropped when a cell
+ * changes, a cached table is corrected when a hazard is placed or removed: only the entries between the changed
+ * cell and the next hazard on each side point past it, so only those are rewritten.
+ */
+final class HazardRays {
+
+    private static final int TABLE_BUDGET = 1 << 22;
+
+    private final LakePuzzle lake;
+    private final int rows;
+    private final int columns;
+    private final int[][] rowTables;
+    private final int[][] columnTables;
+    private int cachedCells;
+
+    /**
+     * Creates an empty index of a lake.
+     *
+     * @param lake The lake.
+     * @param rows The number of rows of the lake.
+     * @param columns The number of columns of the lake.
+     */
+    HazardRays(LakePuzzle lake, int rows, int columns) {
+        this.lake = lake;
+        this.rows = rows;
+        this.columns = columns;
+        this.rowTables = new int[rows][];
+        this.columnTables = new int[columns][];
+    }
+
+    /**
+     * Drops every cached table. Used when the whole map is generated again.
+     */
+    void clear() {
+        Arrays.fill(rowTables, null);
+        Arrays.fill(columnTables, null);
+        cachedCells = 0;
+    }
+
+    /**
+     * Finds the nearest hazard in a direction from a cell, not counting the cell itself.
+     *
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     * @param direction The direction to look in.
+     * @return The packed index of the nearest hazard, or -1 if there is none before the map edge.
+     */
+    int nearest(int row, int col, Direction direction) {
+        if (direction.isHorizontal()) {
+            int[] table = rowTables[row];
+            if (table == null) {
+                table = buildTable(row * columns, 1, columns);
+                reserve(table.length);
+                rowTables[row] = table;
+            }
+            int hit = table[2 * col + (direction == Direction.RIGHT ? 1 : 0)];
+            return hit < 0 ? -1 : row * columns + hit;
+        }
+        int[] table = columnTables[col];
+        if (table == null) {
+            table = buildTable(col, columns, rows);
+            reserve(table.length);
+            columnTables[col] = table;
+        }
+        int hit = table[2 * row + (direction == Direction.DOWN ? 1 : 0)];
+        return hit < 0 ? -1 : hit * columns + col;
+    }
+
+    /**
+     * Corrects the cached tables of a cell's row and column after the cell became or stopped being a hazard.
+     *
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     * @param hazard Whether the cell now holds a hazard.
+     */
+    void hazardChanged(int row, int col, boolean hazard) {
+        int[] rowTable = rowTables[row];
+        if (rowTable != null) {
+            correct(rowTable, row * columns, 1, columns, col, hazard);
+        }
+        int[] columnTable = columnTables[col];
+        if (columnTable != null) {
+            correct(columnTable, col, columns, rows, row, hazard);
+        }
+    }
+
+    /**
+     * Builds the table of one line, holding for the cell at position p the position of the nearest hazard
+     * before it at 2 * p and after it at 2 * p + 1, or -1 if there is none.
+     *
+     * @param start The packed index of the line's first cell.
+     * @param stride The distance between packed indices of neighbouring cells on the line.
+     * @param length The number of cells on the line.
+     * @return The table.
+     */
+    private int[] buildTable(int start, int stride, int length) {
+        int[] table = new int[2 * length];
+        int last = -1;
+        for (int p = 0; p < length; p++) {
+            table[2 * p] = last;
+            if (isHazard(start + p * stride)) {
+                last = p;
+            }
+        }
+        last = -1;
+        for (int p = length - 1; p >= 0; p--) {
+            table[2 * p + 1] = last;
+            if (isHazard(start + p * stride)) {
+                last = p;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Rewrites the entries of a line that look across a changed cell, from the cell outwards up to and including
+     * the next hazard on each side, which hides the cells beyond it.
+     *
+     * @param table The table of the line.
+     * @param start The packed index of the line's first cell.
+     * @param stride The distance between packed indices of neighbouring cells on the line.
+     * @param length The number of cells on the line.
+     * @param changed The position of the changed cell on the line.
+     * @param hazard Whether the changed cell now holds a hazard.
+     */
+    private void correct(int[] table, int start, int stride, int length, int changed, boolean hazard) {
+        int before = hazard ? changed : table[2 * changed];
+        for (int p = changed + 1; p < length; p++) {
+            table[2 * p] = before;
+            if (isHazard(start + p * stride)) {
+                break;
+            }
+        }
+        int after = hazard ? changed : table[2 * changed + 1];
+        for (int p = changed - 1; p >= 0; p--) {
+            table[2 * p + 1] = after;
+            if (isHazard(start + p * stride)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Keeps the total size of the cached tables within a fixed budget, dropping every table when a new one
+     * would exceed it, so memory stays bounded on large lakes.
+     *
+     * @param length The length of the table about to be cached.
+     */
+    private void reserve(int length) {
+        if (cachedCells + length > TABLE_BUDGET) {
+            clear();
+        }
+        cachedCells += length;
+    }
+
+    private boolean isHazard(int index) {
+        return CellKind.isHazard(lake.kindAt(index));
+    }
+}
@@ -0,0 +1,272 @@
+package Components.General;
+
+import Components.Interfaces.LakeSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LakeBatchGenerator class generates large numbers of lakes in parallel for building level catalogs.
+ * The requested range is split into fork-join tasks; every task gets its own stream split from the batch seed,
+ * so the same seed always produces the same lakes, and generates its lakes in place in a single scratch lake
+ * object. Lakes are handed to a sink as they are produced instead of being collected, and lakes whose
+ * canonical hash was already seen in the batch can be skipped.
+ */
+public class LakeBatchGenerator {
+
+    private static final int LAKES_PER_TASK = 1024;
+    private static final int DEDUP_STRIPES = 64;
+
+    private final LakePuzzle.Builder settings;
+    private final boolean deduplicate;
+
+    /**
+     * Constructs a batch generator.
+     *
+     * @param settings The size and hazard settings of every lake. The builder is copied.
+     * @param deduplicate true to skip lakes that are identical to a lake already produced in the same batch.
+     */
+    public LakeBatchGenerator(LakePuzzle.Builder settings, boolean deduplicate) {
+        this.settings = new LakePuzzle.Builder(settings);
+        this.deduplicate = deduplicate;
+    }
+
+    /**
+     * Generates lakes on the common fork-join pool.
+     *
+     * @param count The number of lakes to generate.
+     * @param seed The seed of the batch.
+     * @param sink The sink receiving the lakes.
+     * @return The counts of the batch.
+     * @throws IOException if the sink fails.
+     */
+    public Result generate(long count, long seed, LakeSink sink) throws IOException {
+        return generate(count, seed, sink, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Generates lakes on the given fork-join pool.
+     * Every attempt counts towards the requested number, so with deduplication fewer lakes may reach the sink.
+     *
+     * @param count The number of lakes to generate.
+     * @param seed The seed of the batch.
+     * @param sink The sink receiving the lakes.
+     * @param pool The pool running the generation.
+     * @return The counts of the batch.
+     * @throws IOException if the sink fails.
+     */
+    public Result generate(long count, long seed, LakeSink sink, ForkJoinPool pool) throws IOException {
+        if (count < 0) {
+            throw new IllegalArgumentException("The number of lakes cannot be negative.");
+        }
+        Batch batch = new Batch(sink);
+        long start = System.nanoTime();
+        try {
+            pool.invoke(new GenerateTask(batch, 0, count, new SplittableRandom(seed)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new Result(batch.produced.sum(), batch.duplicates.sum(), batch.failed.sum(), System.nanoTime() - start);
+    }
+
+    /**
+     * Computes a hash of a lake's cells that is the same for a lake and its mirror image, since mirroring
+     * a lake across its middle column gives the same puzzle. Lakes with an even number of columns have their
+     * entrance off the middle and are hashed as they are.
+     *
+     * @param lake The lake.
+     * @return The canonical hash.
+     */
+    public static long canonicalHash(LakePuzzle lake) {
+        int[] size = lake.getMapSize();
+        int columns = size[0];
+        int rows = size[1];
+        long forward = 0xCBF29CE484222325L;
+        long mirrored = 0xCBF29CE484222325L;
+        for (int row = 0; row < rows; row++) {
+            int base = row * columns;
+            for (int col = 0; col < columns; col++) {
+                forward = (forward ^ lake.kindAt(base + col)) * 0x100000001B3L;
+                mirrored = (mirrored ^ lake.kindAt(base + columns - 1 - col)) * 0x100000001B3L;
+            }
+        }
+        long hash = columns % 2 == 1 ? Math.min(finish(forward), finish(mirrored)) : finish(forward);
+        return hash ^ ((long) rows << 32 | columns);
+    }
+
+    /**
+     * Creates a sink that writes every lake as a LakeFile record to a channel, one after another, so a catalog
+     * can be read back with LakeFile.decode. Records are encoded in per-thread buffers and written whole.
+     *
+     * @param out The channel to write to.
+     * @return The sink.
+     */
+    public static LakeSink recordSink(WritableByteChannel out) {
+        ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(4096));
+        return (hash, lake) -> {
+            long size = LakeFile.encodedSize(lake);
+            ByteBuffer buffer = buffers.get();
+            if (buffer.capacity() < size) {
+                buffer = ByteBuffer.allocate((int) size);
+                buffers.set(buffer);
+            }
+            buffer.clear();
+            LakeFile.encode(lake, buffer);
+            buffer.flip();
+            synchronized (out) {
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+            }
+        };
+    }
+
+    private static long finish(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * The shared state of one batch: the sink, the counters and the striped set of hashes seen so far.
+     */
+    private class Batch {
+        private final LakeSink sink;
+        private final LongAdder produced = new LongAdder();
+        private final LongAdder duplicates = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongHashSet[] seen;
+
+        private Batch(LakeSink sink) {
+            this.sink = sink;
+            this.seen = new LongHashSet[deduplicate ? DEDUP_STRIPES : 0];
+            for (int i = 0; i < seen.length; i++) {
+                seen[i] = new LongHashSet(1024);
+            }
+        }
+
+        private boolean firstTime(long hash) {
+            if (!deduplicate) {
+                return true;
+            }
+            LongHashSet stripe = seen[(int) (hash >>> 58)];
+            synchronized (stripe) {
+                return stripe.add(hash);
+            }
+        }
+    }
+
+    /**
+     * Generates the lakes of a range of the batch, splitting the range in halves until it is small enough.
+     */
+    @SuppressWarnings("serial") // Tasks are never serialized
+    private class GenerateTask extends RecursiveAction {
+        private final Batch batch;
+        private final long from;
+        private final long to;
+        private final SplittableRandom random;
+
+        private GenerateTask(Batch batch, long from, long to, SplittableRandom random) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > LAKES_PER_TASK) {
+                long middle = from + (to - from) / 2;
+                invokeAll(new GenerateTask(batch, from, middle, random.split()),
+                        new GenerateTask(batch, middle, to, random.split()));
+                return;
+            }
+            LakePuzzle scratch = null;
+            for (long i = from; i < to; i++) {
+                try {
+                    if (scratch == null) {
+                        scratch = new LakePuzzle.Builder(settings).random(random).build();
+                    } else {
+                        scratch.regenerate(random.split());
+                    }
+                } catch (IllegalStateException e) {
+                    // A lake whose contents did not fit its size, or that could not be made solvable;
+                    // the next one starts from a new scratch lake
+                    batch.failed.increment();
+                    scratch = null;
+                    continue;
+                }
+                long hash = canonicalHash(scratch);
+                if (!batch.firstTime(hash)) {
+                    batch.duplicates.increment();
+                    continue;
+                }
+                try {
+                    batch.sink.accept(hash, scratch);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                batch.produced.increment();
+            }
+        }
+    }
+
+    /**
+     * The counts of a finished batch.
+     */
+    public static class Result {
+        private final long produced;
+        private final long duplicates;
+        private final long failed;
+        private final long elapsedNanos;
+
+        private Result(long produced, long duplicates, long failed, long elapsedNanos) {
+            this.produced = produced;
+            this.duplicates = duplicates;
+            this.failed = failed;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Retrieves the number of lakes handed to the sink.
+         *
+         * @return The number of produced lakes.
+         */
+        public long getProduced() {
+            return produced;
+        }
+
+        /**
+         * Retrieves the number of lakes skipped because an identical lake was already produced.
+         *
+         * @return The number of duplicates.
+         */
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        /**
+         * Retrieves the number of lakes whose generation failed.
+         *
+         * @return The number of failed lakes.
+         */
+        public long getFailed() {
+            return failed;
+        }
+
+        /**
+         * Retrieves the wall-clock time of the batch.
+         *
+         * @return The elapsed time in nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package Components.General;
+
+import Components.Interfaces.LakeSink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LakeCatalog class keeps pre-generated lakes indexed by difficulty band, so a session can ask for a lake
+ * of a given difficulty and get one in constant time instead of generating and rejecting lakes on the spot.
+ * Lakes are evaluated with DifficultyEvaluator as they are added and kept as LakeFile records, which take a
+ * fraction of the memory of a lake object. The catalog is a LakeSink, so it can be filled directly by a
+ * LakeBatchGenerator; lakes that are unsolvable or whose band is already full are dropped.
+ */
+public class LakeCatalog implements LakeSink {
+
+    private final int capacityPerBand;
+    private final Map<DifficultyBand, ArrayList<byte[]>> records = new EnumMap<>(DifficultyBand.class);
+    private final LongAdder evaluated = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Creates an empty catalog.
+     *
+     * @param capacityPerBand The largest number of lakes kept for each difficulty band.
+     */
+    public LakeCatalog(int capacityPerBand) {
+        if (capacityPerBand < 1) {
+            throw new IllegalArgumentException("Each band must hold at least one lake.");
+        }
+        this.capacityPerBand = capacityPerBand;
+        for (DifficultyBand band : DifficultyBand.values()) {
+            records.put(band, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Evaluates a lake and files it under its difficulty band. Thread-safe.
+     *
+     * @param hash The canonical hash of the lake, not used.
+     * @param lake The lake, copied before this method returns.
+     */
+    @Override
+    public void accept(long hash, LakePuzzle lake) {
+        add(lake);
+    }
+
+    /**
+     * Evaluates a lake and files it under its difficulty band. Thread-safe.
+     *
+     * @param lake The lake, copied before this method returns.
+     * @return The band the lake was filed under, or null if it was dropped.
+     */
+    public DifficultyBand add(LakePuzzle lake) {
+        evaluated.increment();
+        DifficultyBand band = DifficultyEvaluator.evaluate(lake).getBand();
+        if (band == null || size(band) >= capacityPerBand) {
+            dropped.increment();
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.allocate((int) LakeFile.encodedSize(lake));
+        LakeFile.encode(lake, record);
+        synchronized (records) {
+            ArrayList<byte[]> list = records.get(band);
+            if (list.size() < capacityPerBand) {
+                list.add(record.array());
+                return band;
+            }
+        }
+        dropped.increment();
+        return null;
+    }
+
+    /**
+     * Takes a lake of a difficulty band out of the catalog.
+     *
+     * @param band The difficulty band.
+     * @return A new lake of that band, or null if the catalog has none left.
+     */
+    public LakePuzzle take(DifficultyBand band) {
+        byte[] record;
+        synchronized (records) {
+            ArrayList<byte[]> list = records.get(band);
+            if (list.isEmpty()) {
+                return null;
+            }
+            record = list.remove(list.size() - 1);
+        }
+        try {
+            return LakeFile.decode(ByteBuffer.wrap(record));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Retrieves the number of lakes left in a difficulty band.
+     *
+     * @param band The difficulty band.
+     * @return The number of lakes of that band.
+     */
+    public int size(DifficultyBand band) {
+        synchronized (records) {
+            return records.get(band).size();
+        }
+    }
+
+    /**
+     * Checks whether every difficulty band holds as many lakes as it can.
+     *
+     * @return true if the catalog is full.
+     */
+    public boolean isFull() {
+        synchronized (records) {
+            for (ArrayList<byte[]> list : records.values()) {
+                if (list.size() < capacityPerBand) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Retrieves the number of lakes evaluated so far.
+     *
+     * @return The number of evaluated lakes.
+     */
+    public long getEvaluated() {
+        return evaluated.sum();
+    }
+
+    /**
+     * Retrieves the number of lakes dropped because they were unsolvable or their band was full.
+     *
+     * @return The number of dropped lakes.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
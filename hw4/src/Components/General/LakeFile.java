@@ -0,0 +1,298 @@
+package Components.General;
+
+import Components.ResearchEquipmentItems.ResearchEquipmentItem;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The LakeFile class reads and writes lakes in a compact binary format that can be opened without parsing.
+ * A lake record starts with a fixed header, followed by one CellKind byte per cell row by row, followed by a
+ * side section with the items that carry state (placed equipment and the results of research equipment).
+ * Opening a file memory-maps it read-only: the cell section is used as the lake's storage directly, pages are
+ * only read when their cells are visited and can be shared by every process opening the same file. The lake
+ * copies its cells to memory the first time one changes, so the file is never written back.
+ * The same record can be written to and read from a buffer, for embedding a lake in a larger snapshot.
+ * The header also holds the seed of the lake's random streams, drawn from the lake when it is written, so a
+ * lake read back plays on the same way every time. Records of version 1 have no seed and use 0.
+ * Researchers are not part of a lake record.
+ */
+public final class LakeFile {
+
+    private static final int MAGIC = 0x464C4B45;
+    private static final short VERSION = 2;
+    private static final int HEADER_SIZE = 40;
+    private static final int VERSION_1_HEADER_SIZE = 32;
+    private static final short FLAG_CHUNK = 1;
+    private static final int ITEM_SIZE = 6;
+
+    private LakeFile() {
+    }
+
+    /**
+     * Writes a lake to a file, replacing the file if it exists.
+     *
+     * @param lake The lake to write.
+     * @param path The path of the file.
+     * @throws IOException if the file cannot be written.
+     * @throws IllegalArgumentException if the lake contains an item of an unknown kind.
+     */
+    public static void write(LakePuzzle lake, Path path) throws IOException {
+        Map<Integer, MapItem> statefulItems = lake.copyStatefulItems();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        putHeader(lake, statefulItems.size(), header);
+        header.flip();
+        ByteBuffer items = ByteBuffer.allocate(itemSectionSize(statefulItems));
+        putItems(statefulItems, items);
+        items.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            writeFully(channel, lake.cellView());
+            writeFully(channel, items);
+        }
+    }
+
+    /**
+     * Opens a lake from a file by memory-mapping it. Only the header and the side section are read;
+     * the cells are read on demand by the operating system. Only read access to the file is needed.
+     *
+     * @param path The path of the file.
+     * @return The lake stored in the file.
+     * @throws IOException if the file cannot be read or is not a valid lake file.
+     */
+    public static LakePuzzle open(Path path) throws IOException {
+        MappedByteBuffer file;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < VERSION_1_HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a lake file: " + path);
+            }
+            file = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        return read(file, false);
+    }
+
+    /**
+     * Computes the number of bytes the record of a lake takes.
+     *
+     * @param lake The lake.
+     * @return The size of the record in bytes.
+     */
+    public static long encodedSize(LakePuzzle lake) {
+        int[] size = lake.getMapSize();
+        return HEADER_SIZE + (long) size[0] * size[1] + itemSectionSize(lake.copyStatefulItems());
+    }
+
+    /**
+     * Writes the record of a lake to a buffer, starting at its current position.
+     *
+     * @param lake The lake to write.
+     * @param out The buffer to write to; its position is advanced past the record.
+     * @throws java.nio.BufferOverflowException if the buffer is too small.
+     * @throws IllegalArgumentException if the lake contains an item of an unknown kind.
+     */
+    public static void encode(LakePuzzle lake, ByteBuffer out) {
+        Map<Integer, MapItem> statefulItems = lake.copyStatefulItems();
+        putHeader(lake, statefulItems.size(), out);
+        out.put(lake.cellView());
+        putItems(statefulItems, out);
+    }
+
+    /**
+     * Reads the record of a lake from a buffer, starting at its current position.
+     * The cells are copied, so the buffer can be reused afterwards.
+     *
+     * @param in The buffer to read from; its position is advanced past the record.
+     * @return The lake stored in the record.
+     * @throws IOException if the record is not a valid lake record.
+     */
+    public static LakePuzzle decode(ByteBuffer in) throws IOException {
+        return read(in, true);
+    }
+
+    /**
+     * Computes the number of bytes the record of a single item takes.
+     *
+     * @param item The item, placed equipment or equipment in a bag.
+     * @return The size of the item record in bytes.
+     */
+    public static int itemSize(MapItem item) {
+        byte[] message = messageBytes(item);
+        return ITEM_SIZE + (message != null ? message.length : 0);
+    }
+
+    /**
+     * Writes the record of a single item: the CellKind code, the finished flag of research equipment and its
+     * message as UTF-8 bytes preceded by their length, or -1 for no message.
+     *
+     * @param item The item to write.
+     * @param out The buffer to write to.
+     * @throws IllegalArgumentException if the item is of an unknown kind.
+     */
+    public static void putItem(MapItem item, ByteBuffer out) {
+        byte kind = CellKind.of(item);
+        if (kind == CellKind.OTHER || kind == CellKind.EMPTY) {
+            throw new IllegalArgumentException("Cannot store an item of type "
+                    + (item != null ? item.getClass().getName() : "null"));
+        }
+        out.put(kind);
+        out.put((byte) (item instanceof ResearchEquipmentItem && ((ResearchEquipmentItem) item).isAccomplish() ? 1 : 0));
+        byte[] message = messageBytes(item);
+        if (message != null) {
+            out.putInt(message.length);
+            out.put(message);
+        } else {
+            out.putInt(-1);
+        }
+    }
+
+    /**
+     * Reads the record of a single item and recreates the item with its state.
+     *
+     * @param in The buffer to read from.
+     * @return The item.
+     * @throws IOException if the record is invalid.
+     */
+    public static MapItem getItem(ByteBuffer in) throws IOException {
+        try {
+            byte kind = in.get();
+            boolean finished = in.get() != 0;
+            int messageLength = in.getInt();
+            if (kind == CellKind.EMPTY || kind == CellKind.OTHER || kind < 0 || kind >= CellKind.COUNT) {
+                throw new IOException("Unknown item kind " + kind);
+            }
+            MapItem item = CellKind.create(kind);
+            if (item instanceof ResearchEquipmentItem) {
+                ResearchEquipmentItem researchItem = (ResearchEquipmentItem) item;
+                if (finished) {
+                    researchItem.finishTask();
+                }
+                if (messageLength >= 0) {
+                    byte[] message = new byte[messageLength];
+                    in.get(message);
+                    researchItem.setMessage(new String(message, StandardCharsets.UTF_8));
+                }
+            } else if (messageLength >= 0) {
+                in.position(in.position() + messageLength);
+            }
+            return item;
+        } catch (RuntimeException e) {
+            throw new IOException("Truncated item record", e);
+        }
+    }
+
+    /**
+     * Reads a lake record from a buffer.
+     *
+     * @param in The buffer, positioned at the start of the record.
+     * @param copyCells true to copy the cells, false to use the buffer as the lake's storage.
+     * @return The lake stored in the record.
+     * @throws IOException if the record is not a valid lake record.
+     */
+    private static LakePuzzle read(ByteBuffer in, boolean copyCells) throws IOException {
+        int start = in.position();
+        if (in.remaining() < VERSION_1_HEADER_SIZE || in.getInt(start) != MAGIC) {
+            throw new IOException("Not a lake record");
+        }
+        short version = in.getShort(start + 4);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported lake record version " + version);
+        }
+        int headerSize = version == 1 ? VERSION_1_HEADER_SIZE : HEADER_SIZE;
+        if (in.remaining() < headerSize) {
+            throw new IOException("Not a lake record");
+        }
+        boolean chunk = (in.getShort(start + 6) & FLAG_CHUNK) != 0;
+        int rows = in.getInt(start + 8);
+        int columns = in.getInt(start + 12);
+        int cliffDirection = in.getInt(start + 16);
+        int itemCount = in.getInt(start + 20);
+        long itemsOffset = in.getLong(start + 24);
+        long seed = version == 1 ? 0 : in.getLong(start + 32);
+        long cellCount = (long) rows * columns;
+        if (rows <= 0 || columns <= 0 || itemCount < 0 || itemsOffset != headerSize + cellCount
+                || itemsOffset > in.remaining()) {
+            throw new IOException("Corrupt lake record header");
+        }
+
+        ByteBuffer cells = in.slice(start + headerSize, (int) cellCount);
+        if (copyCells) {
+            cells = ByteBuffer.allocate((int) cellCount).put(cells).clear();
+        }
+        in.position(start + (int) itemsOffset);
+        Map<Integer, MapItem> statefulItems = new HashMap<>();
+        for (int i = 0; i < itemCount; i++) {
+            int index;
+            try {
+                index = in.getInt();
+            } catch (RuntimeException e) {
+                throw new IOException("Truncated item section", e);
+            }
+            MapItem item = getItem(in);
+            if (index < 0 || index >= cellCount || cells.get(index) != CellKind.of(item) || !CellKind.isEquipment(cells.get(index))) {
+                throw new IOException("Corrupt item record " + i);
+            }
+            statefulItems.put(index, item);
+        }
+
+        LakePuzzle.Builder builder;
+        try {
+            builder = new LakePuzzle.Builder().rows(rows).columns(columns).chunk(chunk);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt lake record header", e);
+        }
+        return new LakePuzzle(builder, cells, statefulItems, cliffDirection, seed);
+    }
+
+    private static void putHeader(LakePuzzle lake, int itemCount, ByteBuffer out) {
+        int[] size = lake.getMapSize();
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        out.putShort(lake.isChunk() ? FLAG_CHUNK : 0);
+        out.putInt(size[1]);
+        out.putInt(size[0]);
+        out.putInt(lake.getCliffEdgeDirection());
+        out.putInt(itemCount);
+        out.putLong(HEADER_SIZE + (long) size[0] * size[1]);
+        out.putLong(lake.nextStoredSeed());
+    }
+
+    private static int itemSectionSize(Map<Integer, MapItem> statefulItems) {
+        int size = 0;
+        for (MapItem item : statefulItems.values()) {
+            size += 4 + itemSize(item);
+        }
+        return size;
+    }
+
+    private static void putItems(Map<Integer, MapItem> statefulItems, ByteBuffer out) {
+        for (Map.Entry<Integer, MapItem> entry : statefulItems.entrySet()) {
+            out.putInt(entry.getKey());
+            putItem(entry.getValue(), out);
+        }
+    }
+
+    private static byte[] messageBytes(MapItem item) {
+        if (item instanceof ResearchEquipmentItem) {
+            String message = ((ResearchEquipmentItem) item).getMessage();
+            if (message != null) {
+                return message.getBytes(StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
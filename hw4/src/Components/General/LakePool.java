@@ -0,0 +1,218 @@
+package Components.General;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LakePool class keeps a bounded number of ready-made lakes so a new game does not have to wait for its lake
+ * to be generated. A background daemon thread generates lakes until the pool is full and replaces every lake that
+ * is taken. Lakes are solvable, since generation already rejects lakes that are not.
+ * When the pool is empty, take generates the lake on the calling thread instead of waiting, and counts a miss.
+ * The refill lag is the time between a lake being taken from the pool and its replacement being ready.
+ */
+public class LakePool implements AutoCloseable {
+
+    private static final int MAX_CONSECUTIVE_FAILURES = 16;
+
+    private final LakePuzzle.Builder settings;
+    private final int capacity;
+    private final BlockingQueue<LakePuzzle> ready;
+    private final ConcurrentLinkedQueue<Long> takenAt = new ConcurrentLinkedQueue<>();
+    private final SplittableRandom refillRandom;
+    private final SplittableRandom missRandom;
+    private final Thread refiller;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder refills = new LongAdder();
+    private final LongAdder totalRefillLag = new LongAdder();
+    private final AtomicLong maxRefillLag = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool of lakes with a random seed and starts filling it.
+     *
+     * @param settings The size and hazard settings of every lake. The builder is copied.
+     * @param capacity The number of lakes to keep ready.
+     */
+    public LakePool(LakePuzzle.Builder settings, int capacity) {
+        this(settings, capacity, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Creates a pool of lakes and starts filling it. The lakes of the pool, in the order the background thread
+     * generates them, are derived from the seed.
+     *
+     * @param settings The size and hazard settings of every lake. The builder is copied.
+     * @param capacity The number of lakes to keep ready.
+     * @param seed The seed of the pool.
+     */
+    public LakePool(LakePuzzle.Builder settings, int capacity, long seed) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The pool must hold at least one lake.");
+        }
+        this.settings = new LakePuzzle.Builder(settings);
+        this.capacity = capacity;
+        this.ready = new ArrayBlockingQueue<>(capacity);
+        SplittableRandom root = new SplittableRandom(seed);
+        this.refillRandom = root.split();
+        this.missRandom = root.split();
+        this.refiller = new Thread(this::refill, "lake-pool-refill");
+        refiller.setDaemon(true);
+        refiller.start();
+    }
+
+    /**
+     * Takes a lake from the pool, or generates one on the calling thread if the pool is empty.
+     * The lake belongs to the caller; the pool generates a replacement in the background.
+     *
+     * @return A new lake.
+     * @throws IllegalStateException if the pool is closed.
+     */
+    public LakePuzzle take() {
+        if (closed) {
+            throw new IllegalStateException("The lake pool is closed.");
+        }
+        LakePuzzle lake = ready.poll();
+        if (lake != null) {
+            takenAt.add(System.nanoTime());
+            hits.increment();
+            return lake;
+        }
+        misses.increment();
+        SplittableRandom random;
+        synchronized (missRandom) {
+            random = missRandom.split();
+        }
+        return new LakePuzzle.Builder(settings).random(random).build();
+    }
+
+    /**
+     * Generates lakes until the pool is closed, waiting whenever the pool is full.
+     * If the settings keep failing to produce a lake, the thread stops and takes generate their own lakes,
+     * so the failure reaches the caller. Any other exception is a bug; it ends the thread and goes to its
+     * uncaught exception handler.
+     */
+    private void refill() {
+        try {
+            int consecutiveFailures = 0;
+            while (!closed && consecutiveFailures < MAX_CONSECUTIVE_FAILURES) {
+                LakePuzzle lake;
+                try {
+                    lake = new LakePuzzle.Builder(settings).random(refillRandom.split()).build();
+                } catch (IllegalStateException e) {
+                    // No solvable lake within the attempt limit; try again with the next stream
+                    failures.increment();
+                    consecutiveFailures++;
+                    continue;
+                }
+                consecutiveFailures = 0;
+                ready.put(lake);
+                Long taken = takenAt.poll();
+                if (taken != null) {
+                    long lag = System.nanoTime() - taken;
+                    refills.increment();
+                    totalRefillLag.add(lag);
+                    maxRefillLag.accumulateAndGet(lag, Math::max);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Closed while waiting for room in the pool
+        }
+    }
+
+    /**
+     * Stops the background thread and drops the lakes that are still in the pool.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        refiller.interrupt();
+        try {
+            refiller.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ready.clear();
+    }
+
+    /**
+     * Retrieves the number of lakes the pool keeps ready.
+     *
+     * @return The capacity of the pool.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Retrieves the number of lakes that are ready right now.
+     *
+     * @return The number of lakes in the pool.
+     */
+    public int getReadyCount() {
+        return ready.size();
+    }
+
+    /**
+     * Retrieves the number of takes that were served from the pool.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Retrieves the number of takes that found the pool empty and generated their lake themselves.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Retrieves the share of takes that were served from the pool.
+     *
+     * @return The hit rate between 0 and 1, or 0 if nothing was taken yet.
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Retrieves the number of times the background thread could not generate a solvable lake with the pool's
+     * settings.
+     *
+     * @return The number of failed generations.
+     */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /**
+     * Retrieves the average time between a lake being taken and its replacement being ready.
+     *
+     * @return The average refill lag in nanoseconds, or 0 if no lake was replaced yet.
+     */
+    public long getAverageRefillLagNanos() {
+        long count = refills.sum();
+        return count == 0 ? 0 : totalRefillLag.sum() / count;
+    }
+
+    /**
+     * Retrieves the longest time between a lake being taken and its replacement being ready.
+     *
+     * @return The longest refill lag in nanoseconds.
+     */
+    public long getMaxRefillLagNanos() {
+        return maxRefillLag.get();
+    }
+}
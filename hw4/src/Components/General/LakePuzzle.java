@@ -1,58 +1,249 @@
 package Components.General;
 
-import Components.Hazards.CliffEdgeItem;
-import Components.Hazards.HoleInIceItem;
-import Components.Hazards.IceBlockItem;
-import Components.Hazards.IceSpikeItem;
+import Components.Interfaces.GameOutput;
+import Components.ResearchEquipmentItems.ResearchEquipmentItem;
+
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Random;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
 
 /**
  * The LakePuzzle class represents a puzzle game where a map is generated with various elements such as walls, cliffs, ice blocks, and hazards.
- * The map is a grid of MapSquare objects, and the puzzle involves navigating through the map while avoiding hazards and utilizing ice blocks.
+ * The map is stored as one byte of CellKind code per cell plus a side table for items that carry state, and the
+ * puzzle involves navigating through the map while avoiding hazards and utilizing ice blocks.
+ * MapSquare objects are lightweight views over this storage and are only created when requested.
  */
 public class LakePuzzle {
 
-    private static final int ROWS = 10;
-    private static final int COLUMNS = 13;
-    private static final int NUM_ICE_BLOCKS = 8;
-    private static final int NUM_HOLES = 3;
-    private static final int NUM_SPIKES = 3;
+    private static final int DEFAULT_ROWS = 10;
+    private static final int DEFAULT_COLUMNS = 13;
+    private static final int DEFAULT_HOLES = 3;
+    private static final int DEFAULT_SPIKES = 3;
+    private static final int MIN_SIZE = 5;
+    private static final int SMALL_LAKE_CELLS = 1 << 16;
+    private static final int MAX_GENERATION_ATTEMPTS = 64;
+    private static final int SLIDE_TABLE_BUDGET = 1 << 22;
     private int CLIFEDGE_DIRECTION;
-    private ArrayList<ArrayList<MapSquare>> map;
-    private Random random;
+    private final int rows;
+    private final int columns;
+    private final int entranceColumn;
+    private final int iceBlocksPerRow;
+    private final int numHoles;
+    private final int numSpikes;
+    private final boolean chunk;
+    private int modificationCount;
+    private long stateHash;
+    private boolean stateHashed;
+    private ByteBuffer cells;
+    private final Map<Integer, MapItem> items;
+    private final Map<MapItem, Integer> itemPositions;
+    private final Map<Integer, Researcher> researchers;
+    private final Map<Researcher, Integer> researcherPositions;
+    private ArrayList<ArrayList<MapSquare>> mapView;
+    private int[][] rowSlides;
+    private int[][] columnSlides;
+    private int cachedSlideCells;
+    private BitGrid occupiedLayer;
+    private BitGrid wallLayer;
+    private BitGrid iceBlockLayer;
+    private BitGrid cliffLayer;
+    private ExperimentMasks experimentMasks;
+    private HazardRays hazardRays;
+    private CandidateSet iceBlockColumns;
+    private CandidateSet rowColumns;
+    private CandidateSet holeCandidates;
+    private CandidateSet spikeCandidates;
+    private SplittableRandom random;
+    private SplittableRandom equipmentRandom;
+    private GameOutput output = GameOutput.CONSOLE;
 
     /**
-     * Constructs a new LakePuzzle object and initializes the map.
+     * Constructs a new LakePuzzle object with the standard 10x13 size and initializes the map.
      */
     public LakePuzzle() {
-        map = new ArrayList<>(ROWS);
-        random = new Random();
+        this(new Builder());
+    }
+
+    /**
+     * Constructs a new LakePuzzle object from the settings of a builder and initializes the map.
+     *
+     * @param builder The builder holding the size and hazard settings.
+     */
+    private LakePuzzle(Builder builder) {
+        rows = builder.rows;
+        columns = builder.columns;
+        entranceColumn = columns / 2;
+        iceBlocksPerRow = builder.iceBlocksPerRow;
+        numHoles = builder.holeCount();
+        numSpikes = builder.spikeCount();
+        chunk = builder.chunk;
+        items = new HashMap<>();
+        itemPositions = new IdentityHashMap<>();
+        researchers = new HashMap<>();
+        researcherPositions = new IdentityHashMap<>();
+        SplittableRandom session = builder.random != null ? builder.random.split()
+                : builder.seed != null ? new SplittableRandom(builder.seed) : new SplittableRandom();
+        random = session.split();
+        equipmentRandom = session.split();
         generateMap();
     }
 
+    /**
+     * Constructs a LakePuzzle object from stored cells instead of generating a new map.
+     * The buffer is used as the cell storage directly, without copying or reading it, so a memory-mapped
+     * buffer is only paged in as the cells are visited. A read-only buffer is copied the first time a cell
+     * changes. The bitboard layers are built on first use.
+     *
+     * @param builder The builder holding the size settings of the stored lake.
+     * @param cells The CellKind code of every cell, row by row, starting at position 0 of the buffer.
+     * @param statefulItems The items of the cells whose kind is not stateless, keyed by packed cell index.
+     * @param cliffDirection The direction of the cliff edge.
+     * @param seed The seed the lake's random streams are split from, so a restored lake always continues alike.
+     */
+    LakePuzzle(Builder builder, ByteBuffer cells, Map<Integer, MapItem> statefulItems, int cliffDirection,
+               long seed) {
+        rows = builder.rows;
+        columns = builder.columns;
+        entranceColumn = columns / 2;
+        iceBlocksPerRow = builder.iceBlocksPerRow;
+        numHoles = builder.holeCount();
+        numSpikes = builder.spikeCount();
+        chunk = builder.chunk;
+        items = new HashMap<>();
+        itemPositions = new IdentityHashMap<>();
+        researchers = new HashMap<>();
+        researcherPositions = new IdentityHashMap<>();
+        SplittableRandom session = new SplittableRandom(seed);
+        random = session.split();
+        equipmentRandom = session.split();
+        CLIFEDGE_DIRECTION = cliffDirection;
+        if (cells.capacity() != rows * columns) {
+            throw new IllegalArgumentException("The stored cells do not match the size of the lake.");
+        }
+        this.cells = cells;
+        for (Map.Entry<Integer, MapItem> entry : statefulItems.entrySet()) {
+            items.put(entry.getKey(), entry.getValue());
+            itemPositions.put(entry.getValue(), entry.getKey());
+        }
+        rowSlides = new int[rows][];
+        columnSlides = new int[columns][];
+    }
+
     /**
      * Generates the puzzle map by initializing, setting the entrance, walls, cliffs, ice blocks, and hazards.
+     * A chunk of an open lake has no entrance, walls or cliff; it only gets ice blocks and hazards.
+     * Maps whose research goals cannot all be accomplished are rejected and generated again. Large lakes are
+     * not checked, since a check visits every cell.
+     *
+     * @throws IllegalStateException if no solvable map was found within a fixed number of attempts.
      */
     private void generateMap() {
-        initializeMap();
-        setEntrance();
-        setWallsAndCliffside();
-        placeIceBlocks();
-        placeHazards();
+        for (int attempt = 0; attempt < MAX_GENERATION_ATTEMPTS; attempt++) {
+            initializeMap();
+            if (chunk) {
+                CLIFEDGE_DIRECTION = -1;
+                placeChunkContents();
+                modificationCount = 0;
+                return;
+            }
+            setEntrance();
+            setWallsAndCliffside();
+            placeIceBlocks();
+            placeHazards();
+            modificationCount = 0;
+            if ((long) rows * columns > SMALL_LAKE_CELLS || LakeVerifier.isSolvable(this)) {
+                return;
+            }
+        }
+        throw new IllegalStateException("No solvable lake could be generated with these settings.");
+    }
+
+    /**
+     * Generates a new map in place from a new random stream, reusing the cell storage, bitboard layers and
+     * tables of this lake. Used by batch generation, where one lake object serves as scratch space for many maps.
+     *
+     * @param session The generator the lake's streams are split from.
+     */
+    void regenerate(SplittableRandom session) {
+        random = session.split();
+        equipmentRandom = session.split();
+        generateMap();
+    }
+
+    /**
+     * Draws the seed a stored copy of this lake is restored with. It comes from the stream the map was generated
+     * from, which is not used again once the map is done, so storing a lake does not change how it plays on.
+     *
+     * @return The seed of the stored copy.
+     */
+    long nextStoredSeed() {
+        return random.nextLong();
     }
 
     /**
-     * Initializes the map with empty MapSquare objects.
+     * Initializes the map with empty cells. Heap storage and layers of the right size are cleared and reused.
      */
     private void initializeMap() {
-        for (int i = 0; i < ROWS; i++) {
-            ArrayList<MapSquare> row = new ArrayList<>(COLUMNS);
-            for (int j = 0; j < COLUMNS; j++) {
-                row.add(new MapSquare(j, i));
+        if (cells != null && cells.hasArray() && !cells.isReadOnly() && cells.capacity() == rows * columns) {
+            Arrays.fill(cells.array(), cells.arrayOffset(), cells.arrayOffset() + rows * columns, CellKind.EMPTY);
+        } else {
+            cells = ByteBuffer.allocate(rows * columns);
+        }
+        if (rowSlides == null) {
+            rowSlides = new int[rows][];
+            columnSlides = new int[columns][];
+        } else {
+            Arrays.fill(rowSlides, null);
+            Arrays.fill(columnSlides, null);
+        }
+        cachedSlideCells = 0;
+        if (occupiedLayer != null) {
+            occupiedLayer.clearAll();
+            wallLayer.clearAll();
+            iceBlockLayer.clearAll();
+            cliffLayer.clearAll();
+        } else {
+            occupiedLayer = new BitGrid(rows, columns);
+            wallLayer = new BitGrid(rows, columns);
+            iceBlockLayer = new BitGrid(rows, columns);
+            cliffLayer = new BitGrid(rows, columns);
+        }
+        mapView = null;
+        stateHashed = false;
+        if (experimentMasks != null) {
+            experimentMasks.invalidate();
+        }
+        if (hazardRays != null) {
+            hazardRays.clear();
+        }
+        items.clear();
+        itemPositions.clear();
+        researchers.clear();
+        researcherPositions.clear();
+    }
+
+    /**
+     * Builds the bitboard layers from the cells if they have not been built yet.
+     * Lakes restored from stored cells start without layers so that opening them does not read every cell.
+     */
+    private void ensureLayers() {
+        if (occupiedLayer != null) {
+            return;
+        }
+        occupiedLayer = new BitGrid(rows, columns);
+        wallLayer = new BitGrid(rows, columns);
+        iceBlockLayer = new BitGrid(rows, columns);
+        cliffLayer = new BitGrid(rows, columns);
+        for (int index = 0; index < rows * columns; index++) {
+            byte kind = cells.get(index);
+            if (kind != CellKind.EMPTY) {
+                layerOf(kind).set(index / columns, index % columns);
+                occupiedLayer.set(index / columns, index % columns);
             }
-            map.add(row);
         }
     }
 
@@ -63,19 +254,38 @@ public class LakePuzzle {
      * @return The specified row as an ArrayList of MapSquare objects, or null if the index is invalid.
      */
     public ArrayList<MapSquare> getRow(int rowIndex) {
-        if (rowIndex >= 0 && rowIndex < ROWS) {
-            return map.get(rowIndex);
+        if (rowIndex >= 0 && rowIndex < rows) {
+            return getMap().get(rowIndex);
         }
         return null;
     }
 
     /**
      * Sets the map with a new configuration.
+     * The items and researchers of the given squares are copied into the lake's cell storage.
      *
      * @param map The new map configuration as a 2D ArrayList of MapSquare objects.
      */
     public void setMap(ArrayList<ArrayList<MapSquare>> map) {
-        this.map = map;
+        if (map == mapView) {
+            return;
+        }
+        initializeMap();
+        for (ArrayList<MapSquare> row : map) {
+            for (MapSquare square : row) {
+                int[] position = square.getPosition();
+                if (!isValidPosition(position[1], position[0])) {
+                    continue;
+                }
+                int index = indexOf(position[1], position[0]);
+                if (square.hasAnyItem()) {
+                    placeItem(index, square.getItem());
+                }
+                if (square.hasResearcher()) {
+                    placeResearcher(index, square.getResearcher());
+                }
+            }
+        }
     }
 
     /**
@@ -83,30 +293,40 @@ public class LakePuzzle {
      *
      * @param row The row index of the square.
      * @param col The column index of the square.
-     * @return The MapSquare object at the specified position, or null if the position is invalid.
+     * @return A view of the square at the specified position, or null if the position is invalid.
      */
     public MapSquare getMapSquare(int row, int col) {
-        if (row >= 0 && row < ROWS && col >= 0 && col < COLUMNS) {
-            return map.get(row).get(col);
+        if (row >= 0 && row < rows && col >= 0 && col < columns) {
+            return new MapSquare(this, row, col);
         }
         return null;
     }
 
+    /**
+     * Retrieves the item kind of a square without creating a MapSquare view.
+     *
+     * @param row The row index of the square.
+     * @param col The column index of the square.
+     * @return The CellKind code of the square.
+     * @throws IndexOutOfBoundsException if the position is invalid.
+     */
+    public byte getKind(int row, int col) {
+        if (!isValidPosition(row, col)) {
+            throw new IndexOutOfBoundsException("Position (" + row + ", " + col + ") is outside the map.");
+        }
+        return cells.get(row * columns + col);
+    }
+
     /**
      * Finds the MapSquare containing the specified equipment item.
+     * Items are looked up by identity in the item location index, so the cost does not depend on the map size.
      *
      * @param item The MapItem to search for.
      * @return The MapSquare containing the item, or null if not found.
      */
     public MapSquare findWithEquipment(MapItem item) {
-        for (ArrayList<MapSquare> rows : map) {
-            for (MapSquare square : rows) {
-                if (square.getItem() == item) {
-                    return square;
-                }
-            }
-        }
-        return null;
+        Integer index = itemPositions.get(item);
+        return index != null ? squareAt(index) : null;
     }
 
     /**
@@ -116,24 +336,484 @@ public class LakePuzzle {
      * @return The MapSquare containing the researcher, or null if not found.
      */
     public MapSquare findResearcherSquare(Researcher researcher) {
-        for (ArrayList<MapSquare> rows : map) {
-            for (MapSquare square : rows) {
-                Researcher currentResearcher = square.getResearcher();
-                if (currentResearcher == researcher) {
-                    return square;
-                }
-            }
-        }
-        return null;
+        Integer index = researcherPositions.get(researcher);
+        return index != null ? squareAt(index) : null;
+    }
+
+    /**
+     * Retrieves the packed cell index of the specified researcher.
+     *
+     * @param researcher The Researcher to search for.
+     * @return The index of the researcher's cell, or -1 if the researcher is not on the map.
+     */
+    public int findResearcherIndex(Researcher researcher) {
+        Integer index = researcherPositions.get(researcher);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Retrieves every researcher standing on the map.
+     *
+     * @return A new list of the researchers on the map, in no particular order.
+     */
+    public ArrayList<Researcher> getResearchersOnMap() {
+        return new ArrayList<>(researcherPositions.keySet());
     }
 
     /**
      * Retrieves the entire map.
+     * The returned rows hold views over the lake's cell storage, so they always reflect its current contents.
      *
      * @return The map as a 2D ArrayList of MapSquare objects.
      */
     public ArrayList<ArrayList<MapSquare>> getMap() {
-        return map;
+        if (mapView == null) {
+            ArrayList<ArrayList<MapSquare>> view = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                ArrayList<MapSquare> row = new ArrayList<>(columns);
+                for (int j = 0; j < columns; j++) {
+                    row.add(new MapSquare(this, i, j));
+                }
+                view.add(row);
+            }
+            mapView = view;
+        }
+        return mapView;
+    }
+
+    /**
+     * Converts a position to the index of its cell.
+     *
+     * @param row The row index of the position.
+     * @param col The column index of the position.
+     * @return The packed cell index.
+     */
+    int indexOf(int row, int col) {
+        return row * columns + col;
+    }
+
+    /**
+     * Creates a view of the cell with the given index.
+     *
+     * @param index The packed cell index.
+     * @return A view of the square.
+     */
+    MapSquare squareAt(int index) {
+        return new MapSquare(this, index / columns, index % columns);
+    }
+
+    /**
+     * Retrieves the item kind stored in a cell.
+     *
+     * @param index The packed cell index.
+     * @return The CellKind code of the cell.
+     */
+    byte kindAt(int index) {
+        return cells.get(index);
+    }
+
+    /**
+     * Retrieves the item kind stored at a position.
+     *
+     * @param row The row index of the position.
+     * @param col The column index of the position.
+     * @return The CellKind code of the cell.
+     */
+    byte kindAt(int row, int col) {
+        return cells.get(row * columns + col);
+    }
+
+    /**
+     * Retrieves the item of a cell, creating the item object of a stateless kind on first access.
+     *
+     * @param index The packed cell index.
+     * @return The item in the cell, or null if the cell is empty.
+     */
+    MapItem itemAt(int index) {
+        byte kind = cells.get(index);
+        if (kind == CellKind.EMPTY) {
+            return null;
+        }
+        MapItem item = items.get(index);
+        if (item == null) {
+            item = CellKind.create(kind);
+            items.put(index, item);
+            itemPositions.put(item, index);
+        }
+        return item;
+    }
+
+    /**
+     * Retrieves the short notation of the item in a cell without creating the item object.
+     *
+     * @param index The packed cell index.
+     * @return The short notation of the item, or null if the cell is empty.
+     */
+    String itemSymbol(int index) {
+        byte kind = cells.get(index);
+        if (kind == CellKind.EMPTY) {
+            return null;
+        }
+        MapItem item = items.get(index);
+        return item != null ? item.toString() : CellKind.symbol(kind);
+    }
+
+    /**
+     * Checks if the item of a cell is of the specified type without creating the item object.
+     *
+     * @param index The packed cell index.
+     * @param itemClass Class type to check against.
+     * @return true if the item matches the specified type.
+     */
+    boolean hasItemOfType(int index, Class<? extends MapItem> itemClass) {
+        byte kind = cells.get(index);
+        if (kind == CellKind.EMPTY) {
+            return false;
+        }
+        MapItem item = items.get(index);
+        if (item != null) {
+            return itemClass.isInstance(item);
+        }
+        return itemClass.isAssignableFrom(CellKind.itemClass(kind));
+    }
+
+    /**
+     * Places an item in an empty cell.
+     *
+     * @param index The packed cell index.
+     * @param item The item to place.
+     * @throws IllegalArgumentException if the cell already contains an item.
+     */
+    void placeItem(int index, MapItem item) {
+        if (cells.get(index) != CellKind.EMPTY) {
+            throw new IllegalArgumentException("Cannot add more than one item to a square.");
+        }
+        if (item == null) {
+            return;
+        }
+        writeKind(index, CellKind.of(item));
+        items.put(index, item);
+        itemPositions.put(item, index);
+    }
+
+    /**
+     * Stores a stateless item kind in an empty cell without creating its item object.
+     *
+     * @param row The row index of the cell.
+     * @param col The column index of the cell.
+     * @param kind The stateless CellKind code to store.
+     */
+    private void setCell(int row, int col, byte kind) {
+        int index = indexOf(row, col);
+        if (cells.get(index) != CellKind.EMPTY) {
+            throw new IllegalArgumentException("Cannot add more than one item to a square.");
+        }
+        writeKind(index, kind);
+    }
+
+    /**
+     * Stores a new kind in a cell and keeps the bitboard layers and slide tables in sync.
+     *
+     * @param index The packed cell index.
+     * @param kind The new CellKind code.
+     */
+    private void writeKind(int index, byte kind) {
+        int row = index / columns;
+        int col = index % columns;
+        byte previous = cells.get(index);
+        if (cells.isReadOnly()) {
+            // Stored cells, such as a mapped lake file, are copied on the first change
+            ByteBuffer copy = ByteBuffer.allocate(cells.capacity());
+            copy.put(0, cells, 0, cells.capacity());
+            cells = copy;
+        }
+        cells.put(index, kind);
+        modificationCount++;
+        if (hazardRays != null && CellKind.isHazard(previous) != CellKind.isHazard(kind)) {
+            hazardRays.hazardChanged(row, col, CellKind.isHazard(kind));
+        }
+        if (stateHashed) {
+            stateHash ^= Zobrist.cell(index, previous) ^ Zobrist.cell(index, kind);
+        }
+        cellChanged(index);
+        if (occupiedLayer == null) {
+            return;
+        }
+        if (previous != CellKind.EMPTY) {
+            layerOf(previous).clear(row, col);
+            occupiedLayer.clear(row, col);
+        }
+        if (kind != CellKind.EMPTY) {
+            layerOf(kind).set(row, col);
+            occupiedLayer.set(row, col);
+        }
+        if (experimentMasks != null && experimentMasks.isBuilt()) {
+            experimentMasks.cellChanged(row, col, previous, kind);
+        }
+    }
+
+    /**
+     * Retrieves the bitboard layer that tracks the given kind.
+     * Kinds without a layer of their own are only tracked by the occupied layer.
+     *
+     * @param kind The CellKind code.
+     * @return The layer of the kind.
+     */
+    private BitGrid layerOf(byte kind) {
+        switch (kind) {
+            case CellKind.WALL: return wallLayer;
+            case CellKind.ICE_BLOCK: return iceBlockLayer;
+            case CellKind.CLIFF_EDGE: return cliffLayer;
+            default: return occupiedLayer;
+        }
+    }
+
+    /**
+     * Removes the item of a cell.
+     *
+     * @param index The packed cell index.
+     */
+    void clearItem(int index) {
+        if (cells.get(index) != CellKind.EMPTY) {
+            writeKind(index, CellKind.EMPTY);
+        }
+        MapItem item = items.remove(index);
+        if (item != null) {
+            Integer position = itemPositions.get(item);
+            if (position != null && position == index) {
+                itemPositions.remove(item);
+            }
+        }
+    }
+
+    /**
+     * Retrieves the researcher standing in a cell.
+     *
+     * @param index The packed cell index.
+     * @return The researcher, or null if there is none.
+     */
+    Researcher researcherAt(int index) {
+        return researchers.get(index);
+    }
+
+    /**
+     * Retrieves the researcher standing at a position.
+     *
+     * @param row The row index of the position.
+     * @param col The column index of the position.
+     * @return The researcher, or null if there is none.
+     */
+    Researcher researcherAt(int row, int col) {
+        return researchers.get(row * columns + col);
+    }
+
+    /**
+     * Places a researcher in a cell.
+     *
+     * @param index The packed cell index.
+     * @param researcher The researcher to place, or null to clear the cell.
+     */
+    void placeResearcher(int index, Researcher researcher) {
+        if (researcher == null) {
+            clearResearcher(index);
+            return;
+        }
+        Researcher previous = researchers.put(index, researcher);
+        if (previous != null && previous != researcher) {
+            forgetResearcherPosition(previous, index);
+        }
+        if (stateHashed && previous != researcher) {
+            if (previous != null) {
+                stateHash ^= Zobrist.researcher(index, previous.getId());
+            }
+            stateHash ^= Zobrist.researcher(index, researcher.getId());
+        }
+        researcherPositions.put(researcher, index);
+        if (previous == null) {
+            cellChanged(index);
+        }
+    }
+
+    /**
+     * Removes the researcher of a cell.
+     * The position index is only cleared if it still points to this cell, so a researcher that has
+     * already been placed in its new cell keeps its position.
+     *
+     * @param index The packed cell index.
+     */
+    void clearResearcher(int index) {
+        Researcher previous = researchers.remove(index);
+        if (previous != null) {
+            forgetResearcherPosition(previous, index);
+            cellChanged(index);
+            if (stateHashed) {
+                stateHash ^= Zobrist.researcher(index, previous.getId());
+            }
+        }
+    }
+
+    /**
+     * Removes a researcher from the position index if it is indexed at the given cell.
+     *
+     * @param researcher The researcher to remove.
+     * @param index The packed cell index the researcher is leaving.
+     */
+    private void forgetResearcherPosition(Researcher researcher, int index) {
+        Integer position = researcherPositions.get(researcher);
+        if (position != null && position == index) {
+            researcherPositions.remove(researcher);
+        }
+    }
+
+    /**
+     * Finds where a researcher starting at the given position stops when sliding in the given direction.
+     * The researcher stops in front of ice blocks, walls, the entrance, other researchers and the map edge,
+     * and stops on hazards and equipment. Results are kept in per-row and per-column slide tables that are
+     * built on first use and dropped whenever a cell of that row or column changes.
+     *
+     * @param row The row index of the starting position.
+     * @param col The column index of the starting position.
+     * @param direction The direction of the slide.
+     * @return The packed index of the cell where the slide stops, or -1 if the first step is blocked.
+     */
+    public int getSlideDestination(int row, int col, Direction direction) {
+        int stop;
+        if (direction.isHorizontal()) {
+            int[] table = rowSlides[row];
+            if (table == null) {
+                table = buildRowSlides(row);
+                reserveSlideCells(table.length);
+                rowSlides[row] = table;
+            }
+            stop = table[2 * col + (direction == Direction.RIGHT ? 1 : 0)];
+            return stop == col ? -1 : indexOf(row, stop);
+        }
+        int[] table = columnSlides[col];
+        if (table == null) {
+            table = buildColumnSlides(col);
+            reserveSlideCells(table.length);
+            columnSlides[col] = table;
+        }
+        stop = table[2 * row + (direction == Direction.DOWN ? 1 : 0)];
+        return stop == row ? -1 : indexOf(stop, col);
+    }
+
+    /**
+     * Finds the nearest hazard in a direction from a position, as seen along a line of sight: ice blocks, holes,
+     * ice spikes and cliff edges block the view, while walls, equipment and researchers do not. The answer is read
+     * from per-row and per-column tables that are built on first use and corrected as hazards are placed or
+     * removed, such as when a hole is covered or an ice spike is broken.
+     *
+     * @param row The row index of the position.
+     * @param col The column index of the position.
+     * @param direction The direction to look in.
+     * @return The packed index of the nearest hazard beyond the position, or -1 if there is none before the edge.
+     * @throws IndexOutOfBoundsException if the position is outside the map.
+     */
+    public int getNearestHazard(int row, int col, Direction direction) {
+        if (!isValidPosition(row, col)) {
+            throw new IndexOutOfBoundsException("Position (" + row + ", " + col + ") is outside the map.");
+        }
+        if (hazardRays == null) {
+            hazardRays = new HazardRays(this, rows, columns);
+        }
+        return hazardRays.nearest(row, col, direction);
+    }
+
+    /**
+     * Keeps the total size of the cached slide tables within a fixed budget.
+     * When a new table would exceed it, every cached table is dropped, so memory stays bounded on large lakes.
+     *
+     * @param length The length of the table about to be cached.
+     */
+    private void reserveSlideCells(int length) {
+        if (cachedSlideCells + length > SLIDE_TABLE_BUDGET) {
+            Arrays.fill(rowSlides, null);
+            Arrays.fill(columnSlides, null);
+            cachedSlideCells = 0;
+        }
+        cachedSlideCells += length;
+    }
+
+    /**
+     * Computes the stop column of a left and a right slide from every cell of a row in two sweeps.
+     *
+     * @param row The row index.
+     * @return An array holding the stop column of a left slide at 2 * col and of a right slide at 2 * col + 1.
+     */
+    private int[] buildRowSlides(int row) {
+        int[] table = new int[2 * columns];
+        int base = row * columns;
+        for (int col = columns - 1; col >= 0; col--) {
+            int next = col + 1;
+            table[2 * col + 1] = next >= columns || blocksSlide(base + next) ? col
+                    : stopsSlide(base + next) ? next : table[2 * next + 1];
+        }
+        for (int col = 0; col < columns; col++) {
+            int next = col - 1;
+            table[2 * col] = next < 0 || blocksSlide(base + next) ? col
+                    : stopsSlide(base + next) ? next : table[2 * next];
+        }
+        return table;
+    }
+
+    /**
+     * Computes the stop row of an upward and a downward slide from every cell of a column in two sweeps.
+     *
+     * @param col The column index.
+     * @return An array holding the stop row of an upward slide at 2 * row and of a downward slide at 2 * row + 1.
+     */
+    private int[] buildColumnSlides(int col) {
+        int[] table = new int[2 * rows];
+        for (int row = rows - 1; row >= 0; row--) {
+            int next = row + 1;
+            table[2 * row + 1] = next >= rows || blocksSlide(indexOf(next, col)) ? row
+                    : stopsSlide(indexOf(next, col)) ? next : table[2 * next + 1];
+        }
+        for (int row = 0; row < rows; row++) {
+            int next = row - 1;
+            table[2 * row] = next < 0 || blocksSlide(indexOf(next, col)) ? row
+                    : stopsSlide(indexOf(next, col)) ? next : table[2 * next];
+        }
+        return table;
+    }
+
+    /**
+     * Checks whether a sliding researcher stops in front of a cell.
+     *
+     * @param index The packed cell index.
+     * @return true if the cell holds a researcher, an ice block, a wall, the entrance or an unknown item.
+     */
+    boolean blocksSlide(int index) {
+        return researchers.containsKey(index) || CellKind.blocksSlide(cells.get(index));
+    }
+
+    /**
+     * Checks whether a sliding researcher stops on a cell.
+     *
+     * @param index The packed cell index.
+     * @return true if the cell holds a hazard other than an ice block or a piece of equipment.
+     */
+    boolean stopsSlide(int index) {
+        return CellKind.stopsSlide(cells.get(index));
+    }
+
+    /**
+     * Drops the slide tables of the row and the column of a changed cell.
+     *
+     * @param index The packed cell index.
+     */
+    private void cellChanged(int index) {
+        int[] rowTable = rowSlides[index / columns];
+        if (rowTable != null) {
+            cachedSlideCells -= rowTable.length;
+            rowSlides[index / columns] = null;
+        }
+        int[] columnTable = columnSlides[index % columns];
+        if (columnTable != null) {
+            cachedSlideCells -= columnTable.length;
+            columnSlides[index % columns] = null;
+        }
     }
 
     /**
@@ -143,8 +823,8 @@ public class LakePuzzle {
      */
     public void addResearcherToMap(Researcher researcher) {
         int row = 1;
-        int col = 6;
-        getMapSquare(row, col).setResearcher(researcher);
+        int col = entranceColumn;
+        placeResearcher(indexOf(row, col), researcher);
     }
 
     /**
@@ -153,25 +833,160 @@ public class LakePuzzle {
      * @param researcher The Researcher to remove.
      */
     public void removeResearcherWhereInEntrance(Researcher researcher) {
-        getMapSquare(1, 6).removeResearcher();
+        clearResearcher(indexOf(1, entranceColumn));
+    }
+
+    /**
+     * Checks if the specified position is the square in front of the entrance, where researchers enter and
+     * leave the lake.
+     *
+     * @param row The row index of the position.
+     * @param col The column index of the position.
+     * @return true if the position is the entrance square.
+     */
+    public boolean isEntranceSquare(int row, int col) {
+        return row == 1 && col == entranceColumn;
+    }
+
+    /**
+     * Retrieves the position of the square in front of the entrance.
+     *
+     * @return An array with [column, row] coordinates, in the same order as MapSquare.getPosition.
+     */
+    public int[] getEntrancePosition() {
+        return new int[]{entranceColumn, 1};
     }
 
     /**
      * Sets the entrance point on the map and places walls around it.
      */
     private void setEntrance() {
-        getMapSquare(0, COLUMNS / 2).setItem(new EntranceItem());
-        for (int i = 0; i < COLUMNS; i++) {
-            if (i != COLUMNS / 2) {
-                getMapSquare(0, i).setItem(new WallItem());
+        setCell(0, entranceColumn, CellKind.ENTRANCE);
+        for (int i = 0; i < columns; i++) {
+            if (i != entranceColumn) {
+                setCell(0, i, CellKind.WALL);
             }
         }
     }
 
+    /**
+     * Retrieves the number of item changes since the lake was generated or restored.
+     *
+     * @return The number of cell kind changes.
+     */
+    int getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Retrieves the Zobrist hash of the lake: the kind of every cell and every researcher with their cell.
+     * The first call computes it from every cell; after that every change of a cell or researcher updates it
+     * by XOR-ing out the old key and XOR-ing in the new one, so later calls cost nothing.
+     *
+     * @return The hash of the lake's current contents.
+     */
+    public long getStateHash() {
+        if (!stateHashed) {
+            long hash = 0;
+            for (int index = 0; index < rows * columns; index++) {
+                hash ^= Zobrist.cell(index, cells.get(index));
+            }
+            for (Map.Entry<Integer, Researcher> entry : researchers.entrySet()) {
+                hash ^= Zobrist.researcher(entry.getKey(), entry.getValue().getId());
+            }
+            stateHash = hash;
+            stateHashed = true;
+        }
+        return stateHash;
+    }
+
+    /**
+     * Checks if any researcher is standing on the lake.
+     *
+     * @return true if at least one researcher is on the map.
+     */
+    boolean hasResearchers() {
+        return !researchers.isEmpty();
+    }
+
+    /**
+     * Copies the CellKind codes of every cell.
+     *
+     * @return A new array with the code of every cell, row by row.
+     */
+    byte[] copyCells() {
+        byte[] copy = new byte[rows * columns];
+        cells.get(0, copy);
+        return copy;
+    }
+
+    /**
+     * Retrieves a read-only view of the cell storage for writing it out.
+     *
+     * @return A read-only buffer with the code of every cell, row by row, positioned at the first cell.
+     */
+    ByteBuffer cellView() {
+        return cells.asReadOnlyBuffer().clear();
+    }
+
+    /**
+     * Checks if the lake is a chunk of an open lake.
+     *
+     * @return true for a chunk.
+     */
+    boolean isChunk() {
+        return chunk;
+    }
+
+    /**
+     * Collects the items that cannot be recreated from their cell kind alone.
+     *
+     * @return A new map of the stateful items, keyed by packed cell index.
+     */
+    Map<Integer, MapItem> copyStatefulItems() {
+        Map<Integer, MapItem> stateful = new HashMap<>();
+        for (Map.Entry<Integer, MapItem> entry : items.entrySet()) {
+            if (!CellKind.isStateless(cells.get(entry.getKey()))) {
+                stateful.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return stateful;
+    }
+
+    /**
+     * Retrieves the random generator used for the results of research equipment on this lake.
+     * It is a stream of its own, split from the lake's seed, so using equipment does not change generation
+     * and games on different lakes do not share a generator.
+     *
+     * @return The random generator for equipment results.
+     */
+    public SplittableRandom getEquipmentRandom() {
+        return equipmentRandom;
+    }
+
+    /**
+     * Retrieves the output that the map and the hazards and equipment on this lake write their messages to.
+     *
+     * @return The output of the lake, standard output unless it was changed.
+     */
+    public GameOutput getOutput() {
+        return output;
+    }
+
+    /**
+     * Changes the output that the map and the hazards and equipment on this lake write their messages to.
+     *
+     * @param output The new output.
+     */
+    public void setOutput(GameOutput output) {
+        this.output = output;
+    }
+
     /**
      * Retrieves the direction of the cliff edge.
      *
-     * @return The direction of the cliff edge as an integer (0: Right, 1: Bottom, 2: Left).
+     * @return The direction of the cliff edge as an integer (0: Right, 1: Bottom, 2: Left), or -1 for a chunk
+     * of an open lake, which has no cliff.
      */
     public int getCliffEdgeDirection() {
         return CLIFEDGE_DIRECTION;
@@ -183,7 +998,7 @@ public class LakePuzzle {
      * @return An array where the first element is the number of columns and the second is the number of rows.
      */
     public int[] getMapSize() {
-        return new int[]{COLUMNS, ROWS};
+        return new int[]{columns, rows};
     }
 
     /**
@@ -207,117 +1022,183 @@ public class LakePuzzle {
 
     private void setRightCliffside() {
         // Set right side as cliff edge
-        for (int i = 1; i < ROWS-1 ; i++) {
-            getMapSquare(i, COLUMNS - 1).setItem(new CliffEdgeItem());
+        for (int i = 1; i < rows-1 ; i++) {
+            setCell(i, columns - 1, CellKind.CLIFF_EDGE);
         }
         // Set bottom wall except last column
-        for (int i = 0; i < COLUMNS - 1; i++) {
-            getMapSquare(ROWS - 1, i).setItem(new WallItem());
+        for (int i = 0; i < columns - 1; i++) {
+            setCell(rows - 1, i, CellKind.WALL);
         }
         // Set left wall
-        for (int i = 1; i < ROWS - 1; i++) {
-            getMapSquare(i, 0).setItem(new WallItem());
+        for (int i = 1; i < rows - 1; i++) {
+            setCell(i, 0, CellKind.WALL);
         }
     }
 
     private void setBottomCliffside() {
         // Set bottom as cliff edge
-        for (int i = 1; i < COLUMNS -1 ; i++) {
-            getMapSquare(ROWS - 1, i).setItem(new CliffEdgeItem());
+        for (int i = 1; i < columns -1 ; i++) {
+            setCell(rows - 1, i, CellKind.CLIFF_EDGE);
         }
         // Set right wall
-        for (int i = 1; i < ROWS - 1; i++) {
-            getMapSquare(i, COLUMNS - 1).setItem(new WallItem());
+        for (int i = 1; i < rows - 1; i++) {
+            setCell(i, columns - 1, CellKind.WALL);
         }
         // Set left wall
-        for (int i = 1; i < ROWS - 1; i++) {
-            getMapSquare(i, 0).setItem(new WallItem());
+        for (int i = 1; i < rows - 1; i++) {
+            setCell(i, 0, CellKind.WALL);
         }
     }
 
     private void setLeftCliffside() {
         // Set left side as cliff edge
-        for (int i = 1; i < ROWS-1 ; i++) {
-            getMapSquare(i, 0).setItem(new CliffEdgeItem());
+        for (int i = 1; i < rows-1 ; i++) {
+            setCell(i, 0, CellKind.CLIFF_EDGE);
         }
         // Set bottom wall except first column
-        for (int i = 1; i < COLUMNS; i++) {
-            getMapSquare(ROWS - 1, i).setItem(new WallItem());
+        for (int i = 1; i < columns; i++) {
+            setCell(rows - 1, i, CellKind.WALL);
         }
         // Set right wall
-        for (int i = 1; i < ROWS - 1; i++) {
-            getMapSquare(i, COLUMNS - 1).setItem(new WallItem());
+        for (int i = 1; i < rows - 1; i++) {
+            setCell(i, columns - 1, CellKind.WALL);
+        }
+    }
+
+    /**
+     * Places the ice blocks and hazards of a chunk of an open lake.
+     * Every row gets its ice blocks at random columns. Holes go on random empty squares, and since a chunk has
+     * no walls, spikes go on empty squares next to an ice block instead. Each placement has a bounded number of
+     * draws, so generation always terminates.
+     */
+    private void placeChunkContents() {
+        for (int row = 0; row < rows; row++) {
+            int placed = 0;
+            for (int attempt = 0; placed < iceBlocksPerRow && attempt < 4 * iceBlocksPerRow; attempt++) {
+                int col = random.nextInt(columns);
+                if (kindAt(row, col) == CellKind.EMPTY) {
+                    setCell(row, col, CellKind.ICE_BLOCK);
+                    placed++;
+                }
+            }
+        }
+        int holes = 0;
+        for (long attempt = 0; holes < numHoles && attempt < 64L * numHoles + 1024; attempt++) {
+            int row = random.nextInt(rows);
+            int col = random.nextInt(columns);
+            if (kindAt(row, col) == CellKind.EMPTY) {
+                setCell(row, col, CellKind.HOLE);
+                holes++;
+            }
+        }
+        int spikes = 0;
+        for (long attempt = 0; spikes < numSpikes && attempt < 64L * numSpikes + 1024; attempt++) {
+            int row = random.nextInt(rows);
+            int col = random.nextInt(columns);
+            if (kindAt(row, col) == CellKind.EMPTY && iceBlockLayer.anyAround(row, col)) {
+                setCell(row, col, CellKind.SPIKE);
+                spikes++;
+            }
         }
     }
 
     private void placeIceBlocks() {
-        // Her satır için olası sütunları tutacak liste
-        ArrayList<Integer> possibleColumns = initializeColumnList();
+        // Ice blokları için uygun sütunlar
+        CandidateSet validColumns = collectIceBlockColumns();
         boolean hasMiddleColumn = false;
         int cliffBlockCount = 0;
 
         // 1. satırdan başlayıp sondan bir satıra kadar git
-        for (int row = 1; row < ROWS - 1; row++) {
+        for (int row = 1; row < rows - 1; row++) {
             // Özel durumlar için sütun seçimi
             int selectedColumn;
 
             // 1. satır için özel durum - index 6'ya yerleştirme yapılamaz
             if (row == 1) {
-                selectedColumn = getValidColumnForFirstRow(possibleColumns);
-            }else if(row == 6){
+                selectedColumn = getValidColumnForFirstRow();
+            }else if(row == rows - 4){
                 if(!hasMiddleColumn){
-                    selectedColumn = COLUMNS / 2;
+                    selectedColumn = entranceColumn;
                 }else{
-                    selectedColumn = getRandomValidColumn(possibleColumns);
+                    selectedColumn = validColumns.sample(random);
                 }
             }
             // 7. satır için özel durum - eğer cliff kenarında hiç IceBlock yoksa
-            else if (row == 7 && isCliffSideEmpty() && (isRightCliffside() || isLeftCliffside())) {
+            else if (row == rows - 3 && isCliffSideEmpty() && (isRightCliffside() || isLeftCliffside())) {
                 selectedColumn = getCliffAdjacentColumn();
                 cliffBlockCount++;
             }
             // 8. satır için özel durum
-            else if (row == 8) {
+            else if (row == rows - 2) {
                 if (isBottomCliffside()) {
                     // Alt cliff durumunda iki IceBlock yerleştir
                     placeDoubleIceBlocksForBottomCliff(row);
+                    placeExtraIceBlocks(row);
                     continue;
                 } else if ((isRightCliffside() || isLeftCliffside()) && cliffBlockCount == 1) {
                     selectedColumn = getCliffAdjacentColumn();
                     cliffBlockCount++;
                 } else {
-                    selectedColumn = getRandomValidColumn(possibleColumns);
+                    selectedColumn = validColumns.sample(random);
                 }
             }
             // Normal durumlar
             else {
-                selectedColumn = getRandomValidColumn(possibleColumns);
+                selectedColumn = validColumns.sample(random);
             }
 
             // Orta sütun kontrolü
-            if (selectedColumn == COLUMNS / 2) {
+            if (selectedColumn == entranceColumn) {
                 hasMiddleColumn = true;
             }
-            getMapSquare(row, selectedColumn).setItem(new IceBlockItem());
+            setCell(row, selectedColumn, CellKind.ICE_BLOCK);
+            placeExtraIceBlocks(row);
+        }
+    }
+
+    /**
+     * Places the additional ice blocks of a row when the lake is configured with more than one block per row.
+     * Columns are drawn from the free interior columns of the row and removed once used, so every draw places a
+     * block; a row with fewer free columns than blocks gets as many as fit.
+     *
+     * @param row The row index.
+     */
+    private void placeExtraIceBlocks(int row) {
+        if (iceBlocksPerRow <= 1) {
+            return;
+        }
+        if (rowColumns == null) {
+            rowColumns = new CandidateSet(columns);
+        }
+        rowColumns.clear();
+        for (int col = 1; col < columns - 1; col++) {
+            if (kindAt(row, col) == CellKind.EMPTY && !(row == 1 && col == entranceColumn)) {
+                rowColumns.add(col);
+            }
+        }
+        for (int remaining = iceBlocksPerRow - 1; remaining > 0 && rowColumns.size() > 0; remaining--) {
+            int col = rowColumns.sample(random);
+            rowColumns.remove(col);
+            setCell(row, col, CellKind.ICE_BLOCK);
         }
     }
 
     private void placeDoubleIceBlocksForBottomCliff(int row) {
         // İlk IceBlock'u yerleştir
-        getMapSquare(row, COLUMNS / 3).setItem(new IceBlockItem());
+        setCell(row, columns / 3, CellKind.ICE_BLOCK);
         // İkinci IceBlock'u yerleştir
-        getMapSquare(row, 2 * COLUMNS / 3).setItem(new IceBlockItem());
+        setCell(row, 2 * columns / 3, CellKind.ICE_BLOCK);
     }
 
-    private int getValidColumnForFirstRow(ArrayList<Integer> possibleColumns) {
-        ArrayList<Integer> validColumns = new ArrayList<>(possibleColumns);
-        validColumns.remove(Integer.valueOf(6)); // index 6'yı kaldır
-        return validColumns.get(random.nextInt(validColumns.size()));
+    private int getValidColumnForFirstRow() {
+        // İç sütunlardan giriş sütunu hariç birini seç: giriş sütunu ve sonrası bir kaydırılır
+        int col = 1 + random.nextInt(columns - 3);
+        return col >= entranceColumn ? col + 1 : col;
     }
 
     private int getCliffAdjacentColumn() {
         if (isRightCliffside()) {
-            return COLUMNS - 2;
+            return columns - 2;
         } else if (isLeftCliffside()) {
             return 1;
         }
@@ -326,14 +1207,14 @@ public class LakePuzzle {
 
     private boolean isCliffSideEmpty() {
         if (isRightCliffside()) {
-            for (int i = 1; i < ROWS - 1; i++) {
-                if (getMapSquare(i, COLUMNS - 2).hasItemOfType(IceBlockItem.class)) {
+            for (int i = 1; i < rows - 1; i++) {
+                if (kindAt(i, columns - 2) == CellKind.ICE_BLOCK) {
                     return false;
                 }
             }
         } else if (isLeftCliffside()) {
-            for (int i = 1; i < ROWS - 1; i++) {
-                if (getMapSquare(i, 1).hasItemOfType(IceBlockItem.class)) {
+            for (int i = 1; i < rows - 1; i++) {
+                if (kindAt(i, 1) == CellKind.ICE_BLOCK) {
                     return false;
                 }
             }
@@ -341,101 +1222,171 @@ public class LakePuzzle {
         return true;
     }
 
-    private int getRandomValidColumn(ArrayList<Integer> possibleColumns) {
-        ArrayList<Integer> validColumns = new ArrayList<>();
-        for (Integer col : possibleColumns) {
-            if (!isNextToCliffside(ROWS - 2, col) && !isNextToWall(ROWS - 2, col)) {
-                validColumns.add(col);
+    /**
+     * Collects the interior columns a row's ice block may be drawn from: those whose square above the bottom
+     * wall is next to neither a wall nor the cliff edge, or every interior column if there are none.
+     * The set only depends on the walls and the cliff edge, so it is built once per map.
+     *
+     * @return The valid columns.
+     */
+    private CandidateSet collectIceBlockColumns() {
+        if (iceBlockColumns == null) {
+            iceBlockColumns = new CandidateSet(columns);
+        }
+        iceBlockColumns.clear();
+        for (int col = 1; col < columns - 1; col++) {
+            if (!isNextToCliffside(rows - 2, col) && !isNextToWall(rows - 2, col)) {
+                iceBlockColumns.add(col);
             }
         }
-
-        // Eğer validColumns boşsa, possibleColumns'dan rastgele bir sütun seç
-        if (validColumns.isEmpty()) {
-            return possibleColumns.get(random.nextInt(possibleColumns.size()));
+        if (iceBlockColumns.size() == 0) {
+            for (int col = 1; col < columns - 1; col++) {
+                iceBlockColumns.add(col);
+            }
         }
-
-        return validColumns.get(random.nextInt(validColumns.size()));
+        return iceBlockColumns;
     }
 
-    private ArrayList<Integer> initializeColumnList() {
-        ArrayList<Integer> possibleColumns = new ArrayList<>();
-        for (int j = 1; j < COLUMNS - 1; j++) {
-            possibleColumns.add(j);
-        }
-        return possibleColumns;
-    }
-    
     private boolean isRightCliffside() {
-        return getMapSquare(1, COLUMNS - 1).hasItemOfType(CliffEdgeItem.class);
+        return kindAt(1, columns - 1) == CellKind.CLIFF_EDGE;
     }
 
     private boolean isLeftCliffside() {
-        return getMapSquare(1, 0).hasItemOfType(CliffEdgeItem.class);
+        return kindAt(1, 0) == CellKind.CLIFF_EDGE;
     }
 
 
     private boolean isBottomCliffside() {
-        return getMapSquare(ROWS - 1, 1).hasItemOfType(CliffEdgeItem.class);
+        return kindAt(rows - 1, 1) == CellKind.CLIFF_EDGE;
     }
 
     private void placeHazards() {
-        ArrayList<Integer[]> availableIndices = getAvailableHazardIndices();
-        Collections.shuffle(availableIndices, random);
-
-        placeHoles(availableIndices);
-        placeSpikes(availableIndices);
+        if ((long) rows * columns > SMALL_LAKE_CELLS) {
+            placeHazardsBySampling();
+            return;
+        }
+        collectHazardCandidates();
+        placeOnCandidates(holeCandidates, numHoles, CellKind.HOLE);
+        placeOnCandidates(spikeCandidates, numSpikes, CellKind.SPIKE);
     }
 
-    private ArrayList<Integer[]> getAvailableHazardIndices() {
-        ArrayList<Integer[]> indices = new ArrayList<>();
-        for (int i = 0; i < ROWS; i++) {
-            for (int j = 0; j < COLUMNS; j++) {
-                if (isSafeForHazard(i, j)) {
-                    indices.add(new Integer[]{i, j});
+    /**
+     * Collects the squares every kind of hazard may be placed on. Holes may go on any safe square, and spikes
+     * only on safe squares next to a wall. The candidates of a whole row are computed at once from the bitboard
+     * layers: occupied cells, cliff edges and their direct neighbours, and the area around the entrance are
+     * masked out, and the walls of the row and its two neighbouring rows, spread by one column, give the
+     * squares next to a wall.
+     */
+    private void collectHazardCandidates() {
+        if (holeCandidates == null) {
+            holeCandidates = new CandidateSet(rows * columns);
+            spikeCandidates = new CandidateSet(rows * columns);
+        }
+        holeCandidates.clear();
+        spikeCandidates.clear();
+        long[] validColumns = occupiedLayer.fullRow();
+        long[] blocked = new long[validColumns.length];
+        long[] nearWall = new long[validColumns.length];
+        for (int i = 0; i < rows; i++) {
+            Arrays.fill(blocked, 0L);
+            occupiedLayer.orRow(i, blocked);
+            cliffLayer.orRowSpread(i, blocked);
+            cliffLayer.orRow(i - 1, blocked);
+            cliffLayer.orRow(i + 1, blocked);
+            Arrays.fill(nearWall, 0L);
+            wallLayer.orRowSpread(i - 1, nearWall);
+            wallLayer.orRowSpread(i, nearWall);
+            wallLayer.orRowSpread(i + 1, nearWall);
+            for (int w = 0; w < blocked.length; w++) {
+                long candidates = validColumns[w] & ~blocked[w];
+                while (candidates != 0) {
+                    int bit = Long.numberOfTrailingZeros(candidates);
+                    int j = (w << 6) + bit;
+                    candidates &= candidates - 1;
+                    if (!nearEntrance(i, j)) {
+                        holeCandidates.add(indexOf(i, j));
+                        if ((nearWall[w] >>> bit & 1L) != 0) {
+                            spikeCandidates.add(indexOf(i, j));
+                        }
+                    }
                 }
             }
         }
-        return indices;
     }
 
-    private void placeHoles(ArrayList<Integer[]> availableIndices) {
-        for (int i = 0; i < NUM_HOLES; i++) {
-            Integer[] pos = availableIndices.remove(0);
-            getMapSquare(pos[0], pos[1]).setItem(new HoleInIceItem());
+    /**
+     * Places hazards on squares drawn from a candidate set until the requested number is placed or no candidate
+     * is left. A placed square is removed from every candidate set, so each draw succeeds and placement takes
+     * time in proportion to the number of hazards.
+     *
+     * @param candidates The squares the hazard may be placed on.
+     * @param count The number of hazards to place.
+     * @param kind The CellKind code of the hazard.
+     */
+    private void placeOnCandidates(CandidateSet candidates, int count, byte kind) {
+        for (int placed = 0; placed < count && candidates.size() > 0; placed++) {
+            int index = candidates.sample(random);
+            holeCandidates.remove(index);
+            spikeCandidates.remove(index);
+            setCell(index / columns, index % columns, kind);
         }
     }
 
     /**
-     * Places spikes on the map at positions specified in the availableIndices list.
-     * The spikes are only placed if the position is next to a wall.
-     * If a position is not next to a wall, it retries with the next available position.
-     *
-     * @param availableIndices A list of available positions (as Integer arrays) where spikes can be placed.
+     * Places the hazards of a large lake without listing every safe cell.
+     * Holes are placed on randomly drawn cells that pass the safety check, with a bounded number of draws.
+     * Spikes can only be next to a wall, so their candidates are collected from the two-cell band along the
+     * outer walls, which keeps generation linear in the number of rows and columns.
      */
-    private void placeSpikes(ArrayList<Integer[]> availableIndices) {
-        for (int i = 0; i < NUM_SPIKES; i++) {
-            Integer[] pos = availableIndices.remove(0);
-            if (isNextToWall(pos[0], pos[1])) {
-                getMapSquare(pos[0], pos[1]).setItem(new IceSpikeItem());
-            } else {
-                i--; // Retry if not next to a wall
+    private void placeHazardsBySampling() {
+        int placed = 0;
+        long attempts = 64L * numHoles + 1024;
+        for (long attempt = 0; placed < numHoles && attempt < attempts; attempt++) {
+            int row = 1 + random.nextInt(rows - 2);
+            int col = 1 + random.nextInt(columns - 2);
+            if (isSafeForHazard(row, col)) {
+                setCell(row, col, CellKind.HOLE);
+                placed++;
             }
         }
+
+        int[] band = new int[4 * (rows + columns)];
+        int size = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < columns; col++) {
+                if (row > 1 && row < rows - 2 && col > 1 && col < columns - 2) {
+                    col = columns - 3;
+                    continue;
+                }
+                if (isSafeForHazard(row, col) && isNextToWall(row, col)) {
+                    band[size++] = indexOf(row, col);
+                }
+            }
+        }
+        for (int i = 0; i < numSpikes && i < size; i++) {
+            int pick = i + random.nextInt(size - i);
+            int index = band[pick];
+            band[pick] = band[i];
+            setCell(index / columns, index % columns, CellKind.SPIKE);
+        }
     }
 
     private boolean nearEntrance(int row, int col) {
-        return row < 3 && Math.abs(col - COLUMNS / 2) < 3;
+        return row < 3 && Math.abs(col - entranceColumn) < 3;
     }
 
     /**
-     * Checks if the specified map square is a cliffside.
+     * Determines if the specified map square is safe for placing a hazard.
      *
      * @param row The row index of the map square.
      * @param col The column index of the map square.
-     * @return true if the map square has an item of type CliffEdgeItem, false otherwise.
+     * @return true if the square is safe for a hazard, false otherwise.
      */
-    private boolean onCliffside(int row, int col) {
-        return getMapSquare(row, col).hasItemOfType(CliffEdgeItem.class);
+    private boolean isSafeForHazard(int row, int col) {
+        return !occupiedLayer.get(row, col) &&
+                !nearEntrance(row, col) &&
+                !cliffLayer.get(row, col) &&
+                !isNextToCliffside(row, col);
     }
 
     /**
@@ -446,34 +1397,11 @@ public class LakePuzzle {
      * @return true if any neighboring square has an item of type WallItem, false otherwise.
      */
     private boolean isNextToWall(int row, int col) {
-        int[][] offsets = {
-                {-1, -1}, {-1, 0}, {-1, 1},
-                {0, -1},           {0, 1},
-                {1, -1},  {1, 0},  {1, 1}
-        };
-
-        for (int[] offset : offsets) {
-            int r = row + offset[0];
-            int c = col + offset[1];
-            if (isValidPosition(r, c) && getMapSquare(r, c).hasItemOfType(WallItem.class)) {
-                return true;
-            }
+        if (!isValidPosition(row, col)) {
+            return false;
         }
-        return false;
-    }
-
-    /**
-     * Determines if the specified map square is safe for placing a hazard.
-     *
-     * @param row The row index of the map square.
-     * @param col The column index of the map square.
-     * @return true if the square is safe for a hazard, false otherwise.
-     */
-    private boolean isSafeForHazard(int row, int col) {
-        return !getMapSquare(row, col).hasAnyItem() &&
-                !nearEntrance(row, col) &&
-                !onCliffside(row, col) &&
-                !isNextToCliffside(row, col);
+        ensureLayers();
+        return wallLayer.anyAround(row, col);
     }
 
     /**
@@ -484,18 +1412,11 @@ public class LakePuzzle {
      * @return true if any directly adjacent square has an item of type CliffEdgeItem, false otherwise.
      */
     private boolean isNextToCliffside(int row, int col) {
-        int[][] offsets = {
-                {-1, 0}, {1, 0}, {0, -1}, {0, 1}
-        };
-
-        for (int[] offset : offsets) {
-            int r = row + offset[0];
-            int c = col + offset[1];
-            if (isValidPosition(r, c) && getMapSquare(r, c).hasItemOfType(CliffEdgeItem.class)) {
-                return true;
-            }
+        if (!isValidPosition(row, col)) {
+            return false;
         }
-        return false;
+        ensureLayers();
+        return cliffLayer.anyAdjacent(row, col);
     }
 
     /**
@@ -506,7 +1427,7 @@ public class LakePuzzle {
      * @return true if the position is valid, false otherwise.
      */
     private boolean isValidPosition(int row, int col) {
-        return row >= 0 && row < ROWS && col >= 0 && col < COLUMNS;
+        return row >= 0 && row < rows && col >= 0 && col < columns;
     }
 
     /**
@@ -517,7 +1438,7 @@ public class LakePuzzle {
      * @return true if the square is on the edge of the map, false otherwise.
      */
     public boolean isNextToEdge(int row, int col) {
-        return row == 0 || row == ROWS - 1 || col == 0 || col == COLUMNS - 1;
+        return row == 0 || row == rows - 1 || col == 0 || col == columns - 1;
     }
 
     /**
@@ -528,20 +1449,32 @@ public class LakePuzzle {
      * @return true if any neighboring square has an item of type IceBlockItem, false otherwise.
      */
     public boolean isNextToIceBlock(int row, int col) {
-        int[][] offsets = {
-                {-1, 0}, {1, 0}, {0, -1}, {0, 1}, // Adjacent cells
-                {-1, -1}, {-1, 1}, {1, -1}, {1, 1} // Diagonal cells
-        };
-
-        for (int[] offset : offsets) {
-            int r = row + offset[0];
-            int c = col + offset[1];
-            if (isValidPosition(r, c) && getMapSquare(r, c).hasItemOfType(IceBlockItem.class)) {
-                return true;
-            }
+        if (!isValidPosition(row, col)) {
+            return false;
         }
+        ensureLayers();
+        return iceBlockLayer.anyAround(row, col);
+    }
 
-        return false;
+    /**
+     * Checks whether a piece of research equipment can be used at a position, as its canBeUsedAt would answer.
+     * The answer is read from a per-equipment mask of the whole lake, built on first use and kept up to date as
+     * items are placed or removed, so hint systems and solvers can ask about many cells cheaply.
+     *
+     * @param equipment The research equipment.
+     * @param row The row index of the position.
+     * @param col The column index of the position.
+     * @return true if the equipment can be used at the position.
+     * @throws IndexOutOfBoundsException if the position is outside the map.
+     */
+    public boolean isExperimentCell(ResearchEquipmentItem equipment, int row, int col) {
+        if (!isValidPosition(row, col)) {
+            throw new IndexOutOfBoundsException("Position (" + row + ", " + col + ") is outside the map.");
+        }
+        if (experimentMasks == null) {
+            experimentMasks = new ExperimentMasks(this, rows, columns);
+        }
+        return experimentMasks.isValid(CellKind.of(equipment), row, col);
     }
 
     /**
@@ -556,32 +1489,294 @@ public class LakePuzzle {
     }
 
     /**
-     * Prints the map to the console with a formatted representation.
+     * Prints the map to the output of the lake with a formatted representation.
      */
     public void printMap() {
-        for (int i = 1; i < ROWS; i++) {
+        if (!output.isEnabled()) {
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 1; i < rows; i++) {
             if (i == 1) {
-                System.out.println("     -" + "------".repeat((COLUMNS - 2) / 2) + "      " + "------".repeat((COLUMNS - 2) / 2));
+                text.append("     -").append("------".repeat((columns - 2) / 2)).append("      ")
+                        .append("------".repeat((columns - 2) / 2)).append('\n');
             } else {
-                System.out.println("     -" + "------".repeat((COLUMNS - 2)));
+                text.append("     -").append("------".repeat(columns - 2)).append('\n');
             }
+            appendRow(text, i, 0, columns, i == rows - 1);
+            text.append('\n');
+        }
+        output.print(text.toString());
+    }
 
-            if (i == ROWS - 1) {
-                for (int j = 0; j < COLUMNS; j++) {
-                    MapSquare square = getMapSquare(i, j);
-                    System.out.print(square.toString());
-                    System.out.print(" ");
-                }
-            } else {
-                for (int j = 0; j < COLUMNS; j++) {
-                    MapSquare square = getMapSquare(i, j);
-                    System.out.print(square.toString());
-                    if (j != COLUMNS - 1) {
-                        System.out.print("|");
-                    }
-                }
+    /**
+     * Prints a rectangular part of the map to the output of the lake, for lakes that are too large to print whole.
+     * The region is clipped to the map boundaries.
+     *
+     * @param firstRow The row index of the top of the region.
+     * @param firstColumn The column index of the left side of the region.
+     * @param rowCount The number of rows to print.
+     * @param columnCount The number of columns to print.
+     */
+    public void printRegion(int firstRow, int firstColumn, int rowCount, int columnCount) {
+        if (!output.isEnabled()) {
+            return;
+        }
+        int top = Math.max(0, firstRow);
+        int left = Math.max(0, firstColumn);
+        int bottom = Math.min(rows, firstRow + rowCount);
+        int right = Math.min(columns, firstColumn + columnCount);
+        StringBuilder text = new StringBuilder();
+        for (int i = top; i < bottom; i++) {
+            text.append("     -").append("------".repeat(Math.max(0, right - left - 2))).append('\n');
+            appendRow(text, i, left, right, false);
+            text.append('\n');
+        }
+        output.print(text.toString());
+    }
+
+    /**
+     * Appends the squares of one row to a text.
+     *
+     * @param text The text to append to.
+     * @param row The row index.
+     * @param fromColumn The first column to append.
+     * @param toColumn The column after the last one to append.
+     * @param lastRow true to separate squares with spaces as on the last row of the map, false to use bars.
+     */
+    private void appendRow(StringBuilder text, int row, int fromColumn, int toColumn, boolean lastRow) {
+        for (int j = fromColumn; j < toColumn; j++) {
+            text.append(squareAt(indexOf(row, j)));
+            if (lastRow) {
+                text.append(' ');
+            } else if (j != toColumn - 1) {
+                text.append('|');
+            }
+        }
+    }
+
+    /**
+     * The Builder class configures the size and hazard settings of a LakePuzzle before it is generated.
+     * Unset values keep the standard 10x13 lake with one ice block per row, three holes and three spikes.
+     */
+    public static class Builder {
+        private int rows = DEFAULT_ROWS;
+        private int columns = DEFAULT_COLUMNS;
+        private int iceBlocksPerRow = 1;
+        private int holes = DEFAULT_HOLES;
+        private int spikes = DEFAULT_SPIKES;
+        private double holeDensity = -1;
+        private double spikeDensity = -1;
+        private Long seed;
+        private SplittableRandom random;
+        private boolean chunk;
+
+        /**
+         * Creates a builder with the standard settings.
+         */
+        public Builder() {
+        }
+
+        /**
+         * Creates a builder with the same settings as another builder.
+         *
+         * @param other The builder to copy.
+         */
+        public Builder(Builder other) {
+            this.rows = other.rows;
+            this.columns = other.columns;
+            this.iceBlocksPerRow = other.iceBlocksPerRow;
+            this.holes = other.holes;
+            this.spikes = other.spikes;
+            this.holeDensity = other.holeDensity;
+            this.spikeDensity = other.spikeDensity;
+            this.seed = other.seed;
+            this.random = other.random;
+            this.chunk = other.chunk;
+        }
+
+        /**
+         * Sets the number of rows, including the entrance row and the bottom wall or cliff.
+         *
+         * @param rows The number of rows, at least 5.
+         * @return This builder.
+         */
+        public Builder rows(int rows) {
+            if (rows < MIN_SIZE) {
+                throw new IllegalArgumentException("A lake must have at least " + MIN_SIZE + " rows.");
+            }
+            this.rows = rows;
+            return this;
+        }
+
+        /**
+         * Sets the number of columns, including the side walls or cliffs.
+         *
+         * @param columns The number of columns, at least 5.
+         * @return This builder.
+         */
+        public Builder columns(int columns) {
+            if (columns < MIN_SIZE) {
+                throw new IllegalArgumentException("A lake must have at least " + MIN_SIZE + " columns.");
+            }
+            this.columns = columns;
+            return this;
+        }
+
+        /**
+         * Sets the number of ice blocks placed in every interior row.
+         *
+         * @param iceBlocksPerRow The number of ice blocks per row, at least 1.
+         * @return This builder.
+         */
+        public Builder iceBlocksPerRow(int iceBlocksPerRow) {
+            if (iceBlocksPerRow < 1) {
+                throw new IllegalArgumentException("There must be at least one ice block per row.");
+            }
+            this.iceBlocksPerRow = iceBlocksPerRow;
+            return this;
+        }
+
+        /**
+         * Sets the number of holes in the ice.
+         *
+         * @param holes The number of holes, not negative.
+         * @return This builder.
+         */
+        public Builder holes(int holes) {
+            if (holes < 0) {
+                throw new IllegalArgumentException("The number of holes cannot be negative.");
+            }
+            this.holes = holes;
+            this.holeDensity = -1;
+            return this;
+        }
+
+        /**
+         * Sets the number of ice spikes.
+         *
+         * @param spikes The number of spikes, not negative.
+         * @return This builder.
+         */
+        public Builder spikes(int spikes) {
+            if (spikes < 0) {
+                throw new IllegalArgumentException("The number of spikes cannot be negative.");
+            }
+            this.spikes = spikes;
+            this.spikeDensity = -1;
+            return this;
+        }
+
+        /**
+         * Sets the number of holes as a fraction of the interior squares of the lake.
+         *
+         * @param density The fraction of interior squares, between 0 and 1.
+         * @return This builder.
+         */
+        public Builder holeDensity(double density) {
+            if (density < 0 || density > 1) {
+                throw new IllegalArgumentException("Density must be between 0 and 1.");
+            }
+            this.holeDensity = density;
+            return this;
+        }
+
+        /**
+         * Sets the number of spikes as a fraction of the squares along the outer walls.
+         *
+         * @param density The fraction of wall-side squares, between 0 and 1.
+         * @return This builder.
+         */
+        public Builder spikeDensity(double density) {
+            if (density < 0 || density > 1) {
+                throw new IllegalArgumentException("Density must be between 0 and 1.");
+            }
+            this.spikeDensity = density;
+            return this;
+        }
+
+        /**
+         * Sets the seed of the random generator, so the same settings and seed always generate the same lake.
+         *
+         * @param seed The seed.
+         * @return This builder.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            this.random = null;
+            return this;
+        }
+
+        /**
+         * Sets the random generator the lake's streams are split from, so a session can derive every lake from
+         * its own seed. Each built lake splits a new stream, and the last call of seed or random wins.
+         *
+         * @param random The generator to split from.
+         * @return This builder.
+         */
+        public Builder random(SplittableRandom random) {
+            if (random == null) {
+                throw new IllegalArgumentException("The random generator cannot be null.");
+            }
+            this.random = random;
+            this.seed = null;
+            return this;
+        }
+
+        /**
+         * Generates a chunk of an open lake instead of a walled lake: no entrance, walls or cliff edge.
+         *
+         * @param chunk true to generate a chunk.
+         * @return This builder.
+         */
+        Builder chunk(boolean chunk) {
+            this.chunk = chunk;
+            return this;
+        }
+
+        /**
+         * Retrieves the number of rows.
+         *
+         * @return The number of rows.
+         */
+        int getRows() {
+            return rows;
+        }
+
+        /**
+         * Retrieves the number of columns.
+         *
+         * @return The number of columns.
+         */
+        int getColumns() {
+            return columns;
+        }
+
+        private int holeCount() {
+            if (holeDensity < 0) {
+                return holes;
+            }
+            return (int) Math.round(holeDensity * (rows - 2) * (double) (columns - 2));
+        }
+
+        private int spikeCount() {
+            if (spikeDensity < 0) {
+                return spikes;
+            }
+            return (int) Math.round(spikeDensity * 2 * (rows + columns - 4));
+        }
+
+        /**
+         * Generates a new lake with the configured settings.
+         *
+         * @return The generated lake.
+         * @throws IllegalArgumentException if the lake has more squares than an array can hold.
+         */
+        public LakePuzzle build() {
+            if ((long) rows * columns > Integer.MAX_VALUE - 8) {
+                throw new IllegalArgumentException("A lake cannot have more than " + (Integer.MAX_VALUE - 8) + " squares.");
             }
-            System.out.println();
+            return new LakePuzzle(this);
         }
     }
 }
@@ -0,0 +1,283 @@
+package Components.General;
+
+import java.util.List;
+
+/**
+ * The LakeState class is an immutable snapshot of a lake for searches and what-if analysis.
+ * Every update returns a new state and leaves the original untouched, and the new state shares all unchanged
+ * parts with its parent: the cells are kept in 64-cell chunks at the leaves of a 32-way tree, so changing a
+ * cell copies only that chunk and the few tree nodes on its path. Branching a search therefore costs memory and
+ * time in proportion to the changes, not to the size of the lake.
+ * Researchers are referred to by slot, in the order they were given when the snapshot was taken.
+ */
+public final class LakeState {
+
+    private static final int LEAF_BITS = 6;
+    private static final int LEAF_SIZE = 1 << LEAF_BITS;
+    private static final int BRANCH_BITS = 5;
+    private static final int BRANCH_SIZE = 1 << BRANCH_BITS;
+
+    private final int rows;
+    private final int columns;
+    private final int cliffDirection;
+    private final int depth;
+    private final Object root;
+    private final int[] researcherCells;
+    private final boolean[] researcherAlive;
+
+    private LakeState(int rows, int columns, int cliffDirection, int depth, Object root, int[] researcherCells,
+                      boolean[] researcherAlive) {
+        this.rows = rows;
+        this.columns = columns;
+        this.cliffDirection = cliffDirection;
+        this.depth = depth;
+        this.root = root;
+        this.researcherCells = researcherCells;
+        this.researcherAlive = researcherAlive;
+    }
+
+    /**
+     * Takes a snapshot of a lake. This reads every cell once; later updates of the snapshot do not.
+     *
+     * @param lake The lake to copy.
+     * @param researchers The researchers to track, in slot order. Researchers that are not on the lake get no cell.
+     * @return The snapshot.
+     */
+    public static LakeState of(LakePuzzle lake, List<Researcher> researchers) {
+        int[] size = lake.getMapSize();
+        int columns = size[0];
+        int rows = size[1];
+        int cellCount = rows * columns;
+
+        int leafCount = (cellCount + LEAF_SIZE - 1) >>> LEAF_BITS;
+        Object[] level = new Object[leafCount];
+        for (int leaf = 0; leaf < leafCount; leaf++) {
+            byte[] cells = new byte[LEAF_SIZE];
+            int first = leaf << LEAF_BITS;
+            int count = Math.min(LEAF_SIZE, cellCount - first);
+            for (int i = 0; i < count; i++) {
+                cells[i] = lake.kindAt(first + i);
+            }
+            level[leaf] = cells;
+        }
+        // Group the nodes of each level 32 at a time until a single root is left
+        int depth = 0;
+        while (level.length > 1) {
+            Object[] parents = new Object[(level.length + BRANCH_SIZE - 1) >>> BRANCH_BITS];
+            for (int i = 0; i < parents.length; i++) {
+                Object[] node = new Object[BRANCH_SIZE];
+                System.arraycopy(level, i << BRANCH_BITS, node, 0, Math.min(BRANCH_SIZE, level.length - (i << BRANCH_BITS)));
+                parents[i] = node;
+            }
+            level = parents;
+            depth++;
+        }
+
+        int[] researcherCells = new int[researchers.size()];
+        boolean[] researcherAlive = new boolean[researchers.size()];
+        for (int slot = 0; slot < researchers.size(); slot++) {
+            researcherCells[slot] = lake.findResearcherIndex(researchers.get(slot));
+            researcherAlive[slot] = researchers.get(slot).researcherAlive();
+        }
+        return new LakeState(rows, columns, lake.getCliffEdgeDirection(), depth, level[0], researcherCells, researcherAlive);
+    }
+
+    /**
+     * Retrieves the number of rows.
+     *
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Retrieves the number of columns.
+     *
+     * @return The number of columns.
+     */
+    public int getColumns() {
+        return columns;
+    }
+
+    /**
+     * Retrieves the direction of the cliff edge.
+     *
+     * @return The direction of the cliff edge (0: Right, 1: Bottom, 2: Left), or -1 if there is none.
+     */
+    public int getCliffEdgeDirection() {
+        return cliffDirection;
+    }
+
+    /**
+     * Retrieves the item kind of a cell.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @return The CellKind code of the cell.
+     */
+    public byte kindAt(int row, int col) {
+        return kindAt(row * columns + col);
+    }
+
+    /**
+     * Retrieves the item kind of a cell.
+     *
+     * @param index The packed cell index.
+     * @return The CellKind code of the cell.
+     */
+    public byte kindAt(int index) {
+        Object node = root;
+        int leaf = index >>> LEAF_BITS;
+        for (int level = depth - 1; level >= 0; level--) {
+            node = ((Object[]) node)[(leaf >>> (level * BRANCH_BITS)) & (BRANCH_SIZE - 1)];
+        }
+        return ((byte[]) node)[index & (LEAF_SIZE - 1)];
+    }
+
+    /**
+     * Creates a state where a cell holds a different item kind, for example after a hazard was neutralized or
+     * a piece of equipment was placed.
+     *
+     * @param row The row index.
+     * @param col The column index.
+     * @param kind The new CellKind code.
+     * @return The new state, or this state if the cell already holds the kind.
+     */
+    public LakeState withKind(int row, int col, byte kind) {
+        int index = row * columns + col;
+        if (kindAt(index) == kind) {
+            return this;
+        }
+        Object newRoot = withKind(root, depth, index, kind);
+        return new LakeState(rows, columns, cliffDirection, depth, newRoot, researcherCells, researcherAlive);
+    }
+
+    /**
+     * Copies the path from a node down to the chunk of a cell and changes the cell in the copy.
+     *
+     * @param node The node to copy.
+     * @param level The height of the node above the chunks.
+     * @param index The packed cell index.
+     * @param kind The new CellKind code.
+     * @return The copied node.
+     */
+    private static Object withKind(Object node, int level, int index, byte kind) {
+        if (level == 0) {
+            byte[] cells = ((byte[]) node).clone();
+            cells[index & (LEAF_SIZE - 1)] = kind;
+            return cells;
+        }
+        Object[] children = ((Object[]) node).clone();
+        int child = (index >>> (LEAF_BITS + (level - 1) * BRANCH_BITS)) & (BRANCH_SIZE - 1);
+        children[child] = withKind(children[child], level - 1, index, kind);
+        return children;
+    }
+
+    /**
+     * Retrieves the number of researcher slots.
+     *
+     * @return The number of researchers tracked by the state.
+     */
+    public int getResearcherCount() {
+        return researcherCells.length;
+    }
+
+    /**
+     * Retrieves the cell of a researcher.
+     *
+     * @param slot The researcher slot.
+     * @return The packed cell index, or -1 if the researcher is not on the lake.
+     */
+    public int getResearcherCell(int slot) {
+        return researcherCells[slot];
+    }
+
+    /**
+     * Checks whether a researcher is alive.
+     *
+     * @param slot The researcher slot.
+     * @return true if the researcher is alive.
+     */
+    public boolean isResearcherAlive(int slot) {
+        return researcherAlive[slot];
+    }
+
+    /**
+     * Finds the researcher standing in a cell.
+     *
+     * @param index The packed cell index.
+     * @return The slot of the researcher, or -1 if the cell is free.
+     */
+    public int researcherAt(int index) {
+        for (int slot = 0; slot < researcherCells.length; slot++) {
+            if (researcherCells[slot] == index) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates a state where a researcher stands in another cell, or has left the lake.
+     *
+     * @param slot The researcher slot.
+     * @param index The packed cell index, or -1 to take the researcher off the lake.
+     * @return The new state.
+     */
+    public LakeState withResearcherAt(int slot, int index) {
+        if (index >= rows * columns) {
+            throw new IllegalArgumentException("The cell is outside the lake.");
+        }
+        int[] cells = researcherCells.clone();
+        cells[slot] = index;
+        return new LakeState(rows, columns, cliffDirection, depth, root, cells, researcherAlive);
+    }
+
+    /**
+     * Creates a state where a researcher is dead.
+     *
+     * @param slot The researcher slot.
+     * @return The new state.
+     */
+    public LakeState withResearcherKilled(int slot) {
+        if (!researcherAlive[slot]) {
+            return this;
+        }
+        boolean[] alive = researcherAlive.clone();
+        alive[slot] = false;
+        return new LakeState(rows, columns, cliffDirection, depth, root, researcherCells, alive);
+    }
+
+    /**
+     * Finds where a researcher starting at the given position stops when sliding in the given direction,
+     * with the same rules as LakePuzzle.getSlideDestination.
+     *
+     * @param row The row index of the starting position.
+     * @param col The column index of the starting position.
+     * @param direction The direction of the slide.
+     * @return The packed index of the cell where the slide stops, or -1 if the first step is blocked.
+     */
+    public int getSlideDestination(int row, int col, Direction direction) {
+        int startRow = row;
+        int startCol = col;
+        while (true) {
+            int nextRow = row + direction.getRowChange();
+            int nextCol = col + direction.getColumnChange();
+            if (nextRow < 0 || nextRow >= rows || nextCol < 0 || nextCol >= columns) {
+                break;
+            }
+            int next = nextRow * columns + nextCol;
+            byte kind = kindAt(next);
+            if (CellKind.blocksSlide(kind) || researcherAt(next) >= 0) {
+                break;
+            }
+            row = nextRow;
+            col = nextCol;
+            if (CellKind.stopsSlide(kind)) {
+                break;
+            }
+        }
+        return row == startRow && col == startCol ? -1 : row * columns + col;
+    }
+}
@@ -0,0 +1,224 @@
+package Components.General;
+
+import Components.ResearchEquipmentItems.CameraItem;
+import Components.ResearchEquipmentItems.ChiselingEquipmentItem;
+import Components.ResearchEquipmentItems.ResearchEquipmentItem;
+import Components.ResearchEquipmentItems.TemperatureDetectorItem;
+import Components.ResearchEquipmentItems.WindSpeedMeasurement;
+
+import java.util.Arrays;
+
+/**
+ * The LakeVerifier class checks that the research goals of a lake can be accomplished with the sliding moves
+ * of Researcher.move. A goal can be accomplished if a square where its equipment can be used is reachable from
+ * the entrance square, and the entrance square is reachable again from there once the equipment has been left
+ * on that square. Researchers are assumed to carry no hazard equipment, so stopping on a hole, ice spike or
+ * cliff edge ends the route. The lake is checked as it is; researchers already on it block slides.
+ */
+public final class LakeVerifier {
+
+    private static final ResearchEquipmentItem[] GOALS = {
+            new CameraItem(), new TemperatureDetectorItem(), new ChiselingEquipmentItem(), new WindSpeedMeasurement()
+    };
+
+    private LakeVerifier() {
+    }
+
+    /**
+     * Checks whether every research goal of the game can be accomplished on a lake.
+     *
+     * @param lake The lake to check.
+     * @return true if the camera, temperature, chiseling and wind speed goals can all be accomplished.
+     */
+    public static boolean isSolvable(LakePuzzle lake) {
+        SlideGraph graph = new SlideGraph(lake);
+        for (ResearchEquipmentItem goal : GOALS) {
+            if (!graph.canAccomplish(goal)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a single research goal can be accomplished on a lake.
+     *
+     * @param lake The lake to check.
+     * @param goal The research equipment of the goal.
+     * @return true if the equipment can be used somewhere on the lake with a route back to the entrance.
+     */
+    public static boolean canAccomplish(LakePuzzle lake, ResearchEquipmentItem goal) {
+        return new SlideGraph(lake).canAccomplish(goal);
+    }
+
+    /**
+     * The graph of sliding moves of a lake. Every square a researcher can stand on has up to four edges, one
+     * per direction, leading to the square where the slide stops. Slides that end on a dangerous hazard have no
+     * edge. The squares reachable from the entrance square and the squares the entrance square can be reached
+     * from are found once, by a breadth-first search forward and one over the reversed edges.
+     */
+    private static final class SlideGraph {
+        private static final Direction[] DIRECTIONS = Direction.values();
+
+        private final LakePuzzle lake;
+        private final int columns;
+        private final int entrance;
+        private final int[] next;
+        private final int[] queue;
+        private final int[] reachedOrder;
+        private final int reachedCount;
+        private final boolean[] returns;
+        private final boolean[] visited;
+
+        private SlideGraph(LakePuzzle lake) {
+            this.lake = lake;
+            int[] size = lake.getMapSize();
+            columns = size[0];
+            int cellCount = size[0] * size[1];
+            int[] entrancePosition = lake.getEntrancePosition();
+            entrance = entrancePosition[1] * columns + entrancePosition[0];
+            next = new int[4 * cellCount];
+            queue = new int[cellCount];
+            visited = new boolean[cellCount];
+
+            // Look up every edge once; the lake's slide tables make each lookup constant time
+            int[] inDegree = new int[cellCount + 1];
+            for (int cell = 0; cell < cellCount; cell++) {
+                for (int d = 0; d < 4; d++) {
+                    int target = -1;
+                    if (isStandable(cell)) {
+                        target = lake.getSlideDestination(cell / columns, cell % columns, DIRECTIONS[d]);
+                        if (target >= 0 && !isStandable(target)) {
+                            target = -1;
+                        }
+                    }
+                    next[4 * cell + d] = target;
+                    if (target >= 0) {
+                        inDegree[target + 1]++;
+                    }
+                }
+            }
+
+            // Forward search from the entrance square
+            reachedOrder = new int[cellCount];
+            int count = 0;
+            if (isStandable(entrance)) {
+                boolean[] reached = new boolean[cellCount];
+                reached[entrance] = true;
+                reachedOrder[count++] = entrance;
+                for (int head = 0; head < count; head++) {
+                    int cell = reachedOrder[head];
+                    for (int d = 0; d < 4; d++) {
+                        int target = next[4 * cell + d];
+                        if (target >= 0 && !reached[target]) {
+                            reached[target] = true;
+                            reachedOrder[count++] = target;
+                        }
+                    }
+                }
+            }
+            reachedCount = count;
+
+            // Backward search from the entrance square over the reversed edges, stored as adjacency arrays
+            for (int cell = 0; cell < cellCount; cell++) {
+                inDegree[cell + 1] += inDegree[cell];
+            }
+            int[] sources = new int[inDegree[cellCount]];
+            int[] fill = new int[cellCount];
+            for (int cell = 0; cell < cellCount; cell++) {
+                for (int d = 0; d < 4; d++) {
+                    int target = next[4 * cell + d];
+                    if (target >= 0) {
+                        sources[inDegree[target] + fill[target]++] = cell;
+                    }
+                }
+            }
+            returns = new boolean[cellCount];
+            if (reachedCount > 0) {
+                returns[entrance] = true;
+                queue[0] = entrance;
+                int tail = 1;
+                for (int head = 0; head < tail; head++) {
+                    int cell = queue[head];
+                    for (int i = inDegree[cell]; i < inDegree[cell + 1]; i++) {
+                        int source = sources[i];
+                        if (!returns[source]) {
+                            returns[source] = true;
+                            queue[tail++] = source;
+                        }
+                    }
+                }
+            }
+        }
+
+        private boolean isStandable(int cell) {
+            byte kind = lake.kindAt(cell);
+            return kind == CellKind.EMPTY || CellKind.isEquipment(kind);
+        }
+
+        /**
+         * Looks for a reachable square where the equipment of a goal can be used and left behind.
+         * Leaving equipment on a square only adds a stop, which can only cut routes short, so a square that
+         * cannot return to the entrance without the equipment cannot with it either; the remaining candidates
+         * are confirmed with a search that stops on the square.
+         *
+         * @param goal The research equipment of the goal.
+         * @return true if the goal can be accomplished.
+         */
+        private boolean canAccomplish(ResearchEquipmentItem goal) {
+            for (int i = 0; i < reachedCount; i++) {
+                int cell = reachedOrder[i];
+                if (returns[cell] && lake.isExperimentCell(goal, cell / columns, cell % columns) && returnsWithStopAt(cell)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Checks whether the entrance square can be reached from a square once equipment has been left on it.
+         * The equipment stops every slide passing over the square, so those slides lead back to the square
+         * itself and are skipped; every other slide is unchanged.
+         *
+         * @param stop The square holding the equipment.
+         * @return true if the entrance square is reachable from the square.
+         */
+        private boolean returnsWithStopAt(int stop) {
+            if (stop == entrance) {
+                return true;
+            }
+            Arrays.fill(visited, false);
+            visited[stop] = true;
+            queue[0] = stop;
+            int tail = 1;
+            for (int head = 0; head < tail; head++) {
+                int cell = queue[head];
+                for (int d = 0; d < 4; d++) {
+                    int target = next[4 * cell + d];
+                    if (target < 0 || visited[target] || passesOver(cell, target, stop)) {
+                        continue;
+                    }
+                    if (target == entrance) {
+                        return true;
+                    }
+                    visited[target] = true;
+                    queue[tail++] = target;
+                }
+            }
+            return false;
+        }
+
+        private boolean passesOver(int from, int to, int cell) {
+            int fromRow = from / columns;
+            int fromCol = from % columns;
+            int toRow = to / columns;
+            int toCol = to % columns;
+            int row = cell / columns;
+            int col = cell % columns;
+            if (fromRow == toRow) {
+                return row == fromRow && col > Math.min(fromCol, toCol) && col < Math.max(fromCol, toCol);
+            }
+            return col == fromCol && row > Math.min(fromRow, toRow) && row < Math.max(fromRow, toRow);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package Components.General;
+
+/**
+ * The LongHashSet class is a set of long values stored in an open-addressing table of primitive longs,
+ * without boxing. Zero is stored in a separate flag since it marks free slots. Not thread-safe.
+ */
+final class LongHashSet {
+
+    private long[] table;
+    private int size;
+    private boolean containsZero;
+
+    /**
+     * Creates an empty set.
+     *
+     * @param expectedSize The number of values the set should hold before it grows.
+     */
+    LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        table = new long[capacity];
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value The value.
+     * @return true if the value was not in the set yet.
+     */
+    boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int mask = table.length - 1;
+        int slot = mix(value) & mask;
+        while (table[slot] != 0) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        size++;
+        if (size * 2 > table.length) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a value is in the set.
+     *
+     * @param value The value.
+     * @return true if the value is in the set.
+     */
+    boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int mask = table.length - 1;
+        int slot = mix(value) & mask;
+        while (table[slot] != 0) {
+            if (table[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Retrieves the number of values in the set.
+     *
+     * @return The size of the set.
+     */
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] old = table;
+        table = new long[old.length * 2];
+        int mask = table.length - 1;
+        for (long value : old) {
+            if (value != 0) {
+                int slot = mix(value) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    private static int mix(long value) {
+        long z = value * 0x9E3779B97F4A7C15L;
+        return (int) (z ^ (z >>> 32));
+    }
+}
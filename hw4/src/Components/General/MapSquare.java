@@ -4,8 +4,12 @@ import Components.Hazards.HazardItem;
 
 /**
  * Represents a single square on the lake puzzle map, capable of containing items and researchers.
+ * Squares handed out by LakePuzzle are lightweight views over the lake's cell storage; a square created
+ * with the public constructor is standalone and keeps its own contents.
  */
 public class MapSquare {
+    private final LakePuzzle lake;
+    private final int index;
     private MapItem item;
     private Researcher currentResearcher;
     private int row;
@@ -17,17 +21,35 @@ public class MapSquare {
      * @param row Y-coordinate of the square
      */
     public MapSquare(int column, int row) {
+        this.lake = null;
+        this.index = -1;
         item = null;
         currentResearcher = null;
         this.column = column;
         this.row = row;
     }
 
+    /**
+     * Creates a view of a cell of the given lake.
+     * @param lake Lake that stores the cell
+     * @param row Y-coordinate of the square
+     * @param column X-coordinate of the square
+     */
+    MapSquare(LakePuzzle lake, int row, int column) {
+        this.lake = lake;
+        this.index = lake.indexOf(row, column);
+        this.column = column;
+        this.row = row;
+    }
+
     /**
      * Checks if square contains any item.
      * @return true if square has an item
      */
     public boolean hasAnyItem() {
+        if (lake != null) {
+            return lake.kindAt(index) != CellKind.EMPTY;
+        }
         return this.item != null;
     }
 
@@ -37,6 +59,10 @@ public class MapSquare {
      * @throws IllegalArgumentException if square already contains an item
      */
     public void setItem(MapItem item) {
+        if (lake != null) {
+            lake.placeItem(index, item);
+            return;
+        }
         if (this.item != null) {
             throw new IllegalArgumentException("Cannot add more than one item to a square.");
         }
@@ -48,6 +74,9 @@ public class MapSquare {
      * @return Current item or null if empty
      */
     public MapItem getItem() {
+        if (lake != null) {
+            return lake.itemAt(index);
+        }
         return this.item;
     }
 
@@ -55,6 +84,10 @@ public class MapSquare {
      * Removes current item from square.
      */
     public void removeItem() {
+        if (lake != null) {
+            lake.clearItem(index);
+            return;
+        }
         this.item = null;
     }
 
@@ -64,14 +97,32 @@ public class MapSquare {
      * @return true if item matches specified type
      */
     public boolean hasItemOfType(Class<? extends MapItem> itemClass) {
+        if (lake != null) {
+            return lake.hasItemOfType(index, itemClass);
+        }
         return itemClass.isInstance(this.item);
     }
 
+    /**
+     * Gets the item kind code of the square.
+     * @return One of the CellKind codes
+     */
+    public byte getKind() {
+        if (lake != null) {
+            return lake.kindAt(index);
+        }
+        return CellKind.of(this.item);
+    }
+
     /**
      * Places researcher in square.
      * @param researcher Researcher to place
      */
     public void setResearcher(Researcher researcher) {
+        if (lake != null) {
+            lake.placeResearcher(index, researcher);
+            return;
+        }
         this.currentResearcher = researcher;
     }
 
@@ -80,6 +131,9 @@ public class MapSquare {
      * @return Current researcher or null if empty
      */
     public Researcher getResearcher() {
+        if (lake != null) {
+            return lake.researcherAt(index);
+        }
         return this.currentResearcher;
     }
 
@@ -87,6 +141,10 @@ public class MapSquare {
      * Removes current researcher from square.
      */
     public void removeResearcher() {
+        if (lake != null) {
+            lake.clearResearcher(index);
+            return;
+        }
         this.currentResearcher = null;
     }
 
@@ -95,7 +153,7 @@ public class MapSquare {
      * @return true if square has a researcher
      */
     public boolean hasResearcher() {
-        return this.currentResearcher != null;
+        return getResearcher() != null;
     }
 
     /**
@@ -111,8 +169,15 @@ public class MapSquare {
      * @return HazardItem if square contains one, null otherwise
      */
     public HazardItem getHazard() {
-        if (this.item instanceof HazardItem) {
-            return (HazardItem) this.item;
+        if (lake != null) {
+            byte kind = lake.kindAt(index);
+            if (kind != CellKind.OTHER && (kind < CellKind.ICE_BLOCK || kind > CellKind.CLIFF_EDGE)) {
+                return null;
+            }
+        }
+        MapItem currentItem = getItem();
+        if (currentItem instanceof HazardItem) {
+            return (HazardItem) currentItem;
         }
         return null;
     }
@@ -123,16 +188,18 @@ public class MapSquare {
      */
     @Override
     public String toString() {
-        if (this.hasResearcher()) {
-            if (this.hasAnyItem()) {
-                return this.currentResearcher.toString().toUpperCase() + "-" + this.item.toString().toUpperCase();
+        Researcher researcher = getResearcher();
+        String itemText = lake != null ? lake.itemSymbol(index) : (this.item != null ? this.item.toString() : null);
+        if (researcher != null) {
+            if (itemText != null) {
+                return researcher.toString().toUpperCase() + "-" + itemText.toUpperCase();
             } else {
-                return " " + this.currentResearcher.toString().toUpperCase() + "  ";
+                return " " + researcher.toString().toUpperCase() + "  ";
             }
-        } else if (this.hasAnyItem()) {
-            return " " + this.item.toString().toUpperCase() + "  ";
+        } else if (itemText != null) {
+            return " " + itemText.toUpperCase() + "  ";
         } else {
             return "     ";
         }
     }
-}
\ No newline at end of file
+}
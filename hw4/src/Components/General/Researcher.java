@@ -10,10 +10,8 @@ import exceptions.UnavailableDirectionException;
 import Components.Interfaces.Equipment;
 import Components.Hazards.HazardEnum;
 import Components.Hazards.HazardItem;
-import Components.Hazards.IceBlockItem;
 import exceptions.UnavailableEquipmentException;
 
-import java.util.ArrayList;
 import java.util.Set;
 
 /**
@@ -24,6 +22,7 @@ public class Researcher extends MapItem {
 
 
     private boolean isAlive = true;
+    private HazardEnum causeOfDeath;
 
     public boolean researcherAlive(){
         return isAlive;
@@ -47,6 +46,23 @@ public class Researcher extends MapItem {
         isAlive = false;
     }
 
+    /**
+     * Kills the researcher and records the hazard that caused it.
+     * @param cause the hazard the researcher stopped on without the matching equipment.
+     */
+    public void kill(HazardEnum cause){
+        isAlive = false;
+        causeOfDeath = cause;
+    }
+
+    /**
+     * Retrieves the hazard that killed the researcher.
+     * @return the hazard, or null if the researcher is alive or the cause is not known.
+     */
+    public HazardEnum getCauseOfDeath() {
+        return causeOfDeath;
+    }
+
     /**
      * Constructs a Researcher with a unique ID.
      * @param id the unique identifier for the researcher. Must be greater than 0.
@@ -104,6 +120,14 @@ public class Researcher extends MapItem {
         return equipmentBag.getEquipmentSet();
     }
 
+    /**
+     * Retrieves the Zobrist hash of the researcher's bag contents.
+     * @return the content hash of the bag, 0 if the bag is empty.
+     */
+    public long getBagHash() {
+        return equipmentBag.getContentHash();
+    }
+
     /**
      * Retrieves a specific piece of equipment by index.
      * @param index the index of the equipment to retrieve.
@@ -144,91 +168,35 @@ public class Researcher extends MapItem {
      * Moves the researcher in the specified direction on the map.
      * @param DirectionInput the direction to move ("U" for up, "D" for down, "L" for left, "R" for right).
      * @param map the game map.
-     * @return the updated game map after the movement.
+     * @return the square where the researcher stopped.
      * @throws UnavailableDirectionException if the move is invalid or blocked by an obstacle.
      */
-    public ArrayList<ArrayList<MapSquare>> move(String DirectionInput, LakePuzzle map) throws UnavailableDirectionException {
+    public MapSquare move(String DirectionInput, LakePuzzle map) throws UnavailableDirectionException {
         // Find current position
-        ArrayList<ArrayList<MapSquare>> gameMap = map.getMap();
-        int currentRow = -1;
-        int currentCol = -1;
-        for (int i = 0; i < gameMap.size(); i++) {
-            for (int j = 0; j < gameMap.get(i).size(); j++) {
-                if (gameMap.get(i).get(j).getResearcher() != null && gameMap.get(i).get(j).getResearcher().equals(this)) {
-                    currentRow = i;
-                    currentCol = j;
-                    break;
-                }
-            }
-            if (currentRow != -1) break;
-        }
-
-        // Define direction vectors
-        int rowChange = 0;
-        int colChange = 0;
-        switch (DirectionInput) {
-            case "U": rowChange = -1; break;
-            case "D": rowChange = 1; break;
-            case "L": colChange = -1; break;
-            case "R": colChange = 1; break;
+        MapSquare currentSquare = map.findResearcherSquare(this);
+        int[] position = currentSquare.getPosition();
+        Direction direction = Direction.fromCode(DirectionInput);
+        if (direction == null) {
+            throw new UnavailableDirectionException("Cannot move in that direction");
         }
 
-        // Check first move
-        int nextRow = currentRow + rowChange;
-        int nextCol = currentCol + colChange;
-
-        if (nextRow < 0 || nextRow >= gameMap.size() ||
-                nextCol < 0 || nextCol >= gameMap.get(0).size() ||
-                gameMap.get(nextRow).get(nextCol).getResearcher() != null ||
-                (gameMap.get(nextRow).get(nextCol).getItem() != null &&
-                        (gameMap.get(nextRow).get(nextCol).getItem().getClass() == IceBlockItem.class ||
-                                gameMap.get(nextRow).get(nextCol).getItem().getClass() == WallItem.class ||
-                                gameMap.get(nextRow).get(nextCol).getItem().getClass() == EntranceItem.class))) {
+        // Look up where the slide stops
+        int destination = map.getSlideDestination(position[1], position[0], direction);
+        if (destination < 0) {
             throw new UnavailableDirectionException("Cannot move in that direction");
         }
 
-        // Continue moving until hitting obstacle or edge
-        int finalRow = currentRow;
-        int finalCol = currentCol;
-
-        while (true) {
-            int testRow = finalRow + rowChange;
-            int testCol = finalCol + colChange;
-
-            if (testRow < 0 || testRow >= gameMap.size() ||
-                    testCol < 0 || testCol >= gameMap.get(0).size()) {
-                break;
-            } else if (gameMap.get(testRow).get(testCol).hasResearcher()) {
-                break;
-            } else if (gameMap.get(testRow).get(testCol).getItem() != null) {
-                MapItem item = gameMap.get(testRow).get(testCol).getItem();
-                if (item instanceof HazardItem) {
-                    if (((HazardItem) item).getHazardEnum() == HazardEnum.IceBlock) {
-                        break;
-                    } else {
-                        ((HazardItem) item).interact(this, map);
-                        finalRow = testRow;
-                        finalCol = testCol;
-                        break;
-                    }
-                } else if (item instanceof Equipment) {
-                    finalRow = testRow;
-                    finalCol = testCol;
-                    break;
-                } else {
-                    break;
-                }
-            }
-
-            finalRow = testRow;
-            finalCol = testCol;
+        // Interact with the hazard the researcher stops on
+        if (CellKind.isDangerousHazard(map.kindAt(destination))) {
+            ((HazardItem) map.itemAt(destination)).interact(this, map);
         }
 
         // Update map
-        gameMap.get(finalRow).get(finalCol).setResearcher(this);
-        gameMap.get(currentRow).get(currentCol).removeResearcher();
+        MapSquare destinationSquare = map.squareAt(destination);
+        destinationSquare.setResearcher(this);
+        currentSquare.removeResearcher();
 
-        return gameMap;
+        return destinationSquare;
     }
 
     /**
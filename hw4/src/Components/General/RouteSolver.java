@@ -0,0 +1,274 @@
+package Components.General;
+
+import Components.HazardEquipments.HazardEquipmentItem;
+import Components.Hazards.HazardEnum;
+import Components.Interfaces.Equipment;
+import Components.Interfaces.RouteTarget;
+import Components.ResearchEquipmentItems.ResearchEquipmentItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The RouteSolver class finds the shortest sequence of slides that takes a researcher to a target square.
+ * Hazards are handled exactly as HazardItem.interact handles them: stopping on a hole, ice spike or cliff edge
+ * uses up one piece of the matching hazard equipment, after which a hole is covered by the wooden board, an ice
+ * spike is gone and a cliff edge holds the climbing equipment; without matching equipment the researcher dies,
+ * so routes never stop on such a hazard. The square the researcher starts on is free once they leave it.
+ *
+ * The search is a breadth-first search over states packed into a long: the cell in the low 32 bits and, in the
+ * high bits, the id of the set of hazards neutralized so far. The remaining equipment follows from that set, and
+ * the sets are interned, so two routes that neutralized the same hazards in a different order meet in the same
+ * state. Visited states are kept in an open-addressing set of primitive longs, and slides are looked up in the
+ * lake's slide tables, corrected for removed spikes and the vacated starting square.
+ */
+public final class RouteSolver {
+
+    private static final int BOARD = 0;
+    private static final int HELMET = 1;
+    private static final int CLIMBING = 2;
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private RouteSolver() {
+    }
+
+    /**
+     * Creates a target for the squares where a piece of research equipment can be used.
+     *
+     * @param equipment The research equipment.
+     * @return The target.
+     */
+    public static RouteTarget usableBy(ResearchEquipmentItem equipment) {
+        return (lake, row, col) -> lake.isExperimentCell(equipment, row, col);
+    }
+
+    /**
+     * Creates a target for the square in front of the entrance, where researchers leave the lake.
+     *
+     * @return The target.
+     */
+    public static RouteTarget entranceSquare() {
+        return LakePuzzle::isEntranceSquare;
+    }
+
+    /**
+     * Finds the shortest route of a researcher on the lake to a target, using the equipment in their bag.
+     * A researcher who is not on the lake starts from the entrance square.
+     *
+     * @param lake The lake.
+     * @param researcher The researcher.
+     * @param target The squares to reach.
+     * @return The slides of the route, empty if the researcher already stands on a target square,
+     *         or null if no target square can be reached alive.
+     */
+    public static List<Direction> findRoute(LakePuzzle lake, Researcher researcher, RouteTarget target) {
+        int index = lake.findResearcherIndex(researcher);
+        int[] start = index >= 0 ? new int[]{index % lake.getMapSize()[0], index / lake.getMapSize()[0]}
+                : lake.getEntrancePosition();
+        return findRoute(lake, start[1], start[0], researcher.getEquipmentSet(), target);
+    }
+
+    /**
+     * Finds the shortest route from a square to a target with the given equipment.
+     *
+     * @param lake The lake.
+     * @param row The row index of the starting square.
+     * @param col The column index of the starting square.
+     * @param equipment The equipment the researcher carries; only hazard equipment matters.
+     * @param target The squares to reach.
+     * @return The slides of the route, empty if the starting square is a target square,
+     *         or null if no target square can be reached alive.
+     * @throws IndexOutOfBoundsException if the starting square is outside the lake.
+     */
+    public static List<Direction> findRoute(LakePuzzle lake, int row, int col, Collection<? extends Equipment> equipment,
+                                            RouteTarget target) {
+        int[] size = lake.getMapSize();
+        if (row < 0 || row >= size[1] || col < 0 || col >= size[0]) {
+            throw new IndexOutOfBoundsException("The starting square is outside the lake.");
+        }
+        int[] carried = new int[3];
+        for (Equipment item : equipment) {
+            if (item instanceof HazardEquipmentItem) {
+                HazardEnum hazard = ((HazardEquipmentItem) item).getHazardEnum();
+                if (hazard == HazardEnum.Holl) {
+                    carried[BOARD]++;
+                } else if (hazard == HazardEnum.IceSpike) {
+                    carried[HELMET]++;
+                } else if (hazard == HazardEnum.Clifedge) {
+                    carried[CLIMBING]++;
+                }
+            }
+        }
+        return new Search(lake, row * size[0] + col, carried).run(target);
+    }
+
+    private static int equipmentFor(byte kind) {
+        return kind == CellKind.HOLE ? BOARD : kind == CellKind.SPIKE ? HELMET : CLIMBING;
+    }
+
+    /**
+     * The state of one search: the interned sets of neutralized hazards and the queue of visited states.
+     */
+    private static final class Search {
+        private final LakePuzzle lake;
+        private final int columns;
+        private final int cellCount;
+        private final int origin;
+        private final boolean originVacated;
+        private final List<int[]> neutralizedSets = new ArrayList<>();
+        private final List<int[]> remainingEquipment = new ArrayList<>();
+        private final Map<List<Integer>, Integer> setIds = new HashMap<>();
+        private final LongHashSet visited = new LongHashSet(256);
+        private long[] states = new long[256];
+        private int[] parents = new int[256];
+        private byte[] moves = new byte[256];
+        private int size;
+
+        private Search(LakePuzzle lake, int origin, int[] carried) {
+            this.lake = lake;
+            int[] mapSize = lake.getMapSize();
+            this.columns = mapSize[0];
+            this.cellCount = mapSize[0] * mapSize[1];
+            this.origin = origin;
+            this.originVacated = lake.researcherAt(origin) != null;
+            neutralizedSets.add(new int[0]);
+            remainingEquipment.add(carried);
+            setIds.put(Collections.emptyList(), 0);
+        }
+
+        private List<Direction> run(RouteTarget target) {
+            if (target.isReached(lake, origin / columns, origin % columns)) {
+                return new ArrayList<>();
+            }
+            enqueue(origin, -1, (byte) 0);
+            for (int head = 0; head < size; head++) {
+                long state = states[head];
+                int cell = (int) state;
+                int setId = (int) (state >>> 32);
+                int[] neutralized = neutralizedSets.get(setId);
+                for (int d = 0; d < 4; d++) {
+                    int destination = slide(cell, DIRECTIONS[d], neutralized);
+                    if (destination < 0) {
+                        continue;
+                    }
+                    int nextSet = setId;
+                    byte kind = lake.kindAt(destination);
+                    if (CellKind.isDangerousHazard(kind) && !contains(neutralized, destination)) {
+                        int type = equipmentFor(kind);
+                        if (remainingEquipment.get(setId)[type] == 0) {
+                            continue; // the researcher would die here
+                        }
+                        nextSet = withNeutralized(setId, destination, type);
+                    }
+                    long next = (long) nextSet << 32 | destination;
+                    if (!visited.add(next)) {
+                        continue;
+                    }
+                    enqueue(next, head, (byte) d);
+                    if (!CellKind.isDangerousHazard(kind)
+                            && target.isReached(lake, destination / columns, destination % columns)) {
+                        return path(size - 1);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Finds where a slide stops on the lake as changed by the route so far. The lake's own slide tables are
+         * followed and then corrected: a slide that stops on a removed ice spike goes on, and a slide that stops
+         * in front of the vacated starting square goes on across it.
+         *
+         * @param from The packed index of the starting cell.
+         * @param direction The direction of the slide.
+         * @param neutralized The hazards neutralized so far, sorted.
+         * @return The packed index of the cell where the slide stops, or -1 if the first step is blocked.
+         */
+        private int slide(int from, Direction direction, int[] neutralized) {
+            int current = from;
+            while (true) {
+                int stop = lake.getSlideDestination(current / columns, current % columns, direction);
+                if (stop < 0) {
+                    stop = current;
+                } else if (lake.kindAt(stop) == CellKind.SPIKE && contains(neutralized, stop)) {
+                    current = stop;
+                    continue;
+                } else if (CellKind.stopsSlide(lake.kindAt(stop))) {
+                    return stop;
+                }
+                int ahead = step(stop, direction);
+                if (originVacated && ahead == origin && ahead != from) {
+                    if (CellKind.stopsSlide(lake.kindAt(ahead))) {
+                        return ahead;
+                    }
+                    current = ahead;
+                    continue;
+                }
+                return stop == from ? -1 : stop;
+            }
+        }
+
+        private int step(int cell, Direction direction) {
+            int row = cell / columns + direction.getRowChange();
+            int col = cell % columns + direction.getColumnChange();
+            if (row < 0 || col < 0 || col >= columns || row * columns + col >= cellCount) {
+                return -1;
+            }
+            return row * columns + col;
+        }
+
+        private int withNeutralized(int setId, int cell, int type) {
+            int[] current = neutralizedSets.get(setId);
+            int[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = cell;
+            Arrays.sort(next);
+            List<Integer> key = new ArrayList<>(next.length);
+            for (int value : next) {
+                key.add(value);
+            }
+            Integer id = setIds.get(key);
+            if (id == null) {
+                id = neutralizedSets.size();
+                int[] remaining = remainingEquipment.get(setId).clone();
+                remaining[type]--;
+                neutralizedSets.add(next);
+                remainingEquipment.add(remaining);
+                setIds.put(key, id);
+            }
+            return id;
+        }
+
+        private static boolean contains(int[] sorted, int cell) {
+            return sorted.length > 0 && Arrays.binarySearch(sorted, cell) >= 0;
+        }
+
+        private void enqueue(long state, int parent, byte move) {
+            if (size == states.length) {
+                states = Arrays.copyOf(states, size * 2);
+                parents = Arrays.copyOf(parents, size * 2);
+                moves = Arrays.copyOf(moves, size * 2);
+            }
+            if (parent < 0) {
+                visited.add(state);
+            }
+            states[size] = state;
+            parents[size] = parent;
+            moves[size] = move;
+            size++;
+        }
+
+        private List<Direction> path(int last) {
+            List<Direction> route = new ArrayList<>();
+            for (int i = last; parents[i] >= 0; i = parents[i]) {
+                route.add(DIRECTIONS[moves[i]]);
+            }
+            Collections.reverse(route);
+            return route;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package Components.General;
+
+/**
+ * The Zobrist class supplies the random keys of the game state hash. The hash of a state is the XOR of the keys
+ * of its parts: the kind of every non-empty cell, every researcher with their cell, every piece of equipment in
+ * a bag and every pending goal. Changing one part changes the hash by XOR-ing out the old key and XOR-ing in
+ * the new one, so the hash is kept up to date in constant time per change.
+ *
+ * Keys are not stored in tables but computed by mixing the part's coordinates with the SplitMix64 finalizer,
+ * so they cost a few multiplications, need no memory for lakes of any size and are the same in every run.
+ * Each kind of part has its own salt, so a cell key never cancels a researcher or equipment key.
+ */
+public final class Zobrist {
+
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final long CELL_SALT = 0x1F3D5B79A2C4E6F8L;
+    private static final long RESEARCHER_SALT = 0x6A09E667F3BCC909L;
+    private static final long EQUIPMENT_SALT = 0xBB67AE8584CAA73BL;
+    private static final long GOAL_SALT = 0x3C6EF372FE94F82BL;
+    private static final long BAG_SALT = 0xA54FF53A5F1D36F1L;
+
+    private Zobrist() {
+    }
+
+    /**
+     * Retrieves the key of a cell holding an item of the given kind.
+     *
+     * @param index The packed cell index.
+     * @param kind The CellKind code of the cell.
+     * @return The key, 0 for an empty cell.
+     */
+    public static long cell(int index, byte kind) {
+        return kind == CellKind.EMPTY ? 0 : mix(CELL_SALT + index * GOLDEN + kind);
+    }
+
+    /**
+     * Retrieves the key of a researcher standing in a cell.
+     *
+     * @param index The packed cell index.
+     * @param researcherId The ID of the researcher.
+     * @return The key.
+     */
+    public static long researcher(int index, int researcherId) {
+        return mix(mix(RESEARCHER_SALT + index * GOLDEN) + researcherId);
+    }
+
+    /**
+     * Retrieves the key of a bag holding a number of pieces of one kind of equipment. Going from n to n + 1
+     * pieces XORs out the key of n and XORs in the key of n + 1, so two identical pieces do not cancel out.
+     *
+     * @param code The code of the equipment, such as "cm".
+     * @param count The number of pieces in the bag.
+     * @return The key, 0 for no pieces.
+     */
+    public static long equipment(String code, int count) {
+        return count == 0 ? 0 : mix(mix(EQUIPMENT_SALT + code.hashCode() * GOLDEN) + count);
+    }
+
+    /**
+     * Retrieves the key of a pending research goal.
+     *
+     * @param code The code of the goal's equipment.
+     * @return The key.
+     */
+    public static long goal(String code) {
+        return mix(GOAL_SALT + code.hashCode() * GOLDEN);
+    }
+
+    /**
+     * Combines the content hash of a bag with its owner, so the same contents in different bags hash differently.
+     *
+     * @param ownerId The ID of the researcher carrying the bag, or 0 for the equipment storage.
+     * @param contentHash The content hash of the bag.
+     * @return The key of the bag.
+     */
+    public static long bag(int ownerId, long contentHash) {
+        return contentHash == 0 ? 0 : mix(mix(BAG_SALT + ownerId * GOLDEN) ^ contentHash);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -47,7 +47,7 @@ public class CliffEdgeItem extends HazardItem {
                     currentSquare.removeItem();
                     currentSquare.setItem(((HazardEquipmentItem) currentEquipment));
                     researcher.removeEquipment(currentEquipment);
-                    System.out.println(researcher.bagText());
+                    map.getOutput().println(researcher.bagText());
                     isPlayerKilled = false;
                     break;
                 }
@@ -57,7 +57,7 @@ public class CliffEdgeItem extends HazardItem {
         // If no equipment was found, the researcher "dies"
         if (isPlayerKilled) {
 
-            researcher.kill();
+            researcher.kill(this.getHazardEnum());
         }
     }
 
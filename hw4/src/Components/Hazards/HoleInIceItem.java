@@ -45,11 +45,11 @@ public class HoleInIceItem extends HazardItem {
             if (currentEquipment instanceof HazardEquipmentItem) {
                 // Check if the equipment matches the hazard
                 if (((HazardEquipmentItem) currentEquipment).getHazardEnum() == this.getHazardEnum()) {
-                    System.out.println(((HazardEquipmentItem) currentEquipment).warning());
+                    map.getOutput().println(((HazardEquipmentItem) currentEquipment).warning());
                     currentSquare.removeItem();
                     currentSquare.setItem(((HazardEquipmentItem) currentEquipment));
                     researcher.removeEquipment(currentEquipment);
-                    System.out.println(researcher.bagText());
+                    map.getOutput().println(researcher.bagText());
                     isPlayerKilled = false;
                     break;
                 }
@@ -58,7 +58,7 @@ public class HoleInIceItem extends HazardItem {
 
         // If no equipment was found, the researcher "dies"
         if (isPlayerKilled == true) {
-            researcher.kill();
+            researcher.kill(this.getHazardEnum());
         }
     }
 
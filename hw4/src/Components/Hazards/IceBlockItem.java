@@ -28,7 +28,7 @@ public class IceBlockItem extends HazardItem {
     @Override
     public void interact(Researcher researcher , LakePuzzle map) {
         // Example interaction: Display a message indicating the researcher encountered the hazard
-        System.out.println("Researcher " + researcher.getId() + " encountered an Ice Block!");
+        map.getOutput().println("Researcher " + researcher.getId() + " encountered an Ice Block!");
 
         // Equipment check could be added here
         // researcher.useEquipment(); // Appropriate method to use equipment could be called here
@@ -46,7 +46,7 @@ public class IceSpikeItem extends HazardItem {
                     ((HazardEquipmentItem) currentEquipment).warning();
                     currentSquare.removeItem();
                     researcher.removeEquipment(currentEquipment);
-                    System.out.println(researcher.bagText());
+                    map.getOutput().println(researcher.bagText());
                     isPlayerKilled = false;
                     break;
                 }
@@ -55,7 +55,7 @@ public class IceSpikeItem extends HazardItem {
 
         // If no equipment was found, the researcher "dies"
         if (isPlayerKilled) {
-            researcher.kill();
+            researcher.kill(this.getHazardEnum());
         }
     }
 
@@ -0,0 +1,73 @@
+package Components.Interfaces;
+
+/**
+ * The GameOutput interface is where the game writes the text meant for the player: menus, messages of hazards
+ * and equipment, and the printed map. The console game writes to standard output; simulations and other
+ * headless runs use SILENT, which drops every message.
+ */
+public interface GameOutput {
+
+    /**
+     * Writes to standard output.
+     */
+    GameOutput CONSOLE = new GameOutput() {
+        @Override
+        public void print(String text) {
+            System.out.print(text);
+        }
+
+        @Override
+        public void println(String text) {
+            System.out.println(text);
+        }
+    };
+
+    /**
+     * Drops every message.
+     */
+    GameOutput SILENT = new GameOutput() {
+        @Override
+        public void print(String text) {
+        }
+
+        @Override
+        public void println(String text) {
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+    };
+
+    /**
+     * Writes a text.
+     *
+     * @param text The text to write.
+     */
+    void print(String text);
+
+    /**
+     * Writes a text followed by a line break.
+     *
+     * @param text The text to write.
+     */
+    void println(String text);
+
+    /**
+     * Writes a line break.
+     */
+    default void println() {
+        println("");
+    }
+
+    /**
+     * Checks whether anything written is shown, so callers can skip building long texts, such as the map,
+     * that would be dropped anyway.
+     *
+     * @return true if the output shows what is written.
+     */
+    default boolean isEnabled() {
+        return true;
+    }
+}
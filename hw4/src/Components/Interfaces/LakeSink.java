@@ -0,0 +1,23 @@
+package Components.Interfaces;
+
+import Components.General.LakePuzzle;
+
+import java.io.IOException;
+
+/**
+ * The LakeSink interface receives the lakes produced by batch generation, one at a time.
+ * Lakes are handed over from several worker threads at once, and the lake object is reused for the next
+ * lake as soon as accept returns, so an implementation must be thread-safe and must copy or write out
+ * whatever it needs before returning.
+ */
+public interface LakeSink {
+
+    /**
+     * Receives a generated lake.
+     *
+     * @param hash The canonical hash of the lake.
+     * @param lake The lake, valid only until this method returns.
+     * @throws IOException if the lake cannot be written out; generation stops with the error.
+     */
+    void accept(long hash, LakePuzzle lake) throws IOException;
+}
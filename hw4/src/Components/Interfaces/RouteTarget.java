@@ -0,0 +1,20 @@
+package Components.Interfaces;
+
+import Components.General.LakePuzzle;
+
+/**
+ * The RouteTarget interface describes the squares a route search is looking for,
+ * such as the squares where a piece of research equipment can be used or the entrance square.
+ */
+public interface RouteTarget {
+
+    /**
+     * Checks whether a researcher standing at the given position has reached the target.
+     *
+     * @param lake The lake being searched.
+     * @param row The row index of the position.
+     * @param col The column index of the position.
+     * @return true if the position is a target square.
+     */
+    boolean isReached(LakePuzzle lake, int row, int col);
+}
@@ -1,11 +1,10 @@
 package Components.ResearchEquipmentItems;
 
+import Components.General.CellKind;
+import Components.General.Direction;
 import Components.General.LakePuzzle;
 import Components.General.MapSquare;
 import Components.General.Researcher;
-import Components.Hazards.CliffEdgeItem;
-import Components.Hazards.HazardItem;
-import Components.Interfaces.Hazard;
 import exceptions.IncompatibleResearchEquipmentLocationException;
 
 /**
@@ -33,52 +32,15 @@ public class CameraItem extends ResearchEquipmentItem  {
      * @param researcher The researcher using the camera.
      */
     public void use(LakePuzzle map, Researcher researcher) throws IncompatibleResearchEquipmentLocationException{
-        int[] mapSize = map.getMapSize();
         MapSquare researcherSquare = map.findResearcherSquare(researcher);
         int[] position = researcherSquare.getPosition();
-        int direction = map.getCliffEdgeDirection();
-        int row = position[1];
-        int col = position[0];
-        HazardItem hazard = null;
-
-        // Loop through the map depending on the cliff edge direction
-        switch (direction) {
-            case 0: // Right
-                for (col = position[0]; col < mapSize[0]; col++) {
-                    MapSquare square = map.getMapSquare(row, col);
-                    hazard = square.getHazard();
-                    if (hazard != null) {
-                        break;
-
-                    }
-                }
-                break;
-            case 1: // Bottom
-                for (row = position[1]; row < mapSize[1]; row--) {
-                    MapSquare square = map.getMapSquare(row, col);
-                    hazard = square.getHazard();
-                    if (hazard != null) {
-                        break;
-
-                    }
-                }
-                break;
-            case 2: // Left
-                for (col = position[0]; col >= 0; col--) {
-                    MapSquare square = map.getMapSquare(row, col);
-                    hazard = square.getHazard();
-                    if (hazard != null) {
-                        break;
-
-                    }
-                }
-                break;
-            // Add more cases for other directions if necessary
+        if (!canBeUsedAt(map, position[1], position[0])) {
+            throw new IncompatibleResearchEquipmentLocationException("*** The selected research equipment is incompatible with the current location.");
         }
 
         // Simulate the camera working successfully or not
         String text = "";
-        int isWorked = (int) (Math.random() * 11);
+        int isWorked = map.getEquipmentRandom().nextInt(11);
         if (isWorked < 8) {
             isCameraStartedSuccessfully = true;
             text += "The camera start recording.";
@@ -87,16 +49,50 @@ public class CameraItem extends ResearchEquipmentItem  {
             text += " The camera failed to start recording.";
         }
 
-        // If hazard is a cliff edge, place the camera and finish the task
-        if (hazard instanceof CliffEdgeItem) {
-            researcherSquare.setItem(this);
-            researcher.removeEquipment(this);
-            super.finishTask();
-            super.setMessage("Camera Placement: "+text );
-            System.out.println("The selected research equipment has been placed in the current location.");
-        } else {
-            throw new IncompatibleResearchEquipmentLocationException("*** The selected research equipment is incompatible with the current location.");
+        // Place the camera and finish the task
+        researcherSquare.setItem(this);
+        researcher.removeEquipment(this);
+        super.finishTask();
+        super.setMessage("Camera Placement: "+text );
+        map.getOutput().println("The selected research equipment has been placed in the current location.");
+    }
+
+    /**
+     * Checks whether the camera can be placed at the given position: the square must be free and the first
+     * hazard in the direction of the cliff edge must be the cliff edge itself.
+     *
+     * @param map The map where the camera would be used.
+     * @param row The row index of the researcher's position.
+     * @param col The column index of the researcher's position.
+     * @return true if the camera can be placed at the position.
+     */
+    @Override
+    public boolean canBeUsedAt(LakePuzzle map, int row, int col) {
+        if (map.getKind(row, col) != CellKind.EMPTY) {
+            return false;
+        }
+        Direction sight;
+
+        // Look along the row or column depending on the cliff edge direction
+        switch (map.getCliffEdgeDirection()) {
+            case 0: // Right
+                sight = Direction.RIGHT;
+                break;
+            case 1: // Bottom
+                sight = Direction.DOWN;
+                break;
+            case 2: // Left
+                sight = Direction.LEFT;
+                break;
+            default:
+                return false;
+        }
+        int hazard = map.getNearestHazard(row, col, sight);
+        if (hazard < 0) {
+            return false;
         }
+        int columns = map.getMapSize()[0];
+        return map.getKind(hazard / columns, hazard % columns) == CellKind.CLIFF_EDGE;
     }
 
     /**
@@ -1,10 +1,9 @@
 package Components.ResearchEquipmentItems;
 
+import Components.General.CellKind;
 import Components.General.LakePuzzle;
 import Components.General.MapSquare;
 import Components.General.Researcher;
-import Components.Hazards.HazardItem;
-import Components.Hazards.IceBlockItem;
 import exceptions.IncompatibleResearchEquipmentLocationException;
 
 /**
@@ -28,26 +27,41 @@ public class ChiselingEquipmentItem extends ResearchEquipmentItem {
     public void use(LakePuzzle map, Researcher researcher) throws IncompatibleResearchEquipmentLocationException {
         MapSquare currentResearcherSquare = map.findResearcherSquare(researcher);
         int[] position = currentResearcherSquare.getPosition();
-        boolean isNextToIceBlock = map.isNextToIceBlock(position[1],position[0]);
 
-        // Check if the hazard is an IceBlockItem
-        if (isNextToIceBlock) {
-            generateRandomWeight();
+        // Check if the researcher is next to an ice block
+        if (canBeUsedAt(map, position[1], position[0])) {
+            generateRandomWeight(map);
             currentResearcherSquare.setItem(this);
             researcher.removeEquipment(this);
             super.finishTask();
             super.setMessage("Glacial Sampling: "+this.weightOfSample + " gr");
-            System.out.println("The selected research equipment has been placed in the current location.");
+            map.getOutput().println("The selected research equipment has been placed in the current location.");
         } else {
             throw new IncompatibleResearchEquipmentLocationException("*** The selected research equipment is incompatible with the current location.");
         }
     }
 
+    /**
+     * Checks whether a sample can be chiseled at the given position: the square must be free and next to an
+     * ice block.
+     *
+     * @param map The map where the chiseling equipment would be used.
+     * @param row The row index of the researcher's position.
+     * @param col The column index of the researcher's position.
+     * @return true if the equipment can be used at the position.
+     */
+    @Override
+    public boolean canBeUsedAt(LakePuzzle map, int row, int col) {
+        return map.getKind(row, col) == CellKind.EMPTY && map.isNextToIceBlock(row, col);
+    }
+
     /**
      * Generates a random weight for the ice sample between 0 and 20.
+     *
+     * @param map The map whose random generator is used.
      */
-    private void generateRandomWeight() {
-        this.weightOfSample = (int) (Math.random() * 21);
+    private void generateRandomWeight(LakePuzzle map) {
+        this.weightOfSample = map.getEquipmentRandom().nextInt(21);
     }
 
     /**
@@ -25,6 +25,19 @@ public abstract class ResearchEquipmentItem extends MapItem implements Equipment
      */
     public abstract void use(LakePuzzle map, Researcher researcher) throws IncompatibleResearchEquipmentLocationException;
 
+    /**
+     * Checks whether the equipment could be used by a researcher standing at the given position.
+     * This is the location requirement checked by use, without using the equipment. The square itself must
+     * be free of items, since the equipment is left there.
+     * This method must be implemented by subclasses.
+     *
+     * @param map The map where the equipment would be used.
+     * @param row The row index of the researcher's position.
+     * @param col The column index of the researcher's position.
+     * @return true if the equipment can be used at the position.
+     */
+    public abstract boolean canBeUsedAt(LakePuzzle map, int row, int col);
+
     /**
      * Checks whether the task associated with this equipment has been accomplished.
      *
@@ -1,5 +1,6 @@
 package Components.ResearchEquipmentItems;
 
+import Components.General.CellKind;
 import Components.General.LakePuzzle;
 import Components.General.MapSquare;
 import Components.General.Researcher;
@@ -32,27 +33,42 @@ public class TemperatureDetectorItem extends ResearchEquipmentItem {
         int[] currentPosition = currentResearcherSquare.getPosition();
 
         // Check if the location is at the map's edge or near an ice block
-        if (map.isEdgeOrNextToIceBlock(currentPosition[1], currentPosition[0])) {
+        if (!canBeUsedAt(map, currentPosition[1], currentPosition[0])) {
 
             throw new IncompatibleResearchEquipmentLocationException("*** The selected research equipment is incompatible with the current location.");
         }
 
-        int temperature = generateRandomTemperature();
+        int temperature = generateRandomTemperature(map);
         currentResearcherSquare.setItem(this);
         researcher.removeEquipment(this);
         super.finishTask();
         super.setMessage("Measured temperature: " + temperature + " °C");
-        System.out.println("The selected research equipment has been placed in the current location.");
+        map.getOutput().println("The selected research equipment has been placed in the current location.");
 
     }
 
+    /**
+     * Checks whether the temperature can be measured at the given position: the square must be free and
+     * neither at the map's edge nor next to an ice block.
+     *
+     * @param map The map where the temperature detector would be used.
+     * @param row The row index of the researcher's position.
+     * @param col The column index of the researcher's position.
+     * @return true if the detector can be used at the position.
+     */
+    @Override
+    public boolean canBeUsedAt(LakePuzzle map, int row, int col) {
+        return map.getKind(row, col) == CellKind.EMPTY && !map.isEdgeOrNextToIceBlock(row, col);
+    }
+
     /**
      * Generates a random temperature value between -30 and 0 degrees Celsius.
      *
+     * @param map The map whose random generator is used.
      * @return A random temperature value.
      */
-    private int generateRandomTemperature() {
-        return (int) (Math.random() * 31) - 30; // Generates a number in the range [-30, 0]
+    private int generateRandomTemperature(LakePuzzle map) {
+        return map.getEquipmentRandom().nextInt(31) - 30; // Generates a number in the range [-30, 0]
     }
 
     /**
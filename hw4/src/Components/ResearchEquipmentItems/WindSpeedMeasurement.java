@@ -1,7 +1,6 @@
 package Components.ResearchEquipmentItems;
 
-import Components.Hazards.HazardItem;
-import Components.Hazards.IceBlockItem;
+import Components.General.CellKind;
 import Components.General.LakePuzzle;
 import Components.General.MapSquare;
 import Components.General.Researcher;
@@ -24,15 +23,16 @@ public class WindSpeedMeasurement extends ResearchEquipmentItem {
     /**
      * Generates a random wind speed between 0 and 30.
      *
+     * @param map The map whose random generator is used.
      * @return A random wind speed value.
      */
-    private int generateRandomWind() {
-        return (int) (Math.random() * 31); // Generates a number in the range [0, 30]
+    private int generateRandomWind(LakePuzzle map) {
+        return map.getEquipmentRandom().nextInt(31); // Generates a number in the range [0, 30]
     }
 
     /**
      * Uses the wind speed measurement equipment to measure the wind speed at the researcher's current location.
-     * The equipment can only be used if there is no hazard (or the hazard is an IceBlockItem).
+     * The equipment can only be used if the square holds no hazard or other item.
      *
      * @param map The map where the wind speed measurement will take place.
      * @param researcher The researcher using the wind speed measurement equipment.
@@ -40,21 +40,35 @@ public class WindSpeedMeasurement extends ResearchEquipmentItem {
     @Override
     public void use(LakePuzzle map, Researcher researcher) throws IncompatibleResearchEquipmentLocationException {
         MapSquare currentResearcherPosition = map.findResearcherSquare(researcher);
-        HazardItem hazard = currentResearcherPosition.getHazard();
+        int[] position = currentResearcherPosition.getPosition();
 
-        // Check if the location is safe for using the equipment (no hazard or ice block hazard)
-        if (hazard == null || hazard instanceof IceBlockItem) {
-            int windSpeed = generateRandomWind();
+        // Check if the location is safe for using the equipment
+        if (canBeUsedAt(map, position[1], position[0])) {
+            int windSpeed = generateRandomWind(map);
             currentResearcherPosition.setItem(this);
             researcher.removeEquipment(this);
             super.finishTask();
             super.setMessage("Wind Speed Measurement: " + windSpeed + " m/s");
-            System.out.println("The selected research equipment has been placed in the current location.");
+            map.getOutput().println("The selected research equipment has been placed in the current location.");
         } else {
             throw new IncompatibleResearchEquipmentLocationException("*** The selected research equipment is incompatible with the current location.");
         }
     }
 
+    /**
+     * Checks whether the wind speed can be measured at the given position: the square must be free of
+     * hazards and other items.
+     *
+     * @param map The map where the wind speed measurement would be used.
+     * @param row The row index of the researcher's position.
+     * @param col The column index of the researcher's position.
+     * @return true if the equipment can be used at the position.
+     */
+    @Override
+    public boolean canBeUsedAt(LakePuzzle map, int row, int col) {
+        return map.getKind(row, col) == CellKind.EMPTY;
+    }
+
     /**
      * Returns the text description of the goal associated with the wind speed measurement item.
      *
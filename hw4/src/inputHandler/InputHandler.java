@@ -2,7 +2,7 @@ package inputHandler;
 
 import java.util.Scanner;
 
-public class InputHandler {
+public class InputHandler implements PlayerInput {
     private final Scanner scanner = new Scanner(System.in);
 
     // Static method to get a string input
@@ -33,6 +33,7 @@ public class InputHandler {
         }
     }
 
+    @Override
     public String getDirectionInput(){
         String str = input("Enter direction (U for up, D for down, L for left, R for right): ");
         boolean isValid = false;
@@ -46,6 +47,7 @@ public class InputHandler {
         return str.toUpperCase();
     }
 
+    @Override
     public String getEquipmentCode(){
         String str = input("Enter the short name of an equipment:").toLowerCase();
         boolean isValid = false;
@@ -70,6 +72,7 @@ public class InputHandler {
         return str;
     }
 
+    @Override
     public String processAnswer(int id){
         String str = input("Choose the action of Researcher "+id +" : ");
         boolean isValid = false;
@@ -0,0 +1,32 @@
+package inputHandler;
+
+/**
+ * The PlayerInput interface supplies the decisions of the player to the game loop.
+ * InputHandler reads them from the console; simulations answer them with an automatic policy.
+ * Every method returns a valid answer in the format the game loop expects.
+ */
+public interface PlayerInput {
+
+    /**
+     * Asks for the direction of the next slide.
+     *
+     * @return "U", "D", "L" or "R".
+     */
+    String getDirectionInput();
+
+    /**
+     * Asks for the short name of a piece of equipment, either to take it from the storage at the entrance
+     * or to use it on the lake.
+     *
+     * @return An equipment code such as "cm" or "wb", or "no" to stop taking equipment.
+     */
+    String getEquipmentCode();
+
+    /**
+     * Asks for the next action of a researcher standing on the lake.
+     *
+     * @param id The ID of the researcher.
+     * @return "1" to move, "2" to perform an experiment or "3" to leave the lake or let the next researcher go.
+     */
+    String processAnswer(int id);
+}
@@ -0,0 +1,59 @@
+package utility;
+
+import Components.General.EquipmentBag;
+import Components.General.LakePuzzle;
+import Components.General.Researcher;
+import Components.Interfaces.Equipment;
+import Components.ResearchEquipmentItems.ResearchEquipmentItem;
+
+import java.util.Set;
+
+/**
+ * The DecisionPolicy interface makes the decisions of an automatic player, so GameSimulator can play whole games
+ * without a person at the console. Each method sees the parts of the game the decision depends on and returns
+ * an answer in the same format as InputHandler. The collections belong to the game and must not be changed.
+ */
+public interface DecisionPolicy {
+
+    /**
+     * Chooses the next piece of equipment the researcher at the entrance takes from the storage.
+     *
+     * @param researcher The researcher at the entrance.
+     * @param storage The equipment storage.
+     * @param goals The research goals that are not accomplished yet.
+     * @return The code of a piece of equipment in the storage, or "no" to head out to the lake.
+     */
+    String chooseEquipment(Researcher researcher, EquipmentBag<Equipment> storage, Set<ResearchEquipmentItem> goals);
+
+    /**
+     * Chooses the next action of a researcher standing on the lake.
+     *
+     * @param lake The lake.
+     * @param researcher The researcher.
+     * @param goals The research goals that are not accomplished yet.
+     * @return MOVE, PERFORM_EXPERIMENT, or SIT_OR_EXIT to leave the lake or let the next researcher go.
+     */
+    GameAction chooseAction(LakePuzzle lake, Researcher researcher, Set<ResearchEquipmentItem> goals);
+
+    /**
+     * Chooses the direction of the next slide, after chooseAction returned MOVE or when a researcher who just
+     * headed out makes their first slide, which the game does not ask an action for. It is asked again
+     * if the slide is blocked.
+     *
+     * @param lake The lake.
+     * @param researcher The researcher.
+     * @param goals The research goals that are not accomplished yet.
+     * @return "U", "D", "L" or "R".
+     */
+    String chooseDirection(LakePuzzle lake, Researcher researcher, Set<ResearchEquipmentItem> goals);
+
+    /**
+     * Chooses the research equipment to use, after chooseAction returned PERFORM_EXPERIMENT.
+     *
+     * @param lake The lake.
+     * @param researcher The researcher.
+     * @param goals The research goals that are not accomplished yet.
+     * @return The code of a piece of research equipment in the researcher's bag.
+     */
+    String chooseExperiment(LakePuzzle lake, Researcher researcher, Set<ResearchEquipmentItem> goals);
+}
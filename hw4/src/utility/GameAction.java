@@ -0,0 +1,45 @@
+package utility;
+
+/**
+ * The GameAction enum lists the choices offered to a researcher who stopped safely on the lake, with the
+ * answer the player types at the console for each.
+ */
+public enum GameAction {
+    /** [1] Continue moving on the ice. */
+    MOVE("1"),
+    /** [2] Choose experiment equipment and perform an experiment. */
+    PERFORM_EXPERIMENT("2"),
+    /** [3] Sit on the ground and let the other researchers head out, or exit the map at the entrance. */
+    SIT_OR_EXIT("3");
+
+    private static final GameAction[] VALUES = values();
+
+    private final String code;
+
+    GameAction(String code) {
+        this.code = code;
+    }
+
+    /**
+     * Retrieves the answer the player types for the action.
+     *
+     * @return The code of the action, such as "1".
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Finds the action for an answer of the player.
+     *
+     * @param code The answer, such as "1".
+     * @return The action, or null if the answer matches no action.
+     */
+    public static GameAction fromCode(String code) {
+        if (code == null || code.length() != 1) {
+            return null;
+        }
+        int index = code.charAt(0) - '1';
+        return index >= 0 && index < VALUES.length ? VALUES[index] : null;
+    }
+}
@@ -0,0 +1,132 @@
+package utility;
+
+import Components.General.Direction;
+
+/**
+ * The GameCommand class is one decision of the player, applied to a GameSession. Commands are created with the
+ * factory methods, one for each kind of decision the console game asks for:
+ * - selectEquipment: the researcher at the entrance takes a piece of equipment from the storage.
+ * - stopSelecting: the researcher at the entrance stops taking equipment and heads out to the lake.
+ * - move: the researcher on the lake slides in a direction.
+ * - performExperiment: the researcher on the lake uses a piece of research equipment where they stand.
+ * - sitOrExit: the researcher on the lake leaves through the entrance if they stand in front of it, or sits
+ *   down and lets the next researcher head out.
+ */
+public final class GameCommand {
+
+    /**
+     * The kinds of commands.
+     */
+    public enum Type {
+        SELECT_EQUIPMENT,
+        STOP_SELECTING,
+        MOVE,
+        PERFORM_EXPERIMENT,
+        SIT_OR_EXIT
+    }
+
+    private static final GameCommand STOP_SELECTING = new GameCommand(Type.STOP_SELECTING, null, null);
+    private static final GameCommand SIT_OR_EXIT = new GameCommand(Type.SIT_OR_EXIT, null, null);
+
+    private final Type type;
+    private final String code;
+    private final Direction direction;
+
+    private GameCommand(Type type, String code, Direction direction) {
+        this.type = type;
+        this.code = code;
+        this.direction = direction;
+    }
+
+    /**
+     * Creates a command to take a piece of equipment from the storage.
+     *
+     * @param code The code of the equipment, such as "cm".
+     * @return The command.
+     * @throws IllegalArgumentException if the code is null.
+     */
+    public static GameCommand selectEquipment(String code) {
+        if (code == null) {
+            throw new IllegalArgumentException("Equipment code cannot be null.");
+        }
+        return new GameCommand(Type.SELECT_EQUIPMENT, code, null);
+    }
+
+    /**
+     * Retrieves the command to stop taking equipment and head out to the lake.
+     *
+     * @return The command.
+     */
+    public static GameCommand stopSelecting() {
+        return STOP_SELECTING;
+    }
+
+    /**
+     * Creates a command to slide in a direction.
+     *
+     * @param direction The direction of the slide.
+     * @return The command.
+     * @throws IllegalArgumentException if the direction is null.
+     */
+    public static GameCommand move(Direction direction) {
+        if (direction == null) {
+            throw new IllegalArgumentException("Direction cannot be null.");
+        }
+        return new GameCommand(Type.MOVE, null, direction);
+    }
+
+    /**
+     * Creates a command to perform an experiment with a piece of research equipment.
+     *
+     * @param code The code of the research equipment, such as "td".
+     * @return The command.
+     * @throws IllegalArgumentException if the code is null.
+     */
+    public static GameCommand performExperiment(String code) {
+        if (code == null) {
+            throw new IllegalArgumentException("Equipment code cannot be null.");
+        }
+        return new GameCommand(Type.PERFORM_EXPERIMENT, code, null);
+    }
+
+    /**
+     * Retrieves the command to leave the lake or sit down.
+     *
+     * @return The command.
+     */
+    public static GameCommand sitOrExit() {
+        return SIT_OR_EXIT;
+    }
+
+    /**
+     * Retrieves the kind of the command.
+     *
+     * @return The type of the command.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the equipment code of a SELECT_EQUIPMENT or PERFORM_EXPERIMENT command.
+     *
+     * @return The code, or null for other commands.
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Retrieves the direction of a MOVE command.
+     *
+     * @return The direction, or null for other commands.
+     */
+    public Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public String toString() {
+        return code != null ? type + " " + code : direction != null ? type + " " + direction : type.toString();
+    }
+}
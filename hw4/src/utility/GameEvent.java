@@ -0,0 +1,210 @@
+package utility;
+
+import Components.Hazards.HazardEnum;
+
+/**
+ * The GameEvent class is one thing that happened in a GameSession, as a result of setting up the game or of
+ * applying a command. Events carry data instead of text for the player, so a front end decides how to show them;
+ * the console game turns them into the messages it has always printed. Which fields are set depends on the type,
+ * as described for each type; the others are null or -1.
+ */
+public final class GameEvent {
+
+    /**
+     * The kinds of events.
+     */
+    public enum Type {
+        /** The game was set up. Count: the number of researchers waiting at the entrance. */
+        GAME_STARTED,
+        /** A research goal was given. Code: the goal's equipment. Text: the goal. */
+        GOAL_ASSIGNED,
+        /** A researcher is waiting at the entrance and selects equipment. Researcher. */
+        RESEARCHER_AT_ENTRANCE,
+        /** A piece of equipment was taken from the storage. Researcher, code. */
+        EQUIPMENT_TAKEN,
+        /** The storage holds no equipment with the requested code. Code, text. */
+        EQUIPMENT_NOT_IN_STORAGE,
+        /** The equipment cannot go into the researcher's bag, or the bag cannot head out. Researcher, text. */
+        BAG_REJECTED,
+        /** The researcher stopped selecting equipment and heads out to the lake. Researcher. */
+        HEADED_OUT,
+        /** The slide is blocked. Researcher, text. */
+        DIRECTION_UNAVAILABLE,
+        /** The researcher slid and stopped. Researcher, row, column. */
+        MOVED,
+        /** The researcher used hazard equipment on the hazard they stopped on. Researcher, hazard, row, column. */
+        HAZARD_NEUTRALIZED,
+        /** The researcher stopped on a hazard without the matching equipment. Researcher, hazard, row, column. */
+        RESEARCHER_INJURED,
+        /** The researcher does not carry the requested research equipment. Researcher, code, text. */
+        EQUIPMENT_UNAVAILABLE,
+        /** The research equipment cannot be used where the researcher stands. Researcher, code, text. */
+        LOCATION_INCOMPATIBLE,
+        /** An experiment was performed and the equipment left on the lake. Researcher, code, text, row, column. */
+        EXPERIMENT_PERFORMED,
+        /** The researcher left the lake and returned their equipment to the storage. Researcher. */
+        RESEARCHER_LEFT,
+        /** The researcher sat down on the lake. Researcher. */
+        RESEARCHER_SAT,
+        /** The command cannot be applied in the current state of the game. Text. */
+        COMMAND_REJECTED,
+        /** The game is over. Outcome. */
+        GAME_FINISHED
+    }
+
+    private final Type type;
+    private final int researcherId;
+    private final String code;
+    private final String text;
+    private final int row;
+    private final int col;
+    private final int count;
+    private final HazardEnum hazard;
+    private final GameOutcome outcome;
+
+    private GameEvent(Type type, int researcherId, String code, String text, int row, int col, int count,
+                      HazardEnum hazard, GameOutcome outcome) {
+        this.type = type;
+        this.researcherId = researcherId;
+        this.code = code;
+        this.text = text;
+        this.row = row;
+        this.col = col;
+        this.count = count;
+        this.hazard = hazard;
+        this.outcome = outcome;
+    }
+
+    static GameEvent of(Type type, int researcherId) {
+        return new GameEvent(type, researcherId, null, null, -1, -1, -1, null, null);
+    }
+
+    static GameEvent withCode(Type type, int researcherId, String code, String text) {
+        return new GameEvent(type, researcherId, code, text, -1, -1, -1, null, null);
+    }
+
+    static GameEvent at(Type type, int researcherId, int row, int col, String code, String text, HazardEnum hazard) {
+        return new GameEvent(type, researcherId, code, text, row, col, -1, hazard, null);
+    }
+
+    static GameEvent started(int researchers) {
+        return new GameEvent(Type.GAME_STARTED, -1, null, null, -1, -1, researchers, null, null);
+    }
+
+    static GameEvent rejected(String text) {
+        return new GameEvent(Type.COMMAND_REJECTED, -1, null, text, -1, -1, -1, null, null);
+    }
+
+    static GameEvent finished(GameOutcome outcome) {
+        return new GameEvent(Type.GAME_FINISHED, -1, null, null, -1, -1, -1, null, outcome);
+    }
+
+    /**
+     * Retrieves the kind of the event.
+     *
+     * @return The type of the event.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Retrieves the ID of the researcher the event is about.
+     *
+     * @return The researcher's ID, or -1.
+     */
+    public int getResearcherId() {
+        return researcherId;
+    }
+
+    /**
+     * Retrieves the code of the equipment or goal the event is about.
+     *
+     * @return The code, such as "cm", or null.
+     */
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * Retrieves the text that comes with the event: the goal, the result of an experiment or why something
+     * was refused.
+     *
+     * @return The text, or null.
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Retrieves the row index of the square the event happened on.
+     *
+     * @return The row index, or -1.
+     */
+    public int getRow() {
+        return row;
+    }
+
+    /**
+     * Retrieves the column index of the square the event happened on.
+     *
+     * @return The column index, or -1.
+     */
+    public int getColumn() {
+        return col;
+    }
+
+    /**
+     * Retrieves the number that comes with the event.
+     *
+     * @return The count, or -1.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Retrieves the type of hazard the event is about.
+     *
+     * @return The hazard, or null.
+     */
+    public HazardEnum getHazard() {
+        return hazard;
+    }
+
+    /**
+     * Retrieves how the game ended.
+     *
+     * @return The outcome of a GAME_FINISHED event, or null.
+     */
+    public GameOutcome getOutcome() {
+        return outcome;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(type.toString());
+        if (researcherId >= 0) {
+            text.append(" researcher=").append(researcherId);
+        }
+        if (code != null) {
+            text.append(" code=").append(code);
+        }
+        if (row >= 0) {
+            text.append(" at=").append(row).append(',').append(col);
+        }
+        if (count >= 0) {
+            text.append(" count=").append(count);
+        }
+        if (hazard != null) {
+            text.append(" hazard=").append(hazard);
+        }
+        if (outcome != null) {
+            text.append(" outcome=").append(outcome);
+        }
+        if (this.text != null) {
+            text.append(" \"").append(this.text).append('"');
+        }
+        return text.toString();
+    }
+}
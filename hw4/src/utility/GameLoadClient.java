@@ -0,0 +1,172 @@
+package utility;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The GameLoadClient class puts load on a GameServer for local testing. It opens a number of idle connections,
+ * which only connect and start nothing, and a number of active connections, each played by its own virtual
+ * thread that sends random commands as fast as the server answers them and starts a new game whenever one ends.
+ * After the given time it reports how many commands and games were played and the average reply time.
+ *
+ * The operating system must allow two open files per connection when the server runs on the same machine,
+ * for example with ulimit -n.
+ */
+public class GameLoadClient {
+
+    private static final String[] EQUIPMENT = {"td", "ch", "cl", "ph", "wb", "cm", "ws"};
+    private static final String[] RESEARCH = {"td", "ch", "cm", "ws"};
+    private static final String[] DIRECTIONS = {"U", "D", "L", "R"};
+    private static final int MAX_COMMANDS_PER_GAME = 200;
+
+    private final int port;
+    private final LongAdder commands = new LongAdder();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder replyNanos = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private volatile boolean running = true;
+
+    /**
+     * Creates a load generator for a server on a port of the loopback interface.
+     *
+     * @param port The port of the server.
+     */
+    public GameLoadClient(int port) {
+        this.port = port;
+    }
+
+    /**
+     * Opens the connections, plays for the given time and closes them.
+     *
+     * @param idle The number of idle connections.
+     * @param active The number of connections that play.
+     * @param seconds How long to play.
+     * @param seed The seed of the random commands.
+     * @throws IOException if an idle connection cannot be opened.
+     * @throws InterruptedException if the thread is interrupted while waiting.
+     */
+    public void run(int idle, int active, int seconds, long seed) throws IOException, InterruptedException {
+        List<Socket> idleSockets = new ArrayList<>(idle);
+        try {
+            for (int i = 0; i < idle; i++) {
+                idleSockets.add(new Socket(InetAddress.getLoopbackAddress(), port));
+            }
+            SplittableRandom seeds = new SplittableRandom(seed);
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < active; i++) {
+                    SplittableRandom random = seeds.split();
+                    executor.execute(() -> play(random));
+                }
+                Thread.sleep(seconds * 1000L);
+                running = false;
+            }
+        } finally {
+            for (Socket socket : idleSockets) {
+                socket.close();
+            }
+        }
+    }
+
+    /**
+     * Plays random games on one connection until the time is up.
+     *
+     * @param random The random generator of the connection.
+     */
+    private void play(SplittableRandom random) {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            SocketLines lines = new SocketLines(socket);
+            while (running) {
+                String state = send(lines, "NEW " + random.nextLong());
+                games.increment();
+                for (int i = 0; i < MAX_COMMANDS_PER_GAME && running && !state.equals("FINISHED"); i++) {
+                    state = send(lines, nextCommand(state, random));
+                }
+            }
+            lines.write("QUIT\n");
+        } catch (IOException e) {
+            failures.increment();
+        }
+    }
+
+    private static String nextCommand(String state, SplittableRandom random) {
+        switch (state) {
+            case "ENTRANCE":
+                return random.nextInt(3) == 0 ? "STOP" : "SELECT " + EQUIPMENT[random.nextInt(EQUIPMENT.length)];
+            case "IN_LAKE": {
+                int choice = random.nextInt(10);
+                if (choice == 0) {
+                    return "SIT";
+                }
+                if (choice < 3) {
+                    return "EXPERIMENT " + RESEARCH[random.nextInt(RESEARCH.length)];
+                }
+                return "MOVE " + DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+            }
+            default:
+                return "MOVE " + DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+        }
+    }
+
+    /**
+     * Sends a command and reads its reply.
+     *
+     * @param lines The connection.
+     * @param command The command.
+     * @return The state of the game after the command.
+     * @throws IOException if the connection fails or the reply does not end with a state.
+     */
+    private String send(SocketLines lines, String command) throws IOException {
+        long start = System.nanoTime();
+        lines.write(command + "\n");
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (line.startsWith("STATE ")) {
+                replyNanos.add(System.nanoTime() - start);
+                commands.increment();
+                return line.substring(6);
+            }
+        }
+        throw new IOException("Connection closed by the server");
+    }
+
+    /**
+     * Retrieves the report of the run.
+     *
+     * @param seconds How long the run played.
+     * @return The report.
+     */
+    public String report(int seconds) {
+        long count = commands.sum();
+        return "Commands: " + count + " (" + count / Math.max(1, seconds) + " per second)\n"
+                + "Games: " + games.sum() + "\n"
+                + String.format("Average reply: %.1f us%n", count == 0 ? 0.0 : replyNanos.sum() / 1e3 / count)
+                + "Failed connections: " + failures.sum();
+    }
+
+    /**
+     * Runs a load test against a server on this machine.
+     *
+     * @param args The port, the number of idle connections, the number of active connections, the number of
+     *             seconds and the seed; defaults are GameServer.DEFAULT_PORT, 1000, 100, 10 and 1.
+     * @throws IOException if an idle connection cannot be opened.
+     * @throws InterruptedException if the main thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : GameServer.DEFAULT_PORT;
+        int idle = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int active = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        GameLoadClient client = new GameLoadClient(port);
+        client.run(idle, active, seconds, seed);
+        System.out.println(client.report(seconds));
+    }
+}
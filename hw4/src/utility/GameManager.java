@@ -1,361 +1,328 @@
 /**
- * The GameManager class is responsible for managing the main game loop and controlling the flow of the game.
- * It initializes the game components, handles user input, and manages the state transitions of the game.
- * The game involves researchers performing experiments in a lake puzzle environment.
- * 
- * The main states of the game are:
- * - "ResearcherBeforeLake": Researchers select equipment before entering the lake.
- * - "Entrance": Researchers choose equipment or proceed to the lake.
- * - "InLake": Researchers perform actions within the lake, such as moving and using equipment.
- * - "Finished": The game ends.
- * 
- * The GameManager class also handles the initialization of the lake puzzle, equipment bag, researcher queue,
- * and the generation of random experiments. It manages the researchers' actions, equipment selection, and
- * experiment completion.
- * 
- * The class contains several private helper methods to manage the game state, check equipment availability,
- * and handle researcher actions.
- * 
- * The GameMenu and ResearcherQueue inner classes provide additional functionality for displaying game menus
- * and managing the queue of researchers, respectively.
+ * The GameManager class is the console front end of a GameSession. It asks the player for each decision through
+ * a PlayerInput, turns the decision into a GameCommand, applies it to the session and prints the resulting
+ * GameEvents as the messages of the game. The rules and the state of the game live in the session.
+ *
+ * The states of the game are described by GameState.
+ *
+ * The GameMenu inner class prints the menus and messages of the game.
  */
 package utility;
 
-import Components.General.MapSquare;
+import Components.General.Direction;
 import Components.Interfaces.Equipment;
 import Components.ResearchEquipmentItems.*;
-import exceptions.*;
 
 import java.util.*;
 
 import inputHandler.InputHandler;
-import Components.General.EquipmentBag;
-import Components.General.LakePuzzle;
+import inputHandler.PlayerInput;
+import Components.Interfaces.GameOutput;
+import Components.General.DifficultyBand;
+import Components.General.LakeCatalog;
+import Components.General.LakePool;
 import Components.General.Researcher;
-import Components.HazardEquipments.ClimbingEquipment;
-import Components.HazardEquipments.LargeWoodenBoard;
-import Components.HazardEquipments.ProtectiveHelmet;
 
 public class GameManager {
 
-    private LakePuzzle lakePuzzle;
-    private ResearcherQueue researcherQueue;
-    private EquipmentBag<Equipment> equipmentBag;
-    private InputHandler inputHandler;
-    private Set<ResearchEquipmentItem> goals;
-    private Set<ResearchEquipmentItem> finishedGoals;
-    private Researcher currentResearcher;
-    private boolean isGameContinue = true;
-    private String state = "ResearcherBeforeLake";
-    private GameMenu gameMenu;
-    private boolean bypassTheProcessList = true;
+    private final GameSession session;
+    private final PlayerInput inputHandler;
+    private final GameOutput output;
+    private final GameMenu gameMenu;
+    private boolean opening;
 
     public GameManager() {
-        this.inputHandler = new InputHandler();
-        this.gameMenu = new GameMenu();
-        initilazeGame();
-        Play();
+        this(new SplittableRandom().nextLong());
     }
 
+    /**
+     * Constructs a GameManager whose lake, researchers and experiments are all derived from a seed,
+     * so the same seed always sets up the same game, and starts the game loop.
+     *
+     * @param seed The seed of the session.
+     */
+    public GameManager(long seed) {
+        this(seed, new InputHandler(), GameOutput.CONSOLE);
+    }
 
-    public void Play() {
-        while (isGameContinue) {
-            if (isFinished()) {
-                break;  // Exit the game loop if the game is finished
-            }
-            switch (state) {
-                case "ResearcherBeforeLake": {
-                    isThereEnoughItemForGoals();
-                    this.gameMenu.equipmentList();
-                    state = "Entrance";
-                    break;
+    /**
+     * Constructs a GameManager that is set up from a seed like GameManager(long), but reads the player's
+     * decisions from the given input and writes all messages and maps to the given output, and starts the
+     * game loop.
+     *
+     * @param seed The seed of the session.
+     * @param input Where the decisions of the player come from.
+     * @param output Where the messages of the game go.
+     */
+    public GameManager(long seed, PlayerInput input, GameOutput output) {
+        this(new GameSession(seed), input, output);
+        Play();
+    }
 
-                }
-                case "Entrance": {
-                    String str = inputHandler.getEquipmentCode();
-                    if (str.equals("no")) {
-                        if (currentResearcher.getEquipmentSet().isEmpty()) {
-                            try {
-                                currentResearcher.isBagEmpty();
-                            } catch (IncorrectBagContentsException e) {
-                                System.out.println(e.getMessage());
-                                continue;
-                            }
-                        } else {
-                            state = "InLake";
-                            gameMenu.resarcherBagText(1);
-                        }
-                    } else if (this.equipmentBag.isContain(str)) {
-                        Equipment newEquipment = this.equipmentBag.getEquipment(str);
-                        int status = addEquipmentToReseacher(newEquipment, currentResearcher);
-                        gameMenu.resarcherBagText(0);
-                        if (status == 200) {
-                            equipmentBag.removeEquipment(newEquipment);
-                        }
-                    } else {
-                        System.out.println("*** There no more " + str + " left in the Equipment Storage.");
-                    }
-                    break;
-                }
-                case "InLake": {
-
-                    String choice;
-                    MapSquare square = lakePuzzle.findResearcherSquare(currentResearcher);
-                    int[] position = square.getPosition();
-                    if(bypassTheProcessList == false){
-
-                        if (position[0] == 6 && position[1] == 1) {
-                            gameMenu.processList(0);
-                        } else {
-                            gameMenu.processList(1);
-                        }
-                        choice = inputHandler.processAnswer(currentResearcher.getId());
-
-                    }else {
-                        choice = "1";
-                        bypassTheProcessList = false;
-                    }
+    /**
+     * Constructs a GameManager that takes a ready-made lake from a pool instead of generating one,
+     * and starts the game loop. The researchers and experiments are derived from a random seed.
+     *
+     * @param lakePool The pool to take the lake from.
+     */
+    public GameManager(LakePool lakePool) {
+        this(new GameSession(new SplittableRandom().nextLong(), lakePool.take()), new InputHandler(),
+                GameOutput.CONSOLE);
+        Play();
+    }
 
+    /**
+     * Constructs a GameManager that takes a lake of the requested difficulty from a catalog, and starts the
+     * game loop. If the catalog has no lake of that difficulty left, a new lake is generated instead.
+     * The researchers and experiments are derived from a random seed.
+     *
+     * @param catalog The catalog to take the lake from.
+     * @param band The difficulty of the lake.
+     */
+    public GameManager(LakeCatalog catalog, DifficultyBand band) {
+        this(new GameSession(new SplittableRandom().nextLong(), catalog.take(band)), new InputHandler(),
+                GameOutput.CONSOLE);
+        Play();
+    }
 
+    /**
+     * Constructs a GameManager for a session, such as one restored by SessionCodec, without starting the
+     * game loop. Call Play to continue the session.
+     *
+     * @param session The session to play.
+     * @param input Where the decisions of the player come from.
+     * @param output Where the messages of the game go; the session's lake writes there too.
+     */
+    public GameManager(GameSession session, PlayerInput input, GameOutput output) {
+        this.session = session;
+        this.inputHandler = input;
+        this.output = output;
+        this.gameMenu = new GameMenu();
+        session.getLakePuzzle().setOutput(output);
+    }
 
 
-                    switch (choice) {
-                        case "1": {
-                            System.out.println();
-                            while (true) {
-                                String direction = inputHandler.getDirectionInput();
-                                try {
-                                    currentResearcher.move(direction, lakePuzzle);
-                                    isFinished();
-                                    lakePuzzle.printMap();
-                                    break;
-                                } catch (UnavailableDirectionException e) {
-                                    System.out.println(e.getMessage());
-                                    continue;
-                                }
-                            }
-                            break;
-                        }
-                        case "2": {
-                            try {
-                                Equipment currentEquipment = null;
-                                if (!currentResearcher.isHaveReseachItem()) {
-                                    throw new UnavailableEquipmentException("Researcher has no Experiment Equipment");
-                                }
-
-                                while (true) {
-                                    String code = inputHandler.getEquipmentCode();
-                                    try {
-                                        currentEquipment = currentResearcher.getItemWithCode(code, lakePuzzle);
-                                        ((ResearchEquipmentItem) currentEquipment).finishTask();
-                                        ((ResearchEquipmentItem) currentEquipment).use(lakePuzzle, currentResearcher);
-                                        accomplishResearch((ResearchEquipmentItem) currentEquipment);
-                                        break;
-                                    } catch (UnavailableEquipmentException e) {
-                                        System.out.println(e.getMessage());
-                                        continue;
-                                    }
-                                }
-
-                            } catch (UnavailableEquipmentException e) {
-                                System.out.println(e.getMessage());
-                                continue;
-                            } catch (IncompatibleResearchEquipmentLocationException e) {
-                                System.out.println(e.getMessage());
-                                continue;
-                            }
-                            break;
-                        }
-                        case "3": {
-                            if (position[0] == 6 && position[1] == 1) {
-                                researcherToTheEntrance(currentResearcher);
-                            } else {
-                                this.nextReseacher();
-                            }
-                            break;
-                        }
-                    }
-                    break;
+    public void Play() {
+        render(session.start());
+        while (!session.isFinished()) {
+            if (session.isSelectingEquipment()) {
+                String code = inputHandler.getEquipmentCode();
+                render(session.apply(code.equals("no") ? GameCommand.stopSelecting()
+                        : GameCommand.selectEquipment(code)));
+            } else if (session.isSlideRequired()) {
+                slide();
+            } else {
+                Researcher researcher = session.getCurrentResearcher();
+                int[] position = session.getLakePuzzle().findResearcherSquare(researcher).getPosition();
+                if (session.getLakePuzzle().isEntranceSquare(position[1], position[0])) {
+                    gameMenu.processList(0);
+                } else {
+                    gameMenu.processList(1);
                 }
-                case "Finished": {
-                    isGameContinue = false;
-                    break;
+                GameAction action = GameAction.fromCode(inputHandler.processAnswer(researcher.getId()));
+                if (action == null) {
+                    continue;
+                }
+                switch (action) {
+                    case MOVE: {
+                        slide();
+                        break;
+                    }
+                    case PERFORM_EXPERIMENT: {
+                        experiment();
+                        break;
+                    }
+                    case SIT_OR_EXIT: {
+                        render(session.apply(GameCommand.sitOrExit()));
+                        break;
+                    }
                 }
             }
         }
     }
 
-    private void initilazeGame(){
-        this.lakePuzzle = new LakePuzzle();
-        goals = new HashSet<ResearchEquipmentItem>();
-        finishedGoals = new HashSet<ResearchEquipmentItem>();
-        this.researcherQueue = new ResearcherQueue();
-        Random random = new Random();
-        int[] options = {2, 3, 4};
-        int randomChoice = options[random.nextInt(options.length)];
-
-        for (int i = 1; i <= randomChoice; i++) {
-            Researcher researcher = new Researcher(i);
-            researcherQueue.addResearcher(researcher);
+    /**
+     * Asks for directions until the researcher slides.
+     */
+    private void slide() {
+        output.println();
+        while (true) {
+            Direction direction = Direction.fromCode(inputHandler.getDirectionInput());
+            if (direction == null) {
+                output.println("Cannot move in that direction");
+                continue;
+            }
+            List<GameEvent> events = session.apply(GameCommand.move(direction));
+            render(events);
+            if (!contains(events, GameEvent.Type.DIRECTION_UNAVAILABLE)) {
+                return;
+            }
         }
-        this.equipmentBag = new EquipmentBag<>();
-        equipmentBag.addEquipment(new TemperatureDetectorItem());
-        equipmentBag.addEquipment(new TemperatureDetectorItem());
-        equipmentBag.addEquipment(new ChiselingEquipmentItem());
-        equipmentBag.addEquipment(new ChiselingEquipmentItem());
-        equipmentBag.addEquipment(new ClimbingEquipment());
-        equipmentBag.addEquipment(new ClimbingEquipment());
-        equipmentBag.addEquipment(new ProtectiveHelmet());
-        equipmentBag.addEquipment(new ProtectiveHelmet());
-        equipmentBag.addEquipment(new LargeWoodenBoard());
-        equipmentBag.addEquipment(new LargeWoodenBoard());
-        equipmentBag.addEquipment(new CameraItem());
-        equipmentBag.addEquipment(new CameraItem());
-        equipmentBag.addEquipment(new WindSpeedMeasurement());
-        equipmentBag.addEquipment(new WindSpeedMeasurement());
-
-        gameMenu.enterOfGame();
-
-        currentResearcher = researcherQueue.pop();
-
-        lakePuzzle.addResearcherToMap(currentResearcher);
-
-        lakePuzzle.printMap();
     }
 
-    private void generateRandomExperiment( int count ) {
-        int number = count;
-        ArrayList<ResearchEquipmentItem> a = new ArrayList<>(4);
-        a.add(new CameraItem());
-        a.add(new ChiselingEquipmentItem());
-        a.add(new TemperatureDetectorItem());
-        a.add(new WindSpeedMeasurement());
-
-        Random random = new Random();
-
-        for (int i = 0; i < number && !a.isEmpty(); i++) {
-            int randomIndex = random.nextInt(a.size());
-            ResearchEquipmentItem selectedItem = a.remove(randomIndex);
-            goals.add(selectedItem);
-            System.out.println(selectedItem.textOfGoal());
-
-
+    /**
+     * Asks for research equipment until the researcher carries the equipment asked for, and performs the
+     * experiment with it.
+     */
+    private void experiment() {
+        if (!session.getCurrentResearcher().isHaveReseachItem()) {
+            output.println("Researcher has no Experiment Equipment");
+            return;
         }
-
-    }
-
-    private int randomExperimentCount( ){
-        int researcherCount = researcherQueue.size();
-        Random random = new Random();
-        int choice = random.nextInt(2);
-        int selectedValue = (choice == 0) ? researcherCount : (researcherCount - 1);
-        return selectedValue;
-    }
-
-
-    private void researcherToTheEntrance(Researcher researcher){
-
-        Set<Equipment> equipments = researcher.getEquipmentSet();
-        for(Equipment currentEquipment : equipments){
-            this.equipmentBag.addEquipment(currentEquipment);
+        while (true) {
+            List<GameEvent> events = session.apply(GameCommand.performExperiment(inputHandler.getEquipmentCode()));
+            render(events);
+            if (!contains(events, GameEvent.Type.EQUIPMENT_UNAVAILABLE)) {
+                return;
+            }
         }
-        this.lakePuzzle.findResearcherSquare(researcher).removeResearcher();
-        nextReseacher();
     }
 
-    private void nextReseacher(){ 
-        if(researcherQueue.isEmpty()){
-            gameMenu.FinishedGame(3);
-        }else{
-            currentResearcher = researcherQueue.pop();
-            lakePuzzle.addResearcherToMap(currentResearcher);
-            if (!isThereEnoughItemForGoals()){
-                gameMenu.FinishedGame(2);
-                state = "Finished";
-            }else {
-                state = "ResearcherBeforeLake";
-                bypassTheProcessList = true;
+    private static boolean contains(List<GameEvent> events, GameEvent.Type type) {
+        for (GameEvent event : events) {
+            if (event.getType() == type) {
+                return true;
             }
-
-            lakePuzzle.printMap();
         }
+        return false;
     }
 
-
-    private boolean isThereEnoughItemForGoals() {
-        for (ResearchEquipmentItem goal : goals) {
-            boolean isFound = false;
-            // Her ekipmanı bir kez kontrol et
-            for (Equipment equipment : equipmentBag.getEquipmentSet()) {
-                if (equipment instanceof ResearchEquipmentItem &&
-                        equipment.getClass() == goal.getClass()) {
-                    isFound = true;
-                    break;  // Eşleşme bulundu, iç döngüden çık
+    /**
+     * Prints the messages of events.
+     *
+     * @param events The events, in the order they happened.
+     */
+    private void render(List<GameEvent> events) {
+        for (GameEvent event : events) {
+            switch (event.getType()) {
+                case GAME_STARTED: {
+                    gameMenu.enterOfGame(event.getCount(), countGoals(events));
+                    opening = true;
+                    break;
                 }
-            }
-            // Eğer bu hedef için ekipman bulunamadıysa
-            if (!isFound) {
-                return false;
+                case GOAL_ASSIGNED: {
+                    output.println(event.getText());
+                    break;
+                }
+                case RESEARCHER_AT_ENTRANCE: {
+                    if (opening) {
+                        output.println();
+                        output.println("The initial map of the frozen lake: ");
+                        opening = false;
+                    }
+                    session.getLakePuzzle().printMap();
+                    gameMenu.equipmentList();
+                    break;
+                }
+                case EQUIPMENT_TAKEN: {
+                    gameMenu.resarcherBagText(0);
+                    break;
+                }
+                case BAG_REJECTED: {
+                    output.println(event.getText());
+                    if (event.getCode() != null) {
+                        gameMenu.resarcherBagText(0);
+                    }
+                    break;
+                }
+                case HEADED_OUT: {
+                    gameMenu.resarcherBagText(1);
+                    break;
+                }
+                case MOVED: {
+                    session.getLakePuzzle().printMap();
+                    break;
+                }
+                case EQUIPMENT_NOT_IN_STORAGE:
+                case DIRECTION_UNAVAILABLE:
+                case EQUIPMENT_UNAVAILABLE:
+                case LOCATION_INCOMPATIBLE:
+                case COMMAND_REJECTED: {
+                    output.println(event.getText());
+                    break;
+                }
+                case GAME_FINISHED: {
+                    gameMenu.FinishedGame(event.getOutcome());
+                    break;
+                }
+                default:
+                    // Hazards and equipment write their own messages to the lake's output
+                    break;
             }
         }
-        return true;
     }
 
-    private void accomplishResearch(ResearchEquipmentItem item){
-        for(ResearchEquipmentItem currentItem: goals){
-            if(item.toString().equals(currentItem.toString()) && item.isAccomplish()){
-                finishedGoals.add(item);
-                goals.remove(currentItem);
-                break;
+    private static int countGoals(List<GameEvent> events) {
+        int count = 0;
+        for (GameEvent event : events) {
+            if (event.getType() == GameEvent.Type.GOAL_ASSIGNED) {
+                count++;
             }
         }
+        return count;
     }
 
-    private int addEquipmentToReseacher(Equipment equipmentItem , Researcher rs){
-        try{
-            rs.addEquipment(equipmentItem);
-            return 200;
-        }catch (IncorrectBagContentsException e){
-            System.out.println(e.getMessage());
-            return 0;
-        }
+    public boolean isFinished() {
+        return session.isFinished();
     }
 
-    public boolean isFinished() {
-        if (!currentResearcher.researcherAlive()) {
-            gameMenu.FinishedGame(0);
-            state = "Finished";  // Add this line
-            return true;
-        } else if (goals.isEmpty()) {
-            gameMenu.FinishedGame(1);
-            state = "Finished";  // Add this line
-            return true;
-        }
-        return false;
+    /**
+     * Retrieves the session the game is played in.
+     *
+     * @return The session.
+     */
+    public GameSession getSession() {
+        return session;
+    }
+
+    /**
+     * Retrieves the seed the session was set up from. Restored sessions report 0; sessions with a lake
+     * from a pool derive only their researchers and experiments from it.
+     *
+     * @return The seed of the session.
+     */
+    public long getSeed() {
+        return session.getSeed();
+    }
+
+    /**
+     * Retrieves how the game ended.
+     *
+     * @return The outcome, IN_PROGRESS while the game goes on.
+     */
+    public GameOutcome getOutcome() {
+        return session.getOutcome();
+    }
+
+    /**
+     * Retrieves the Zobrist hash of the game state.
+     *
+     * @return The hash of the current game state.
+     * @see GameSession#stateHash()
+     */
+    public long stateHash() {
+        return session.stateHash();
     }
 
     private class GameMenu{
 
 
-        private void enterOfGame(){
-            int count = randomExperimentCount();
-            System.out.println();
-            System.out.println("Welcome to Frozen Lake Puzzle App. There are "+ researcherQueue.size() +" researchers waiting at the lake entrance.");
-            System.out.println("There are "+ count +" experiment(s) that must be completed: " );
-            System.out.println();
-            generateRandomExperiment(count);
-            System.out.println();
-            System.out.println("The initial map of the frozen lake: ");
+        private void enterOfGame(int researchers, int count){
+            output.println();
+            output.println("Welcome to Frozen Lake Puzzle App. There are "+ researchers +" researchers waiting at the lake entrance.");
+            output.println("There are "+ count +" experiment(s) that must be completed: " );
+            output.println();
         }
 
 
 
         private void equipmentList() {
-            System.out.println("=====> Researcher " + currentResearcher.getId() +
+            Researcher currentResearcher = session.getCurrentResearcher();
+            output.println("=====> Researcher " + currentResearcher.getId() +
                     " starts waiting at the entrance and can select up to 3 pieces of equipment of the same type. Here are the shorter notations of the equipments:");
 
             ArrayList<Equipment> tempory = new ArrayList<>();
-            for (Equipment e : equipmentBag.getEquipmentSet()) {
+            for (Equipment e : session.getEquipmentBag().getEquipmentSet()) {
                 boolean alreadyAdded = false;
 
                 // Check if the equipment type already exists in the temporary list
@@ -374,24 +341,25 @@ public class GameManager {
 
             // Print the filtered list
             for (Equipment e : tempory) {
-                System.out.println("[ " + e.toString() + " ] " + e.nameOfEquipment());
+                output.println("[ " + e.toString() + " ] " + e.nameOfEquipment());
             }
-            System.out.println("[ no ] Stop taking equipment and head out to the lake ");
+            output.println("[ no ] Stop taking equipment and head out to the lake ");
         }
 
 
         private void processList(int value) {
-            System.out.println("=====> Researcher "+currentResearcher.getId() + " manages to stop safely.\n" +
+            output.println("=====> Researcher "+session.getCurrentResearcher().getId() + " manages to stop safely.\n" +
                     "[1] Continue moving on the ice.\n" +
                     "[2] Choose experiment equipment and perform an experiment.");
             if (value ==1){
-                System.out.println("[3] Sit on the ground and let the other researchers head out to the lake. ");}
+                output.println("[3] Sit on the ground and let the other researchers head out to the lake. ");}
             else{
-                System.out.println("[3] Exit of the map. ");
+                output.println("[3] Exit of the map. ");
             }
         }
 
         private void resarcherBagText(int count){
+            Researcher currentResearcher = session.getCurrentResearcher();
             String str ="";
             if (count == 0){
                 str = ("- Contents of the bag of Researcher "+currentResearcher.getId() +": ");
@@ -402,107 +370,46 @@ public class GameManager {
             for (Equipment e : currentResearcher.getEquipmentSet()){
                 str+= e.toString() + " ";
             }
-            System.out.println(str);
+            output.println(str);
         }
 
         /**
-         * Ends the game and prints the appropriate message based on the given value.
+         * Prints the message announcing how the game ended.
          *
-         * @param value an integer representing the reason for the game ending:
-         *              1 - Research goals have been accomplished.
-         *              0 - The player was injured.
-         *              2 - No equipment left to finish the game.
-         *              3 - Given experiments didn't finish.
+         * @param outcome How the game ended:
+         *              SUCCESSFUL - Research goals have been accomplished.
+         *              RESEARCHER_INJURED - The player was injured.
+         *              OUT_OF_EQUIPMENT - No equipment left to finish the game.
+         *              OUT_OF_RESEARCHERS - Given experiments didn't finish.
          */
-        private void FinishedGame(int value) {
-            isGameContinue = false;
-            if(value == 1){
-                System.out.println();
-                System.out.println("-----------> Research goal(s) have been accomplished. Here are their results: ");
-                System.out.println();
-                for(ResearchEquipmentItem item: finishedGoals){
-                    System.out.println(item.getMessage());
+        private void FinishedGame(GameOutcome outcome) {
+            if(outcome == GameOutcome.SUCCESSFUL){
+                output.println();
+                output.println("-----------> Research goal(s) have been accomplished. Here are their results: ");
+                output.println();
+                for(ResearchEquipmentItem item: session.getFinishedGoals()){
+                    output.println(item.getMessage());
                 }
-                System.out.println();
-                System.out.println("-----------> SUCCESSFUL");
-                System.out.println();
-            }else if(value == 0){
-                System.out.println();
-                System.out.println("----------->  The Player was injured and that's why the game is over!!!");
-                System.out.println();
+                output.println();
+                output.println("-----------> SUCCESSFUL");
+                output.println();
+            }else if(outcome == GameOutcome.RESEARCHER_INJURED){
+                output.println();
+                output.println("----------->  The Player was injured and that's why the game is over!!!");
+                output.println();
             }
-            else if(value == 2) {
-                System.out.println();
-                System.out.println("----------->   There is no equipment left to finish the game, the game is over!!!");
-                System.out.println();
-            } else if (value ==3) {
-                System.out.println();
-                System.out.println("----------->   The given experiments didn't finished so, the game is over!!!");
-                System.out.println();
+            else if(outcome == GameOutcome.OUT_OF_EQUIPMENT) {
+                output.println();
+                output.println("----------->   There is no equipment left to finish the game, the game is over!!!");
+                output.println();
+            } else if (outcome == GameOutcome.OUT_OF_RESEARCHERS) {
+                output.println();
+                output.println("----------->   The given experiments didn't finished so, the game is over!!!");
+                output.println();
             }
-            state = "Finished";
         }
 
 
     }
 
-    private class ResearcherQueue{
-
-        private final LinkedList<Researcher> queue;
-        private int currentIndex;
-
-        public ResearcherQueue() {
-            this.queue = new LinkedList<>();
-            this.currentIndex = 0;
-        }
-
-        public void addResearcher(Researcher researcher) {
-            queue.add(researcher);
-        }
-        public Researcher removeResearcher() {
-            if (isEmpty()) {
-                return null;
-            }
-            Researcher removed = queue.remove(currentIndex);
-            if (currentIndex >= queue.size()) {
-                currentIndex = 0;
-            }
-            return removed;
-        }
-
-        public Researcher getCurrentResearcher() {
-            if (isEmpty()) {
-                return null;
-            }
-            return queue.get(currentIndex);
-        }
-
-        public Researcher pop(){
-            if (isEmpty()) {
-                return null;
-            }
-            Researcher removed = queue.remove(currentIndex);
-            if (currentIndex >= queue.size()) {
-                currentIndex = 0;
-            }
-            return removed;
-        }
-
-        public void nextResearcher() {
-            if (!isEmpty()) {
-                currentIndex = (currentIndex + 1) % queue.size();
-            }
-        }
-        public int size() {
-            return queue.size();
-        }
-
-        public boolean isEmpty() {
-            return queue.isEmpty();
-        }
-
-    }
-
 }
-
-
@@ -0,0 +1,17 @@
+package utility;
+
+/**
+ * The GameOutcome enum describes how a game ended, matching the endings announced by GameManager.
+ */
+public enum GameOutcome {
+    /** The game is still going on. */
+    IN_PROGRESS,
+    /** Every research goal was accomplished. */
+    SUCCESSFUL,
+    /** The current researcher stopped on a hazard without the matching equipment. */
+    RESEARCHER_INJURED,
+    /** The storage ran out of equipment for a pending goal. */
+    OUT_OF_EQUIPMENT,
+    /** Every researcher has been out and goals are still pending. */
+    OUT_OF_RESEARCHERS
+}
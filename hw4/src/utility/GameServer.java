@@ -0,0 +1,324 @@
+package utility;
+
+import Components.General.Direction;
+import Components.Interfaces.GameOutput;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The GameServer class hosts games for many players over TCP on the loopback interface. Every connection is
+ * served by its own virtual thread, so a player who is thinking only holds a parked thread and a socket, and
+ * plays its own GameSession with its own lake, equipment storage and random generator. Nothing is shared
+ * between connections.
+ *
+ * The protocol is line based and ASCII. The client sends one command per line:
+ * - NEW [seed]: Starts a new game, from the seed if one is given, replacing the current game.
+ * - SELECT code: Takes a piece of equipment from the storage, such as "SELECT cm".
+ * - STOP: Stops taking equipment and heads out to the lake.
+ * - MOVE U|D|L|R: Slides in a direction.
+ * - EXPERIMENT code: Performs an experiment with a piece of research equipment, such as "EXPERIMENT td".
+ * - SIT: Leaves the lake at the entrance, or sits down and lets the next researcher head out.
+ * - STATE: Reports the state of the game.
+ * - MAP: Sends the map of the lake.
+ * - QUIT: Closes the connection.
+ * Every reply is the GameEvents the command caused, one per line, or a line starting with "ERROR", and ends with
+ * a line "STATE" followed by the GameState of the game, or NONE before the first NEW. A session is only set up
+ * by NEW, so connections that never play cost no lake.
+ */
+public class GameServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 7777;
+    private static final int BACKLOG = 4096;
+    private static final long ACCEPT_RETRY_MILLIS = 5;
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger activeSessions = new AtomicInteger();
+
+    /**
+     * Opens a server on a port of the loopback interface. Call start to accept connections.
+     *
+     * @param port The port, or 0 for any free port.
+     * @throws IOException if the port cannot be opened.
+     */
+    public GameServer(int port) throws IOException {
+        this.serverSocket = new ServerSocket(port, BACKLOG, InetAddress.getLoopbackAddress());
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("game-", 0).factory());
+    }
+
+    /**
+     * Starts accepting connections on a virtual thread and returns.
+     */
+    public void start() {
+        Thread.ofVirtual().name("game-accept").start(this::acceptLoop);
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+                // Such as running out of file descriptors; wait for connections to close instead of spinning
+                try {
+                    Thread.sleep(ACCEPT_RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                socket.setTcpNoDelay(true);
+            } catch (IOException e) {
+                // The connection was dropped while it was accepted
+                closeQuietly(socket);
+                continue;
+            }
+            connections.add(socket);
+            executor.execute(() -> serve(socket));
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed by its client
+        }
+    }
+
+    /**
+     * Serves the commands of one connection until it is closed.
+     *
+     * @param socket The connection.
+     */
+    private void serve(Socket socket) {
+        Connection connection = new Connection();
+        try (socket) {
+            SocketLines lines = new SocketLines(socket);
+            String line;
+            while ((line = lines.readLine()) != null) {
+                String reply = connection.handle(line);
+                if (reply == null) {
+                    break;
+                }
+                lines.write(reply);
+            }
+        } catch (IOException e) {
+            // The client went away; its session goes with it
+        } finally {
+            connections.remove(socket);
+            if (connection.session != null) {
+                activeSessions.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Retrieves the port the server listens on.
+     *
+     * @return The port.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Retrieves the number of open connections.
+     *
+     * @return The number of connections.
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    /**
+     * Retrieves the number of connections that have started a game.
+     *
+     * @return The number of sessions.
+     */
+    public int getActiveSessionCount() {
+        return activeSessions.get();
+    }
+
+    /**
+     * Stops accepting connections and closes every open connection.
+     *
+     * @throws IOException if the server socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket socket : connections) {
+            closeQuietly(socket);
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * The game of one connection.
+     */
+    private final class Connection {
+
+        private GameSession session;
+
+        /**
+         * Runs one command line. A command that fails with an unexpected exception is answered with an ERROR
+         * line, and the connection keeps being served.
+         *
+         * @param line The line sent by the client.
+         * @return The reply, or null to close the connection.
+         */
+        private String handle(String line) {
+            StringBuilder reply = new StringBuilder(128);
+            try {
+                if (!run(line, reply)) {
+                    return null;
+                }
+            } catch (RuntimeException e) {
+                // Drop whatever the command wrote before it failed
+                reply.setLength(0);
+                reply.append("ERROR ").append(e.getClass().getSimpleName());
+                if (e.getMessage() != null) {
+                    reply.append(": ").append(e.getMessage().replace('\n', ' '));
+                }
+                reply.append('\n');
+            }
+            reply.append("STATE ").append(session == null ? "NONE" : session.getState()).append('\n');
+            return reply.toString();
+        }
+
+        /**
+         * Runs one command line and appends its events or error to the reply.
+         *
+         * @param line The line sent by the client.
+         * @param reply The reply.
+         * @return false if the client asked to close the connection.
+         */
+        private boolean run(String line, StringBuilder reply) {
+            line = line.trim();
+            int space = line.indexOf(' ');
+            String verb = space < 0 ? line : line.substring(0, space);
+            String argument = space < 0 ? null : line.substring(space + 1).trim();
+            switch (verb.toUpperCase()) {
+                case "NEW":
+                    newGame(argument, reply);
+                    break;
+                case "SELECT":
+                    apply(argument == null ? null : GameCommand.selectEquipment(argument), reply);
+                    break;
+                case "STOP":
+                    apply(GameCommand.stopSelecting(), reply);
+                    break;
+                case "MOVE": {
+                    Direction direction = Direction.fromCode(argument);
+                    apply(direction == null ? null : GameCommand.move(direction), reply);
+                    break;
+                }
+                case "EXPERIMENT":
+                    apply(argument == null ? null : GameCommand.performExperiment(argument), reply);
+                    break;
+                case "SIT":
+                    apply(GameCommand.sitOrExit(), reply);
+                    break;
+                case "STATE":
+                    break;
+                case "MAP":
+                    map(reply);
+                    break;
+                case "QUIT":
+                    return false;
+                default:
+                    reply.append("ERROR Unknown command ").append(verb).append('\n');
+                    break;
+            }
+            return true;
+        }
+
+        private void newGame(String argument, StringBuilder reply) {
+            long seed;
+            try {
+                seed = argument == null ? ThreadLocalRandom.current().nextLong() : Long.parseLong(argument);
+            } catch (NumberFormatException e) {
+                reply.append("ERROR Invalid seed ").append(argument).append('\n');
+                return;
+            }
+            GameSession created = new GameSession(seed);
+            if (session == null) {
+                activeSessions.incrementAndGet();
+            }
+            session = created;
+            appendEvents(session.start(), reply);
+        }
+
+        private void apply(GameCommand command, StringBuilder reply) {
+            if (session == null) {
+                reply.append("ERROR No game; send NEW first\n");
+            } else if (command == null) {
+                reply.append("ERROR Missing or invalid argument\n");
+            } else {
+                appendEvents(session.apply(command), reply);
+            }
+        }
+
+        private void map(StringBuilder reply) {
+            if (session == null) {
+                reply.append("ERROR No game; send NEW first\n");
+                return;
+            }
+            GameOutput capture = new GameOutput() {
+                @Override
+                public void print(String text) {
+                    reply.append(text);
+                }
+
+                @Override
+                public void println(String text) {
+                    reply.append(text).append('\n');
+                }
+            };
+            session.getLakePuzzle().setOutput(capture);
+            try {
+                session.getLakePuzzle().printMap();
+            } finally {
+                session.getLakePuzzle().setOutput(GameOutput.SILENT);
+            }
+        }
+
+        private void appendEvents(List<GameEvent> events, StringBuilder reply) {
+            for (GameEvent event : events) {
+                reply.append(event).append('\n');
+            }
+        }
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     *
+     * @param args The port to listen on; DEFAULT_PORT if omitted.
+     * @throws IOException if the port cannot be opened.
+     * @throws InterruptedException if the main thread is interrupted.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        GameServer server = new GameServer(port);
+        server.start();
+        System.out.println("Frozen Lake game server listening on " + server.serverSocket.getInetAddress().getHostAddress()
+                + ":" + server.getPort());
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,653 @@
+package utility;
+
+import Components.General.CellKind;
+import Components.General.EquipmentBag;
+import Components.General.LakePuzzle;
+import Components.General.MapSquare;
+import Components.General.Researcher;
+import Components.General.Zobrist;
+import Components.HazardEquipments.ClimbingEquipment;
+import Components.HazardEquipments.LargeWoodenBoard;
+import Components.HazardEquipments.ProtectiveHelmet;
+import Components.Hazards.HazardItem;
+import Components.Interfaces.Equipment;
+import Components.Interfaces.GameOutput;
+import Components.ResearchEquipmentItems.CameraItem;
+import Components.ResearchEquipmentItems.ChiselingEquipmentItem;
+import Components.ResearchEquipmentItems.ResearchEquipmentItem;
+import Components.ResearchEquipmentItems.TemperatureDetectorItem;
+import Components.ResearchEquipmentItems.WindSpeedMeasurement;
+import exceptions.IncompatibleResearchEquipmentLocationException;
+import exceptions.IncorrectBagContentsException;
+import exceptions.UnavailableDirectionException;
+import exceptions.UnavailableEquipmentException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * The GameSession class holds the rules and the state of one game, without any console input or output.
+ * The game moves forward only when a GameCommand is applied, and every command returns the GameEvents it caused,
+ * so nothing blocks and nothing is printed; the lake of a new session writes to GameOutput.SILENT. GameManager
+ * is the console front end of a session, and the simulator and other automatic players drive sessions directly.
+ *
+ * The session is a state machine over GameState. Each kind of command has one handler in a table built once,
+ * and a command runs only if the current state accepts it; listeners registered with addStateListener are
+ * told of every change of state.
+ *
+ * A session is not thread-safe; it is meant to be driven by one thread at a time.
+ */
+public class GameSession {
+
+    private final long seed;
+    private LakePuzzle lakePuzzle;
+    private ResearcherQueue researcherQueue;
+    private EquipmentBag<Equipment> equipmentBag;
+    private Set<ResearchEquipmentItem> goals;
+    private Set<ResearchEquipmentItem> finishedGoals;
+    private Researcher currentResearcher;
+    private boolean isGameContinue = true;
+    private GameState state = GameState.RESEARCHER_BEFORE_LAKE;
+    private SplittableRandom random;
+    private GameOutcome outcome = GameOutcome.IN_PROGRESS;
+    private int researchersUsed;
+    private long goalHash;
+    private List<GameEvent> pending = new ArrayList<>();
+    private final List<GameStateListener> listeners = new ArrayList<>(0);
+
+    /**
+     * Runs one kind of command on a session.
+     */
+    private interface Handler {
+        void handle(GameSession session, GameCommand command, List<GameEvent> events);
+    }
+
+    private static final Handler[] HANDLERS = new Handler[GameCommand.Type.values().length];
+
+    static {
+        HANDLERS[GameCommand.Type.SELECT_EQUIPMENT.ordinal()] =
+                (session, command, events) -> session.selectEquipment(command.getCode(), events);
+        HANDLERS[GameCommand.Type.STOP_SELECTING.ordinal()] =
+                (session, command, events) -> session.stopSelecting(events);
+        HANDLERS[GameCommand.Type.MOVE.ordinal()] =
+                (session, command, events) -> session.move(command, events);
+        HANDLERS[GameCommand.Type.PERFORM_EXPERIMENT.ordinal()] =
+                (session, command, events) -> session.performExperiment(command.getCode(), events);
+        HANDLERS[GameCommand.Type.SIT_OR_EXIT.ordinal()] =
+                (session, command, events) -> session.sitOrExit(events);
+    }
+
+    /**
+     * Sets up a session whose lake, researchers and experiments are all derived from a seed,
+     * so the same seed always sets up the same game.
+     *
+     * @param seed The seed of the session.
+     */
+    public GameSession(long seed) {
+        this(seed, null);
+    }
+
+    /**
+     * Sets up a session on a ready-made lake, such as one from a pool or a catalog. The researchers and
+     * experiments are derived from the seed.
+     *
+     * @param seed The seed of the session.
+     * @param readyLake The lake to play on, or null to generate one from the seed.
+     */
+    public GameSession(long seed, LakePuzzle readyLake) {
+        this.seed = seed;
+        // Every subsystem draws from its own stream split from the session seed
+        SplittableRandom session = new SplittableRandom(seed);
+        SplittableRandom lakeRandom = session.split();
+        this.lakePuzzle = readyLake != null ? readyLake : new LakePuzzle.Builder().random(lakeRandom).build();
+        lakePuzzle.setOutput(GameOutput.SILENT);
+        this.random = session.split();
+        goals = new HashSet<>();
+        finishedGoals = new HashSet<>();
+        this.researcherQueue = new ResearcherQueue();
+        int[] options = {2, 3, 4};
+        int randomChoice = options[random.nextInt(options.length)];
+        for (int i = 1; i <= randomChoice; i++) {
+            researcherQueue.addResearcher(new Researcher(i));
+        }
+        this.equipmentBag = new EquipmentBag<>();
+        equipmentBag.addEquipment(new TemperatureDetectorItem());
+        equipmentBag.addEquipment(new TemperatureDetectorItem());
+        equipmentBag.addEquipment(new ChiselingEquipmentItem());
+        equipmentBag.addEquipment(new ChiselingEquipmentItem());
+        equipmentBag.addEquipment(new ClimbingEquipment());
+        equipmentBag.addEquipment(new ClimbingEquipment());
+        equipmentBag.addEquipment(new ProtectiveHelmet());
+        equipmentBag.addEquipment(new ProtectiveHelmet());
+        equipmentBag.addEquipment(new LargeWoodenBoard());
+        equipmentBag.addEquipment(new LargeWoodenBoard());
+        equipmentBag.addEquipment(new CameraItem());
+        equipmentBag.addEquipment(new CameraItem());
+        equipmentBag.addEquipment(new WindSpeedMeasurement());
+        equipmentBag.addEquipment(new WindSpeedMeasurement());
+
+        pending.add(GameEvent.started(researcherQueue.size()));
+        generateRandomExperiment(randomExperimentCount());
+
+        currentResearcher = researcherQueue.pop();
+        lakePuzzle.addResearcherToMap(currentResearcher);
+    }
+
+    /**
+     * Sets up a restored session.
+     *
+     * @param lakePuzzle The lake, with the researchers standing on it.
+     * @param queuedResearchers The researchers waiting at the entrance, in queue order.
+     * @param queueIndex The current index of the researcher queue.
+     * @param currentResearcher The researcher whose turn it is.
+     * @param equipmentBag The shared equipment storage.
+     * @param goals The research goals that are not accomplished yet.
+     * @param finishedGoals The research equipment that accomplished a goal.
+     * @param state The state of the game.
+     * @param outcome How the game ended, IN_PROGRESS unless it is finished.
+     * @param isGameContinue Whether the game goes on.
+     * @param randomSeed The seed of the session's random generator.
+     */
+    GameSession(LakePuzzle lakePuzzle, List<Researcher> queuedResearchers, int queueIndex, Researcher currentResearcher,
+                EquipmentBag<Equipment> equipmentBag, Set<ResearchEquipmentItem> goals,
+                Set<ResearchEquipmentItem> finishedGoals, GameState state, GameOutcome outcome,
+                boolean isGameContinue, long randomSeed) {
+        this.seed = 0;
+        this.random = new SplittableRandom(randomSeed);
+        this.lakePuzzle = lakePuzzle;
+        lakePuzzle.setOutput(GameOutput.SILENT);
+        this.researcherQueue = new ResearcherQueue();
+        for (Researcher researcher : queuedResearchers) {
+            researcherQueue.addResearcher(researcher);
+        }
+        researcherQueue.currentIndex = queueIndex;
+        this.currentResearcher = currentResearcher;
+        this.equipmentBag = equipmentBag;
+        this.goals = goals;
+        for (ResearchEquipmentItem goal : goals) {
+            goalHash ^= Zobrist.goal(goal.toString());
+        }
+        this.finishedGoals = finishedGoals;
+        this.state = state;
+        this.outcome = outcome;
+        this.isGameContinue = isGameContinue;
+        if (state == GameState.FINISHED) {
+            // Announce the ending again, so a restored game that is over still tells how it ended
+            pending.add(GameEvent.finished(outcome));
+        }
+    }
+
+    /**
+     * Retrieves the events of setting up the game, or of restoring it, that have not been returned yet:
+     * the start of the game with its goals and the first researcher arriving at the entrance.
+     * Applying a command returns them too, ahead of its own events, if start was not called.
+     *
+     * @return The events, in the order they happened.
+     */
+    public List<GameEvent> start() {
+        List<GameEvent> events = takePending();
+        settle(events);
+        return events;
+    }
+
+    /**
+     * Applies a decision of the player and moves the game forward.
+     * A command that does not fit the current state, or that the rules refuse, changes nothing and is answered
+     * with an event saying why, so the same state asks for a new command.
+     *
+     * @param command The command.
+     * @return The events the command caused, in the order they happened.
+     * @throws IllegalArgumentException if the command is null.
+     */
+    public List<GameEvent> apply(GameCommand command) {
+        if (command == null) {
+            throw new IllegalArgumentException("Command cannot be null.");
+        }
+        List<GameEvent> events = takePending();
+        settle(events);
+        GameCommand.Type type = command.getType();
+        if (state.accepts(type)) {
+            HANDLERS[type.ordinal()].handle(this, command, events);
+        } else {
+            events.add(GameEvent.rejected(state.rejection(type)));
+        }
+        checkFinished(events);
+        settle(events);
+        return events;
+    }
+
+    private List<GameEvent> takePending() {
+        List<GameEvent> events = pending;
+        pending = new ArrayList<>();
+        return events;
+    }
+
+    /**
+     * Moves on from the states that need no decision.
+     *
+     * @param events The list the events are added to.
+     */
+    private void settle(List<GameEvent> events) {
+        if (state.isTransient()) {
+            enter(GameState.ENTRANCE);
+            events.add(GameEvent.of(GameEvent.Type.RESEARCHER_AT_ENTRANCE, currentResearcher.getId()));
+        }
+    }
+
+    /**
+     * Changes the state of the game and tells the listeners.
+     *
+     * @param next The new state.
+     */
+    private void enter(GameState next) {
+        GameState previous = state;
+        state = next;
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).stateChanged(this, previous, next);
+        }
+    }
+
+    private void selectEquipment(String code, List<GameEvent> events) {
+        if (!equipmentBag.isContain(code)) {
+            events.add(GameEvent.withCode(GameEvent.Type.EQUIPMENT_NOT_IN_STORAGE, currentResearcher.getId(), code,
+                    "*** There no more " + code + " left in the Equipment Storage."));
+            return;
+        }
+        Equipment newEquipment = equipmentBag.getEquipment(code);
+        try {
+            currentResearcher.addEquipment(newEquipment);
+        } catch (IncorrectBagContentsException e) {
+            events.add(GameEvent.withCode(GameEvent.Type.BAG_REJECTED, currentResearcher.getId(), code,
+                    e.getMessage()));
+            return;
+        }
+        equipmentBag.removeEquipment(newEquipment);
+        events.add(GameEvent.withCode(GameEvent.Type.EQUIPMENT_TAKEN, currentResearcher.getId(), code, null));
+    }
+
+    private void stopSelecting(List<GameEvent> events) {
+        try {
+            currentResearcher.isBagEmpty();
+        } catch (IncorrectBagContentsException e) {
+            events.add(GameEvent.withCode(GameEvent.Type.BAG_REJECTED, currentResearcher.getId(), null,
+                    e.getMessage()));
+            return;
+        }
+        enter(GameState.HEADING_OUT);
+        researchersUsed++;
+        events.add(GameEvent.of(GameEvent.Type.HEADED_OUT, currentResearcher.getId()));
+    }
+
+    private void move(GameCommand command, List<GameEvent> events) {
+        int id = currentResearcher.getId();
+        int[] position = lakePuzzle.findResearcherSquare(currentResearcher).getPosition();
+        int destination = lakePuzzle.getSlideDestination(position[1], position[0], command.getDirection());
+        int columns = lakePuzzle.getMapSize()[0];
+        HazardItem hazard = destination < 0
+                || !CellKind.isDangerousHazard(lakePuzzle.getKind(destination / columns, destination % columns))
+                ? null : lakePuzzle.getMapSquare(destination / columns, destination % columns).getHazard();
+        MapSquare stop;
+        try {
+            stop = currentResearcher.move(command.getDirection().getCode(), lakePuzzle);
+        } catch (UnavailableDirectionException e) {
+            events.add(GameEvent.withCode(GameEvent.Type.DIRECTION_UNAVAILABLE, id, null, e.getMessage()));
+            return;
+        }
+        if (state == GameState.HEADING_OUT) {
+            enter(GameState.IN_LAKE);
+        }
+        int[] reached = stop.getPosition();
+        events.add(GameEvent.at(GameEvent.Type.MOVED, id, reached[1], reached[0], null, null, null));
+        if (!currentResearcher.researcherAlive()) {
+            events.add(GameEvent.at(GameEvent.Type.RESEARCHER_INJURED, id, reached[1], reached[0], null, null,
+                    currentResearcher.getCauseOfDeath()));
+        } else if (hazard != null) {
+            events.add(GameEvent.at(GameEvent.Type.HAZARD_NEUTRALIZED, id, reached[1], reached[0], null, null,
+                    hazard.getHazardEnum()));
+        }
+    }
+
+    private void performExperiment(String code, List<GameEvent> events) {
+        int id = currentResearcher.getId();
+        if (!currentResearcher.isHaveReseachItem()) {
+            events.add(GameEvent.withCode(GameEvent.Type.EQUIPMENT_UNAVAILABLE, id, code,
+                    "Researcher has no Experiment Equipment"));
+            return;
+        }
+        Equipment equipment;
+        try {
+            equipment = currentResearcher.getItemWithCode(code, lakePuzzle);
+        } catch (UnavailableEquipmentException e) {
+            events.add(GameEvent.withCode(GameEvent.Type.EQUIPMENT_UNAVAILABLE, id, code, e.getMessage()));
+            return;
+        }
+        if (!(equipment instanceof ResearchEquipmentItem)) {
+            events.add(GameEvent.withCode(GameEvent.Type.EQUIPMENT_UNAVAILABLE, id, code,
+                    "*** " + equipment.nameOfEquipment() + " is not research equipment."));
+            return;
+        }
+        ResearchEquipmentItem item = (ResearchEquipmentItem) equipment;
+        int[] position = lakePuzzle.findResearcherSquare(currentResearcher).getPosition();
+        try {
+            item.use(lakePuzzle, currentResearcher);
+        } catch (IncompatibleResearchEquipmentLocationException e) {
+            events.add(GameEvent.withCode(GameEvent.Type.LOCATION_INCOMPATIBLE, id, code, e.getMessage()));
+            return;
+        }
+        accomplishResearch(item);
+        events.add(GameEvent.at(GameEvent.Type.EXPERIMENT_PERFORMED, id, position[1], position[0], code,
+                item.getMessage(), null));
+    }
+
+    private void sitOrExit(List<GameEvent> events) {
+        int id = currentResearcher.getId();
+        int[] position = lakePuzzle.findResearcherSquare(currentResearcher).getPosition();
+        if (lakePuzzle.isEntranceSquare(position[1], position[0])) {
+            for (Equipment equipment : currentResearcher.getEquipmentSet()) {
+                equipmentBag.addEquipment(equipment);
+            }
+            lakePuzzle.findResearcherSquare(currentResearcher).removeResearcher();
+            events.add(GameEvent.of(GameEvent.Type.RESEARCHER_LEFT, id));
+        } else {
+            events.add(GameEvent.of(GameEvent.Type.RESEARCHER_SAT, id));
+        }
+        nextResearcher(events);
+    }
+
+    private void nextResearcher(List<GameEvent> events) {
+        if (researcherQueue.isEmpty()) {
+            finish(GameOutcome.OUT_OF_RESEARCHERS, events);
+            return;
+        }
+        currentResearcher = researcherQueue.pop();
+        lakePuzzle.addResearcherToMap(currentResearcher);
+        if (!isThereEnoughItemForGoals()) {
+            finish(GameOutcome.OUT_OF_EQUIPMENT, events);
+        } else {
+            enter(GameState.RESEARCHER_BEFORE_LAKE);
+        }
+    }
+
+    private void checkFinished(List<GameEvent> events) {
+        if (state == GameState.FINISHED) {
+            return;
+        }
+        if (!currentResearcher.researcherAlive()) {
+            finish(GameOutcome.RESEARCHER_INJURED, events);
+        } else if (goals.isEmpty()) {
+            finish(GameOutcome.SUCCESSFUL, events);
+        }
+    }
+
+    private void finish(GameOutcome result, List<GameEvent> events) {
+        outcome = result;
+        isGameContinue = false;
+        enter(GameState.FINISHED);
+        events.add(GameEvent.finished(result));
+    }
+
+    private void generateRandomExperiment(int count) {
+        ArrayList<ResearchEquipmentItem> a = new ArrayList<>(4);
+        a.add(new CameraItem());
+        a.add(new ChiselingEquipmentItem());
+        a.add(new TemperatureDetectorItem());
+        a.add(new WindSpeedMeasurement());
+        for (int i = 0; i < count && !a.isEmpty(); i++) {
+            int randomIndex = random.nextInt(a.size());
+            ResearchEquipmentItem selectedItem = a.remove(randomIndex);
+            goals.add(selectedItem);
+            goalHash ^= Zobrist.goal(selectedItem.toString());
+            pending.add(GameEvent.withCode(GameEvent.Type.GOAL_ASSIGNED, -1, selectedItem.toString(),
+                    selectedItem.textOfGoal()));
+        }
+    }
+
+    private int randomExperimentCount() {
+        int researcherCount = researcherQueue.size();
+        int choice = random.nextInt(2);
+        return (choice == 0) ? researcherCount : (researcherCount - 1);
+    }
+
+    private boolean isThereEnoughItemForGoals() {
+        for (ResearchEquipmentItem goal : goals) {
+            boolean isFound = false;
+            for (Equipment equipment : equipmentBag.getEquipmentSet()) {
+                if (equipment instanceof ResearchEquipmentItem && equipment.getClass() == goal.getClass()) {
+                    isFound = true;
+                    break;
+                }
+            }
+            if (!isFound) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void accomplishResearch(ResearchEquipmentItem item) {
+        for (ResearchEquipmentItem currentItem : goals) {
+            if (item.toString().equals(currentItem.toString()) && item.isAccomplish()) {
+                finishedGoals.add(item);
+                goals.remove(currentItem);
+                goalHash ^= Zobrist.goal(currentItem.toString());
+                break;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the state of the game.
+     *
+     * @return The current state.
+     */
+    public GameState getState() {
+        return state;
+    }
+
+    /**
+     * Registers a listener that is told of every change of state from now on.
+     *
+     * @param listener The listener.
+     * @throws IllegalArgumentException if the listener is null.
+     */
+    public void addStateListener(GameStateListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null.");
+        }
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener registered with addStateListener.
+     *
+     * @param listener The listener.
+     * @return true if the listener was registered.
+     */
+    public boolean removeStateListener(GameStateListener listener) {
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Checks whether the researcher at the entrance is selecting equipment.
+     *
+     * @return true if SELECT_EQUIPMENT and STOP_SELECTING commands are expected.
+     */
+    public boolean isSelectingEquipment() {
+        return state == GameState.ENTRANCE || state == GameState.RESEARCHER_BEFORE_LAKE;
+    }
+
+    /**
+     * Checks whether the researcher is on the lake and acts there.
+     *
+     * @return true if MOVE, PERFORM_EXPERIMENT and SIT_OR_EXIT commands are expected.
+     */
+    public boolean isInLake() {
+        return state == GameState.HEADING_OUT || state == GameState.IN_LAKE;
+    }
+
+    /**
+     * Checks whether the researcher just headed out, so the next command must be a slide.
+     *
+     * @return true if only a MOVE command is accepted.
+     */
+    public boolean isSlideRequired() {
+        return state == GameState.HEADING_OUT;
+    }
+
+    /**
+     * Checks whether the game is over.
+     *
+     * @return true if the game is over.
+     */
+    public boolean isFinished() {
+        return state == GameState.FINISHED;
+    }
+
+    /**
+     * Retrieves the seed the session was set up from. Restored sessions report 0.
+     *
+     * @return The seed of the session.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Retrieves how the game ended.
+     *
+     * @return The outcome, IN_PROGRESS while the game goes on.
+     */
+    public GameOutcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Retrieves the number of researchers that headed out to the lake since the game was set up or restored.
+     *
+     * @return The number of researchers used.
+     */
+    public int getResearchersUsed() {
+        return researchersUsed;
+    }
+
+    /**
+     * Retrieves the lake. It must not be changed other than by applying commands.
+     *
+     * @return The lake.
+     */
+    public LakePuzzle getLakePuzzle() {
+        return lakePuzzle;
+    }
+
+    /**
+     * Retrieves the researcher whose turn it is.
+     *
+     * @return The current researcher.
+     */
+    public Researcher getCurrentResearcher() {
+        return currentResearcher;
+    }
+
+    /**
+     * Retrieves the shared equipment storage. It must not be changed other than by applying commands.
+     *
+     * @return The storage.
+     */
+    public EquipmentBag<Equipment> getEquipmentBag() {
+        return equipmentBag;
+    }
+
+    /**
+     * Retrieves the research goals that are not accomplished yet.
+     *
+     * @return An unmodifiable view of the goals.
+     */
+    public Set<ResearchEquipmentItem> getGoals() {
+        return Collections.unmodifiableSet(goals);
+    }
+
+    /**
+     * Retrieves the research equipment that accomplished a goal, holding the results of the experiments.
+     *
+     * @return An unmodifiable view of the accomplished goals.
+     */
+    public Set<ResearchEquipmentItem> getFinishedGoals() {
+        return Collections.unmodifiableSet(finishedGoals);
+    }
+
+    List<Researcher> getQueuedResearchers() {
+        return Collections.unmodifiableList(researcherQueue.queue);
+    }
+
+    int getQueueIndex() {
+        return researcherQueue.currentIndex;
+    }
+
+    /**
+     * Draws the seed a stored copy of this session restores its random generator with. The generator is only
+     * used to set up the game, so storing a session does not change how it plays on.
+     *
+     * @return The seed of the stored copy.
+     */
+    long nextStoredSeed() {
+        return random.nextLong();
+    }
+
+    boolean isGameContinue() {
+        return isGameContinue;
+    }
+
+    /**
+     * Retrieves the Zobrist hash of the game state: the lake's items and researchers, the contents of the
+     * equipment storage and of every researcher's bag, and the research goals that are not accomplished yet.
+     * Every part is kept up to date as it changes, so this only combines the parts, one per researcher on the lake.
+     *
+     * @return The hash of the current game state.
+     */
+    public long stateHash() {
+        long hash = lakePuzzle.getStateHash() ^ Zobrist.bag(0, equipmentBag.getContentHash()) ^ goalHash;
+        for (Researcher researcher : lakePuzzle.getResearchersOnMap()) {
+            hash ^= Zobrist.bag(researcher.getId(), researcher.getBagHash());
+        }
+        return hash;
+    }
+
+    private static class ResearcherQueue {
+
+        private final LinkedList<Researcher> queue;
+        private int currentIndex;
+
+        private ResearcherQueue() {
+            this.queue = new LinkedList<>();
+            this.currentIndex = 0;
+        }
+
+        private void addResearcher(Researcher researcher) {
+            queue.add(researcher);
+        }
+
+        private Researcher pop() {
+            if (isEmpty()) {
+                return null;
+            }
+            Researcher removed = queue.remove(currentIndex);
+            if (currentIndex >= queue.size()) {
+                currentIndex = 0;
+            }
+            return removed;
+        }
+
+        private int size() {
+            return queue.size();
+        }
+
+        private boolean isEmpty() {
+            return queue.isEmpty();
+        }
+    }
+}
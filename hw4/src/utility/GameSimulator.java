@@ -0,0 +1,409 @@
+package utility;
+
+import Components.General.Direction;
+import Components.General.LakePuzzle;
+import Components.General.Researcher;
+import Components.Hazards.HazardEnum;
+import Components.Interfaces.Equipment;
+import Components.ResearchEquipmentItems.ResearchEquipmentItem;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * The GameSimulator class plays many complete games without a console, with an automatic DecisionPolicy in place
+ * of the player, and reports how they ended. Games run in parallel on a ForkJoinPool; each game is a GameSession
+ * set up from its own seed, with its own lake, storage and policy, driven by commands, so nothing is printed
+ * and no text is built for the map. The seeds of the games are derived from the seed of
+ * the run, so a run can be repeated exactly with a policy whose decisions follow from its random generator and
+ * the game alone. Sets of items are iterated in no particular order, so such a policy sorts what it picks from.
+ * A game whose policy keeps making decisions that lead nowhere is abandoned after a fixed number of decisions.
+ */
+public final class GameSimulator {
+
+    /**
+     * The number of decisions after which a game is abandoned, unless a different limit is given.
+     */
+    public static final int DEFAULT_MAX_DECISIONS = 10_000;
+
+    private final Function<SplittableRandom, DecisionPolicy> policies;
+    private final int maxDecisions;
+
+    /**
+     * Creates a simulator with the default decision limit.
+     *
+     * @param policies Creates the policy of a game from the game's own random generator.
+     */
+    public GameSimulator(Function<SplittableRandom, DecisionPolicy> policies) {
+        this(policies, DEFAULT_MAX_DECISIONS);
+    }
+
+    /**
+     * Creates a simulator.
+     *
+     * @param policies Creates the policy of a game from the game's own random generator.
+     * @param maxDecisions The number of decisions after which a game is abandoned.
+     */
+    public GameSimulator(Function<SplittableRandom, DecisionPolicy> policies, int maxDecisions) {
+        if (maxDecisions < 1) {
+            throw new IllegalArgumentException("A game must allow at least one decision.");
+        }
+        this.policies = policies;
+        this.maxDecisions = maxDecisions;
+    }
+
+    /**
+     * Plays games on the common pool.
+     *
+     * @param games The number of games.
+     * @param seed The seed of the run.
+     * @return The statistics of the games.
+     */
+    public Report run(int games, long seed) {
+        return run(games, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Plays games in parallel.
+     *
+     * @param games The number of games.
+     * @param seed The seed of the run.
+     * @param pool The pool the games run on.
+     * @return The statistics of the games.
+     */
+    public Report run(int games, long seed, ForkJoinPool pool) {
+        if (games < 0) {
+            throw new IllegalArgumentException("The number of games cannot be negative.");
+        }
+        SplittableRandom root = new SplittableRandom(seed);
+        long[] seeds = new long[2 * games];
+        for (int i = 0; i < seeds.length; i++) {
+            seeds[i] = root.nextLong();
+        }
+        Tally tally = new Tally();
+        long start = System.nanoTime();
+        pool.submit(() -> IntStream.range(0, games).parallel()
+                .forEach(i -> play(seeds[2 * i], seeds[2 * i + 1], tally))).join();
+        return new Report(tally, games, System.nanoTime() - start);
+    }
+
+    /**
+     * Plays one game and adds its ending to the tally.
+     */
+    private void play(long gameSeed, long policySeed, Tally tally) {
+        GameSession game = new GameSession(gameSeed);
+        PolicyDriver driver = new PolicyDriver(game, policies.apply(new SplittableRandom(policySeed)), maxDecisions);
+        try {
+            driver.play();
+        } catch (GameAbandoned e) {
+            // Counted as a game that is still in progress
+        }
+        GameOutcome outcome = game.getOutcome();
+        tally.outcomes.get(outcome).increment();
+        if (outcome == GameOutcome.RESEARCHER_INJURED) {
+            HazardEnum cause = game.getCurrentResearcher().getCauseOfDeath();
+            if (cause != null) {
+                tally.deaths.get(cause).increment();
+            }
+        }
+        tally.researchersUsed.add(game.getResearchersUsed());
+        tally.decisions.add(driver.decisions);
+    }
+
+    /**
+     * Finds a piece of research equipment in a researcher's bag that accomplishes a pending goal where the
+     * researcher stands.
+     *
+     * @param lake The lake.
+     * @param researcher The researcher.
+     * @param goals The research goals that are not accomplished yet.
+     * @return The code of the equipment, the first in alphabetical order if there are several,
+     *         or null if there is none.
+     */
+    static String usableExperiment(LakePuzzle lake, Researcher researcher, Set<ResearchEquipmentItem> goals) {
+        int[] position = lake.findResearcherSquare(researcher).getPosition();
+        return usableExperiment(lake, researcher, goals, position[1], position[0]);
+    }
+
+    /**
+     * Finds a piece of research equipment in a researcher's bag that would accomplish a pending goal at a square.
+     *
+     * @param lake The lake.
+     * @param researcher The researcher.
+     * @param goals The research goals that are not accomplished yet.
+     * @param row The row index of the square.
+     * @param col The column index of the square.
+     * @return The code of the equipment, the first in alphabetical order if there are several,
+     *         or null if there is none.
+     */
+    static String usableExperiment(LakePuzzle lake, Researcher researcher, Set<ResearchEquipmentItem> goals,
+                                   int row, int col) {
+        String usable = null;
+        for (Equipment equipment : researcher.getEquipmentSet()) {
+            String code = equipment.toString();
+            if (equipment instanceof ResearchEquipmentItem && (usable == null || code.compareTo(usable) < 0)
+                    && ((ResearchEquipmentItem) equipment).canBeUsedAt(lake, row, col) && isGoal(goals, code)) {
+                usable = code;
+            }
+        }
+        return usable;
+    }
+
+    /**
+     * Checks whether a research goal is still pending.
+     *
+     * @param goals The research goals that are not accomplished yet.
+     * @param code The code of the goal's equipment.
+     * @return true if the goal is pending.
+     */
+    static boolean isGoal(Set<ResearchEquipmentItem> goals, String code) {
+        for (ResearchEquipmentItem goal : goals) {
+            if (goal.toString().equals(code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Plays a session with the decisions of a policy, asking for them in the same order as the console game asks
+     * the player, and abandons the game when the policy runs past the decision limit.
+     */
+    private static final class PolicyDriver {
+        private final GameSession game;
+        private final DecisionPolicy policy;
+        private final int maxDecisions;
+        private int decisions;
+
+        private PolicyDriver(GameSession game, DecisionPolicy policy, int maxDecisions) {
+            this.game = game;
+            this.policy = policy;
+            this.maxDecisions = maxDecisions;
+        }
+
+        private void play() {
+            game.start();
+            while (!game.isFinished()) {
+                if (game.isSelectingEquipment()) {
+                    count();
+                    String code = policy.chooseEquipment(game.getCurrentResearcher(), game.getEquipmentBag(),
+                            game.getGoals());
+                    if (code != null) {
+                        game.apply(code.equals("no") ? GameCommand.stopSelecting() : GameCommand.selectEquipment(code));
+                    }
+                } else if (game.isSlideRequired()) {
+                    slide();
+                } else {
+                    count();
+                    GameAction action = policy.chooseAction(game.getLakePuzzle(), game.getCurrentResearcher(),
+                            game.getGoals());
+                    if (action == GameAction.MOVE) {
+                        slide();
+                    } else if (action == GameAction.PERFORM_EXPERIMENT) {
+                        experiment();
+                    } else if (action == GameAction.SIT_OR_EXIT) {
+                        game.apply(GameCommand.sitOrExit());
+                    }
+                }
+            }
+        }
+
+        private void slide() {
+            while (true) {
+                count();
+                Direction direction = Direction.fromCode(policy.chooseDirection(game.getLakePuzzle(),
+                        game.getCurrentResearcher(), game.getGoals()));
+                if (direction != null
+                        && !contains(game.apply(GameCommand.move(direction)), GameEvent.Type.DIRECTION_UNAVAILABLE)) {
+                    return;
+                }
+            }
+        }
+
+        private void experiment() {
+            if (!game.getCurrentResearcher().isHaveReseachItem()) {
+                return;
+            }
+            while (true) {
+                count();
+                String code = policy.chooseExperiment(game.getLakePuzzle(), game.getCurrentResearcher(),
+                        game.getGoals());
+                if (code != null && !contains(game.apply(GameCommand.performExperiment(code)),
+                        GameEvent.Type.EQUIPMENT_UNAVAILABLE)) {
+                    return;
+                }
+            }
+        }
+
+        private void count() {
+            if (++decisions > maxDecisions) {
+                throw new GameAbandoned();
+            }
+        }
+
+        private static boolean contains(List<GameEvent> events, GameEvent.Type type) {
+            for (GameEvent event : events) {
+                if (event.getType() == type) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Thrown out of the driver to abandon a game. It carries no stack trace, as it is not an error.
+     */
+    private static final class GameAbandoned extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private GameAbandoned() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * The running counts of a simulation, updated by all threads.
+     */
+    private static final class Tally {
+        private final Map<GameOutcome, LongAdder> outcomes = new EnumMap<>(GameOutcome.class);
+        private final Map<HazardEnum, LongAdder> deaths = new EnumMap<>(HazardEnum.class);
+        private final LongAdder researchersUsed = new LongAdder();
+        private final LongAdder decisions = new LongAdder();
+
+        private Tally() {
+            for (GameOutcome outcome : GameOutcome.values()) {
+                outcomes.put(outcome, new LongAdder());
+            }
+            for (HazardEnum hazard : HazardEnum.values()) {
+                deaths.put(hazard, new LongAdder());
+            }
+        }
+    }
+
+    /**
+     * The statistics of a finished simulation.
+     */
+    public static final class Report {
+        private final long games;
+        private final Map<GameOutcome, Long> outcomes = new EnumMap<>(GameOutcome.class);
+        private final Map<HazardEnum, Long> deaths = new EnumMap<>(HazardEnum.class);
+        private final long researchersUsed;
+        private final long decisions;
+        private final long elapsedNanos;
+
+        private Report(Tally tally, long games, long elapsedNanos) {
+            this.games = games;
+            for (Map.Entry<GameOutcome, LongAdder> entry : tally.outcomes.entrySet()) {
+                outcomes.put(entry.getKey(), entry.getValue().sum());
+            }
+            for (Map.Entry<HazardEnum, LongAdder> entry : tally.deaths.entrySet()) {
+                deaths.put(entry.getKey(), entry.getValue().sum());
+            }
+            this.researchersUsed = tally.researchersUsed.sum();
+            this.decisions = tally.decisions.sum();
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Retrieves the number of games played.
+         *
+         * @return The number of games.
+         */
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * Retrieves the number of games that ended a certain way. Abandoned games count as IN_PROGRESS.
+         *
+         * @param outcome The ending.
+         * @return The number of games with that ending.
+         */
+        public long getCount(GameOutcome outcome) {
+            return outcomes.get(outcome);
+        }
+
+        /**
+         * Retrieves the share of games in which every goal was accomplished.
+         *
+         * @return The success rate between 0 and 1.
+         */
+        public double getSuccessRate() {
+            return rate(outcomes.get(GameOutcome.SUCCESSFUL));
+        }
+
+        /**
+         * Retrieves the share of games that ended with a researcher killed by a type of hazard.
+         *
+         * @param hazard The type of hazard.
+         * @return The death rate between 0 and 1.
+         */
+        public double getDeathRate(HazardEnum hazard) {
+            return rate(deaths.get(hazard));
+        }
+
+        /**
+         * Retrieves the average number of researchers that headed out to the lake in a game.
+         *
+         * @return The average number of researchers used.
+         */
+        public double getAverageResearchersUsed() {
+            return games == 0 ? 0 : (double) researchersUsed / games;
+        }
+
+        /**
+         * Retrieves the average number of decisions the policy made in a game.
+         *
+         * @return The average number of decisions.
+         */
+        public double getAverageDecisions() {
+            return games == 0 ? 0 : (double) decisions / games;
+        }
+
+        /**
+         * Retrieves the time the simulation took.
+         *
+         * @return The elapsed time in nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Retrieves the number of games played per minute of elapsed time.
+         *
+         * @return The throughput of the simulation.
+         */
+        public double getGamesPerMinute() {
+            return elapsedNanos == 0 ? 0 : games * 60e9 / elapsedNanos;
+        }
+
+        private double rate(long count) {
+            return games == 0 ? 0 : (double) count / games;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder text = new StringBuilder();
+            text.append(String.format("Games: %d (%.0f per minute)%n", games, getGamesPerMinute()));
+            text.append(String.format("Success rate: %.2f%%%n", 100 * getSuccessRate()));
+            for (HazardEnum hazard : HazardEnum.values()) {
+                text.append(String.format("Death rate (%s): %.2f%%%n", hazard, 100 * getDeathRate(hazard)));
+            }
+            for (GameOutcome outcome : GameOutcome.values()) {
+                text.append(String.format("%s: %d%n", outcome, outcomes.get(outcome)));
+            }
+            text.append(String.format("Average researchers used: %.2f%n", getAverageResearchersUsed()));
+            text.append(String.format("Average decisions: %.1f", getAverageDecisions()));
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package utility;
+
+/**
+ * The GameState enum lists the states a GameSession goes through, and which kinds of GameCommand each state
+ * accepts. The session keeps a table of command handlers, so applying a command only looks up whether the
+ * current state accepts it and runs the handler; everything else is answered with the state's rejection.
+ *
+ * A researcher goes through the states in this order, and the next researcher starts again at the top:
+ * - RESEARCHER_BEFORE_LAKE: A researcher has arrived at the entrance; the session moves on to ENTRANCE by itself.
+ * - ENTRANCE: The researcher selects equipment until they stop and head out.
+ * - HEADING_OUT: The researcher has headed out and must slide onto the lake first.
+ * - IN_LAKE: The researcher slides, performs experiments, or sits down or exits.
+ * - FINISHED: The game is over and every command is rejected.
+ */
+public enum GameState {
+    RESEARCHER_BEFORE_LAKE,
+    ENTRANCE(GameCommand.Type.SELECT_EQUIPMENT, GameCommand.Type.STOP_SELECTING),
+    HEADING_OUT(GameCommand.Type.MOVE),
+    IN_LAKE(GameCommand.Type.MOVE, GameCommand.Type.PERFORM_EXPERIMENT, GameCommand.Type.SIT_OR_EXIT),
+    FINISHED;
+
+    private final boolean[] accepted = new boolean[GameCommand.Type.values().length];
+
+    GameState(GameCommand.Type... commands) {
+        for (GameCommand.Type command : commands) {
+            accepted[command.ordinal()] = true;
+        }
+    }
+
+    /**
+     * Checks whether a kind of command can be applied in this state.
+     *
+     * @param type The kind of command.
+     * @return true if the session runs the command in this state.
+     */
+    public boolean accepts(GameCommand.Type type) {
+        return accepted[type.ordinal()];
+    }
+
+    /**
+     * Checks whether the session leaves this state by itself, without waiting for a command.
+     *
+     * @return true for RESEARCHER_BEFORE_LAKE.
+     */
+    public boolean isTransient() {
+        return this == RESEARCHER_BEFORE_LAKE;
+    }
+
+    /**
+     * Retrieves why a kind of command that this state does not accept is rejected.
+     *
+     * @param type The kind of command.
+     * @return The text of the COMMAND_REJECTED event.
+     */
+    String rejection(GameCommand.Type type) {
+        switch (this) {
+            case FINISHED:
+                return "The game is over.";
+            case ENTRANCE:
+            case RESEARCHER_BEFORE_LAKE:
+                return "The researcher is still selecting equipment at the entrance.";
+            case HEADING_OUT:
+                if (type == GameCommand.Type.PERFORM_EXPERIMENT || type == GameCommand.Type.SIT_OR_EXIT) {
+                    return "The researcher must first slide onto the lake.";
+                }
+                return "The researcher is already on the lake.";
+            default:
+                return "The researcher is already on the lake.";
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package utility;
+
+/**
+ * The GameStateListener interface is notified of every change of state of a GameSession, such as a researcher
+ * heading out or the game ending. Tools like loggers, recorders and tutorials register one with
+ * GameSession.addStateListener to follow a game without polling it.
+ */
+@FunctionalInterface
+public interface GameStateListener {
+
+    /**
+     * Called after the session entered a new state, before the command that caused it returns.
+     *
+     * @param session The session.
+     * @param from The state the session left.
+     * @param to The state the session entered.
+     */
+    void stateChanged(GameSession session, GameState from, GameState to);
+}
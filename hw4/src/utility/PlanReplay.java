@@ -0,0 +1,104 @@
+package utility;
+
+import Components.General.Direction;
+import Components.General.ExpeditionPlanner;
+
+import java.util.List;
+
+/**
+ * The PlanReplay class plays a plan of the ExpeditionPlanner on a GameSession, command by command, to check
+ * that the plan follows the rules of the game: every command is accepted, no researcher is injured and the game
+ * ends successfully after the last trip. Running the class plans and replays many seeded sessions and reports
+ * the plans that failed.
+ */
+public final class PlanReplay {
+
+    private PlanReplay() {
+    }
+
+    /**
+     * Plans the game of a session that has just started, with the researcher waiting at the entrance.
+     *
+     * @param session The session; it is not changed.
+     * @return The outcome of the search.
+     */
+    public static ExpeditionPlanner.Plan plan(GameSession session) {
+        return ExpeditionPlanner.plan(session.getLakePuzzle(), session.getQueuedResearchers().size() + 1,
+                session.getEquipmentBag(), session.getGoals());
+    }
+
+    /**
+     * Plays the trips of a plan on a session.
+     *
+     * @param session The session, with a researcher waiting at the entrance.
+     * @param trips The trips of the plan.
+     * @return null if the game ended successfully, or the event or step where the replay went wrong.
+     */
+    public static String replay(GameSession session, List<ExpeditionPlanner.Trip> trips) {
+        session.start();
+        for (ExpeditionPlanner.Trip trip : trips) {
+            for (String code : trip.getLoad()) {
+                String failure = check(session.apply(GameCommand.selectEquipment(code)));
+                if (failure != null) {
+                    return failure;
+                }
+            }
+            String failure = check(session.apply(GameCommand.stopSelecting()));
+            for (int i = 0; failure == null && i < trip.getSteps().size(); i++) {
+                String step = trip.getSteps().get(i);
+                Direction direction = Direction.fromCode(step);
+                failure = check(session.apply(direction != null ? GameCommand.move(direction)
+                        : GameCommand.performExperiment(step)));
+            }
+            if (failure == null && !session.isFinished()) {
+                failure = check(session.apply(GameCommand.sitOrExit()));
+            }
+            if (failure != null) {
+                return failure;
+            }
+        }
+        return session.getOutcome() == GameOutcome.SUCCESSFUL ? null : "game ended " + session.getOutcome();
+    }
+
+    private static String check(List<GameEvent> events) {
+        for (GameEvent event : events) {
+            switch (event.getType()) {
+                case EQUIPMENT_NOT_IN_STORAGE:
+                case BAG_REJECTED:
+                case DIRECTION_UNAVAILABLE:
+                case RESEARCHER_INJURED:
+                case EQUIPMENT_UNAVAILABLE:
+                case LOCATION_INCOMPATIBLE:
+                case COMMAND_REJECTED:
+                    return event.toString();
+                default:
+                    break;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Plans and replays the sessions of consecutive seeds.
+     *
+     * @param args The number of sessions, 1000 if omitted.
+     */
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int found = 0;
+        int failed = 0;
+        for (long seed = 1; seed <= count; seed++) {
+            ExpeditionPlanner.Plan plan = plan(new GameSession(seed));
+            if (plan.getStatus() != ExpeditionPlanner.Status.FOUND) {
+                continue;
+            }
+            found++;
+            String failure = replay(new GameSession(seed), plan.getTrips());
+            if (failure != null) {
+                failed++;
+                System.out.println("seed " + seed + ": " + plan.getTrips() + " -> " + failure);
+            }
+        }
+        System.out.println("Plans found: " + found + " of " + count + ", failed replays: " + failed);
+    }
+}
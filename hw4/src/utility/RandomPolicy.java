@@ -0,0 +1,89 @@
+package utility;
+
+import Components.General.Direction;
+import Components.General.EquipmentBag;
+import Components.General.LakePuzzle;
+import Components.General.Researcher;
+import Components.Interfaces.Equipment;
+import Components.ResearchEquipmentItems.ResearchEquipmentItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * The RandomPolicy class plays like a careless player: it takes a random load of one to three pieces of
+ * equipment of one category, slides in random directions that are open, performs an experiment as soon as it
+ * stands where one of its goals can be accomplished, and now and then ends its turn at random.
+ * It is the baseline against which other policies are measured.
+ */
+public class RandomPolicy implements DecisionPolicy {
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    private final SplittableRandom random;
+
+    /**
+     * Creates a random policy.
+     *
+     * @param random The random generator of the policy.
+     */
+    public RandomPolicy(SplittableRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public String chooseEquipment(Researcher researcher, EquipmentBag<Equipment> storage,
+                                  Set<ResearchEquipmentItem> goals) {
+        Set<Equipment> bag = researcher.getEquipmentSet();
+        if (!bag.isEmpty() && (bag.size() >= 3 || random.nextInt(3) == 0)) {
+            return "no";
+        }
+        Equipment first = bag.isEmpty() ? null : bag.iterator().next();
+        List<String> codes = new ArrayList<>();
+        for (Equipment equipment : storage.getEquipmentSet()) {
+            boolean sameCategory = first == null
+                    || (equipment instanceof ResearchEquipmentItem) == (first instanceof ResearchEquipmentItem);
+            if (sameCategory && !codes.contains(equipment.toString())) {
+                codes.add(equipment.toString());
+            }
+        }
+        Collections.sort(codes);
+        return codes.isEmpty() ? "no" : codes.get(random.nextInt(codes.size()));
+    }
+
+    @Override
+    public GameAction chooseAction(LakePuzzle lake, Researcher researcher, Set<ResearchEquipmentItem> goals) {
+        if (GameSimulator.usableExperiment(lake, researcher, goals) != null) {
+            return GameAction.PERFORM_EXPERIMENT;
+        }
+        if (openDirections(lake, researcher).isEmpty() || random.nextInt(8) == 0) {
+            return GameAction.SIT_OR_EXIT;
+        }
+        return GameAction.MOVE;
+    }
+
+    @Override
+    public String chooseDirection(LakePuzzle lake, Researcher researcher, Set<ResearchEquipmentItem> goals) {
+        List<Direction> open = openDirections(lake, researcher);
+        return open.isEmpty() ? "U" : open.get(random.nextInt(open.size())).getCode();
+    }
+
+    @Override
+    public String chooseExperiment(LakePuzzle lake, Researcher researcher, Set<ResearchEquipmentItem> goals) {
+        return GameSimulator.usableExperiment(lake, researcher, goals);
+    }
+
+    private List<Direction> openDirections(LakePuzzle lake, Researcher researcher) {
+        int[] position = lake.findResearcherSquare(researcher).getPosition();
+        List<Direction> open = new ArrayList<>(4);
+        for (Direction direction : DIRECTIONS) {
+            if (lake.getSlideDestination(position[1], position[0], direction) >= 0) {
+                open.add(direction);
+            }
+        }
+        return open;
+    }
+}
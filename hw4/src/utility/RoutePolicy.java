@@ -0,0 +1,102 @@
+package utility;
+
+import Components.General.CellKind;
+import Components.General.Direction;
+import Components.General.EquipmentBag;
+import Components.General.LakePuzzle;
+import Components.General.Researcher;
+import Components.General.RouteSolver;
+import Components.Interfaces.Equipment;
+import Components.Interfaces.RouteTarget;
+import Components.ResearchEquipmentItems.ResearchEquipmentItem;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The RoutePolicy class plays like a careful player working one researcher at a time: each researcher takes the
+ * research equipment of up to three pending goals, follows the shortest route from RouteSolver to the nearest
+ * square where one of them can be used, and once nothing more can be reached walks back to the entrance and
+ * leaves, or sits down if the entrance cannot be reached either. It never carries hazard equipment, so it
+ * only stops on a hazard when the first slide of a researcher has nowhere safe to go.
+ */
+public class RoutePolicy implements DecisionPolicy {
+
+    private static final String[] GOAL_CODES = {"ch", "cm", "td", "ws"};
+
+    @Override
+    public String chooseEquipment(Researcher researcher, EquipmentBag<Equipment> storage,
+                                  Set<ResearchEquipmentItem> goals) {
+        Set<Equipment> bag = researcher.getEquipmentSet();
+        if (bag.size() < 3) {
+            for (String code : GOAL_CODES) {
+                if (GameSimulator.isGoal(goals, code) && storage.isContain(code)
+                        && !researcher.isHaveThisItemWithCode(code)) {
+                    return code;
+                }
+            }
+        }
+        if (!bag.isEmpty() || storage.isEmpty()) {
+            return "no";
+        }
+        // No goal can be worked on; head out with anything so the turn passes to the next researcher
+        String first = null;
+        for (Equipment equipment : storage.getEquipmentSet()) {
+            if (first == null || equipment.toString().compareTo(first) < 0) {
+                first = equipment.toString();
+            }
+        }
+        return first;
+    }
+
+    @Override
+    public GameAction chooseAction(LakePuzzle lake, Researcher researcher, Set<ResearchEquipmentItem> goals) {
+        if (GameSimulator.usableExperiment(lake, researcher, goals) != null) {
+            return GameAction.PERFORM_EXPERIMENT;
+        }
+        return nextSlide(lake, researcher, goals) != null ? GameAction.MOVE : GameAction.SIT_OR_EXIT;
+    }
+
+    @Override
+    public String chooseDirection(LakePuzzle lake, Researcher researcher, Set<ResearchEquipmentItem> goals) {
+        Direction direction = nextSlide(lake, researcher, goals);
+        if (direction != null) {
+            return direction.getCode();
+        }
+        // The game asks for a first slide even when there is nowhere to go; take any safe open direction
+        int[] position = lake.findResearcherSquare(researcher).getPosition();
+        int columns = lake.getMapSize()[0];
+        String fallback = Direction.UP.getCode();
+        for (Direction open : Direction.values()) {
+            int destination = lake.getSlideDestination(position[1], position[0], open);
+            if (destination >= 0) {
+                if (!CellKind.isDangerousHazard(lake.getKind(destination / columns, destination % columns))) {
+                    return open.getCode();
+                }
+                fallback = open.getCode();
+            }
+        }
+        return fallback;
+    }
+
+    @Override
+    public String chooseExperiment(LakePuzzle lake, Researcher researcher, Set<ResearchEquipmentItem> goals) {
+        return GameSimulator.usableExperiment(lake, researcher, goals);
+    }
+
+    /**
+     * Finds the first slide towards the nearest square where a carried piece of equipment accomplishes a goal,
+     * or towards the entrance square if there is no such square.
+     *
+     * @return The direction of the slide, or null if the researcher should end the turn where they are.
+     */
+    private Direction nextSlide(LakePuzzle lake, Researcher researcher, Set<ResearchEquipmentItem> goals) {
+        RouteTarget experiment = (map, row, col) ->
+                GameSimulator.usableExperiment(map, researcher, goals, row, col) != null;
+        List<Direction> route = RouteSolver.findRoute(lake, researcher, experiment);
+        if (route == null || route.isEmpty()) {
+            route = RouteSolver.findRoute(lake, researcher, RouteSolver.entranceSquare());
+        }
+        return route == null || route.isEmpty() ? null : route.get(0);
+    }
+}
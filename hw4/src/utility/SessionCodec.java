@@ -0,0 +1,382 @@
+package utility;
+
+import Components.General.EquipmentBag;
+import Components.General.LakeFile;
+import Components.General.LakePuzzle;
+import Components.General.MapItem;
+import Components.General.MapSquare;
+import Components.General.Researcher;
+import Components.Hazards.HazardEnum;
+import Components.Interfaces.Equipment;
+import Components.ResearchEquipmentItems.ResearchEquipmentItem;
+import exceptions.IncorrectBagContentsException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The SessionCodec class saves and restores a whole game session in a versioned binary format.
+ * A session holds the lake (as a LakeFile record), every researcher with its bag, position and health,
+ * the researcher queue, the shared equipment storage, the open and accomplished goals and the state of the
+ * game loop. Sessions can be written to a caller-supplied buffer and read back from it, so checkpoints can be
+ * taken repeatedly without allocating new buffers, or written to and read from a file. Sessions written by
+ * an older version of the format can still be read.
+ * The session's random generator and the lake's are restored from seeds stored in the record, so a restored
+ * session always plays on the same way; records before version 3 have no session seed and use 0.
+ * Records before version 4 do not store how a finished game ended; it is worked out from the restored session.
+ */
+public final class SessionCodec {
+
+    private static final int MAGIC = 0x464C534E;
+    private static final short VERSION = 4;
+    // The health byte of a researcher; version 1 only stored HEALTH_ALIVE and HEALTH_DEAD
+    private static final byte HEALTH_DEAD = 0;
+    private static final byte HEALTH_ALIVE = 1;
+    private static final byte HEALTH_KILLED_BY = 2;
+    private static final HazardEnum[] HAZARDS = HazardEnum.values();
+    // Stored state codes; HEADING_OUT is stored as IN_LAKE with FLAG_BYPASS_PROCESS_LIST set
+    private static final GameState[] STATES = {GameState.RESEARCHER_BEFORE_LAKE, GameState.ENTRANCE,
+            GameState.IN_LAKE, GameState.FINISHED};
+    private static final GameOutcome[] OUTCOMES = GameOutcome.values();
+    private static final byte FLAG_GAME_CONTINUE = 1;
+    private static final byte FLAG_BYPASS_PROCESS_LIST = 2;
+
+    private SessionCodec() {
+    }
+
+    /**
+     * Writes a session to a file, replacing the file if it exists.
+     *
+     * @param game The session to write.
+     * @param path The path of the file.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void save(GameSession game, Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(game));
+        encode(game, buffer);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads a session from a file. Apply commands to the result to continue, or play it at the console with
+     * a GameManager.
+     *
+     * @param path The path of the file.
+     * @return The restored session.
+     * @throws IOException if the file cannot be read or is not a valid session file.
+     */
+    public static GameSession load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a session file: " + path);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full
+            }
+            buffer.flip();
+            return decode(buffer);
+        }
+    }
+
+    /**
+     * Computes the number of bytes a session takes, so a large enough buffer can be prepared.
+     *
+     * @param game The session.
+     * @return The size of the session in bytes.
+     */
+    public static int encodedSize(GameSession game) {
+        long size = 17 + LakeFile.encodedSize(game.getLakePuzzle());
+        size += 4;
+        for (Researcher researcher : researcherTable(game)) {
+            size += 10;
+            for (Equipment equipment : researcher.getEquipmentSet()) {
+                size += LakeFile.itemSize((MapItem) equipment);
+            }
+        }
+        size += 4 + 4 + 4L * game.getQueuedResearchers().size() + 4;
+        size += 4;
+        for (Equipment equipment : game.getEquipmentBag().getEquipmentSet()) {
+            size += LakeFile.itemSize((MapItem) equipment);
+        }
+        size += 4;
+        for (ResearchEquipmentItem goal : game.getGoals()) {
+            size += LakeFile.itemSize(goal);
+        }
+        size += 4;
+        for (ResearchEquipmentItem goal : game.getFinishedGoals()) {
+            size += 4;
+            if (game.getLakePuzzle().findWithEquipment(goal) == null) {
+                size += LakeFile.itemSize(goal);
+            }
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The session is too large to be stored.");
+        }
+        return (int) size;
+    }
+
+    /**
+     * Writes a session to a buffer, starting at its current position.
+     *
+     * @param game The session to write.
+     * @param out The buffer to write to; its position is advanced past the session.
+     * @throws java.nio.BufferOverflowException if the buffer is too small.
+     */
+    public static void encode(GameSession game, ByteBuffer out) {
+        LakePuzzle lake = game.getLakePuzzle();
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        GameState state = game.getState();
+        out.put(stateCode(state));
+        out.put((byte) game.getOutcome().ordinal());
+        out.put((byte) ((game.isGameContinue() ? FLAG_GAME_CONTINUE : 0)
+                | (state != GameState.IN_LAKE && state != GameState.FINISHED ? FLAG_BYPASS_PROCESS_LIST : 0)));
+        out.putLong(game.nextStoredSeed());
+        LakeFile.encode(lake, out);
+
+        // Researchers are stored once and referred to by their position in this table
+        List<Researcher> researchers = researcherTable(game);
+        Map<Researcher, Integer> table = new IdentityHashMap<>();
+        out.putInt(researchers.size());
+        for (Researcher researcher : researchers) {
+            table.put(researcher, table.size());
+            out.putInt(researcher.getId());
+            out.put(healthCode(researcher));
+            out.putInt(lake.findResearcherIndex(researcher));
+            out.put((byte) researcher.getEquipmentSet().size());
+            for (Equipment equipment : researcher.getEquipmentSet()) {
+                LakeFile.putItem((MapItem) equipment, out);
+            }
+        }
+        Researcher current = game.getCurrentResearcher();
+        out.putInt(current != null ? table.get(current) : -1);
+        out.putInt(game.getQueuedResearchers().size());
+        for (Researcher researcher : game.getQueuedResearchers()) {
+            out.putInt(table.get(researcher));
+        }
+        out.putInt(game.getQueueIndex());
+
+        out.putInt(game.getEquipmentBag().size());
+        for (Equipment equipment : game.getEquipmentBag().getEquipmentSet()) {
+            LakeFile.putItem((MapItem) equipment, out);
+        }
+        out.putInt(game.getGoals().size());
+        for (ResearchEquipmentItem goal : game.getGoals()) {
+            LakeFile.putItem(goal, out);
+        }
+
+        // Accomplished goals are usually placed on the lake and are stored as a reference to their square
+        out.putInt(game.getFinishedGoals().size());
+        int columns = lake.getMapSize()[0];
+        for (ResearchEquipmentItem goal : game.getFinishedGoals()) {
+            MapSquare square = lake.findWithEquipment(goal);
+            if (square != null) {
+                int[] position = square.getPosition();
+                out.putInt(position[1] * columns + position[0]);
+            } else {
+                out.putInt(-1);
+                LakeFile.putItem(goal, out);
+            }
+        }
+    }
+
+    /**
+     * Reads a session from a buffer, starting at its current position.
+     * Apply commands to the result to continue, or play it at the console with a GameManager.
+     *
+     * @param in The buffer to read from; its position is advanced past the session.
+     * @return The restored session.
+     * @throws IOException if the buffer does not hold a valid session.
+     */
+    public static GameSession decode(ByteBuffer in) throws IOException {
+        try {
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a game session");
+            }
+            short version = in.getShort();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported session version " + version);
+            }
+            byte stateCode = in.get();
+            if (stateCode < 0 || stateCode >= STATES.length) {
+                throw new IOException("Unknown game state " + stateCode);
+            }
+            byte outcomeCode = version < 4 ? -1 : in.get();
+            if (outcomeCode < -1 || outcomeCode >= OUTCOMES.length) {
+                throw new IOException("Unknown game outcome " + outcomeCode);
+            }
+            byte flags = in.get();
+            long seed = version < 3 ? 0 : in.getLong();
+            LakePuzzle lake = LakeFile.decode(in);
+            int[] size = lake.getMapSize();
+            long cellCount = (long) size[0] * size[1];
+
+            Researcher[] table = new Researcher[in.getInt()];
+            for (int i = 0; i < table.length; i++) {
+                Researcher researcher = new Researcher(in.getInt());
+                byte health = in.get();
+                if (health == HEALTH_DEAD) {
+                    researcher.kill();
+                } else if (health >= HEALTH_KILLED_BY && health - HEALTH_KILLED_BY < HAZARDS.length) {
+                    researcher.kill(HAZARDS[health - HEALTH_KILLED_BY]);
+                } else if (health != HEALTH_ALIVE) {
+                    throw new IOException("Unknown health of researcher " + researcher.getId());
+                }
+                int index = in.getInt();
+                int bagCount = in.get();
+                for (int j = 0; j < bagCount; j++) {
+                    researcher.addEquipment((Equipment) LakeFile.getItem(in));
+                }
+                if (index >= cellCount) {
+                    throw new IOException("Researcher " + researcher.getId() + " is outside the lake");
+                }
+                if (index >= 0) {
+                    lake.getMapSquare(index / size[0], index % size[0]).setResearcher(researcher);
+                }
+                table[i] = researcher;
+            }
+            int currentIndex = in.getInt();
+            Researcher current = currentIndex >= 0 ? table[currentIndex] : null;
+            List<Researcher> queue = new ArrayList<>();
+            int queueCount = in.getInt();
+            for (int i = 0; i < queueCount; i++) {
+                queue.add(table[in.getInt()]);
+            }
+            int queueIndex = in.getInt();
+            if (queueIndex < 0 || (queueIndex > 0 && queueIndex >= queueCount)) {
+                throw new IOException("Corrupt researcher queue");
+            }
+
+            EquipmentBag<Equipment> equipmentBag = new EquipmentBag<>();
+            int equipmentCount = in.getInt();
+            for (int i = 0; i < equipmentCount; i++) {
+                equipmentBag.addEquipment((Equipment) LakeFile.getItem(in));
+            }
+            Set<ResearchEquipmentItem> goals = new HashSet<>();
+            int goalCount = in.getInt();
+            for (int i = 0; i < goalCount; i++) {
+                goals.add((ResearchEquipmentItem) LakeFile.getItem(in));
+            }
+            Set<ResearchEquipmentItem> finishedGoals = new HashSet<>();
+            int finishedCount = in.getInt();
+            for (int i = 0; i < finishedCount; i++) {
+                int index = in.getInt();
+                MapItem item;
+                if (index >= 0) {
+                    if (index >= cellCount) {
+                        throw new IOException("Accomplished goal is outside the lake");
+                    }
+                    item = lake.getMapSquare(index / size[0], index % size[0]).getItem();
+                } else {
+                    item = LakeFile.getItem(in);
+                }
+                finishedGoals.add((ResearchEquipmentItem) item);
+            }
+
+            GameState state = STATES[stateCode];
+            if (state == GameState.IN_LAKE && (flags & FLAG_BYPASS_PROCESS_LIST) != 0) {
+                state = GameState.HEADING_OUT;
+            }
+            GameOutcome outcome = outcomeCode >= 0 ? OUTCOMES[outcomeCode]
+                    : pastOutcome(state, lake, current, goals);
+            return new GameSession(lake, queue, queueIndex, current, equipmentBag, goals, finishedGoals, state,
+                    outcome, (flags & FLAG_GAME_CONTINUE) != 0, seed);
+        } catch (IncorrectBagContentsException e) {
+            throw new IOException("Corrupt researcher bag: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt game session", e);
+        }
+    }
+
+    /**
+     * Collects every researcher of a session once, in a fixed order: the current researcher, the queue, and
+     * the researchers that stayed on the lake.
+     *
+     * @param game The session.
+     * @return The researchers in table order.
+     */
+    private static List<Researcher> researcherTable(GameSession game) {
+        Set<Researcher> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Researcher> table = new ArrayList<>();
+        if (game.getCurrentResearcher() != null && seen.add(game.getCurrentResearcher())) {
+            table.add(game.getCurrentResearcher());
+        }
+        for (Researcher researcher : game.getQueuedResearchers()) {
+            if (seen.add(researcher)) {
+                table.add(researcher);
+            }
+        }
+        for (Researcher researcher : game.getLakePuzzle().getResearchersOnMap()) {
+            if (seen.add(researcher)) {
+                table.add(researcher);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Works out how the game of a record without an outcome ended, the same way the session decides it:
+     * an injured current researcher, then accomplished goals. Otherwise the game ran out of equipment when the
+     * current researcher had just arrived at the entrance, and out of researchers when they had sat down or left.
+     *
+     * @param state The restored state.
+     * @param lake The restored lake.
+     * @param current The researcher whose turn it was.
+     * @param goals The research goals that were not accomplished.
+     * @return The outcome, IN_PROGRESS unless the game is finished.
+     */
+    private static GameOutcome pastOutcome(GameState state, LakePuzzle lake, Researcher current,
+                                           Set<ResearchEquipmentItem> goals) {
+        if (state != GameState.FINISHED) {
+            return GameOutcome.IN_PROGRESS;
+        }
+        if (current != null && !current.researcherAlive()) {
+            return GameOutcome.RESEARCHER_INJURED;
+        }
+        if (goals.isEmpty()) {
+            return GameOutcome.SUCCESSFUL;
+        }
+        MapSquare square = current != null ? lake.findResearcherSquare(current) : null;
+        if (square != null && lake.isEntranceSquare(square.getPosition()[1], square.getPosition()[0])) {
+            return GameOutcome.OUT_OF_EQUIPMENT;
+        }
+        return GameOutcome.OUT_OF_RESEARCHERS;
+    }
+
+    private static byte healthCode(Researcher researcher) {
+        if (researcher.researcherAlive()) {
+            return HEALTH_ALIVE;
+        }
+        HazardEnum cause = researcher.getCauseOfDeath();
+        return cause == null ? HEALTH_DEAD : (byte) (HEALTH_KILLED_BY + cause.ordinal());
+    }
+
+    private static byte stateCode(GameState state) {
+        if (state == GameState.HEADING_OUT) {
+            state = GameState.IN_LAKE;
+        }
+        for (byte i = 0; i < STATES.length; i++) {
+            if (STATES[i] == state) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown game state " + state);
+    }
+}
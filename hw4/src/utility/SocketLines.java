@@ -0,0 +1,90 @@
+package utility;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The SocketLines class reads and writes the ASCII lines of the game protocol on a socket, for GameServer and
+ * GameLoadClient. It keeps only a small read buffer and writes each reply with a single call, so an idle
+ * connection holds almost no memory besides the socket itself.
+ */
+final class SocketLines {
+
+    private static final int BUFFER_SIZE = 256;
+    private static final int MAX_LINE = 1024;
+
+    private final InputStream in;
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    SocketLines(Socket socket) throws IOException {
+        this.in = socket.getInputStream();
+        this.out = socket.getOutputStream();
+    }
+
+    /**
+     * Reads the next line, without its line terminator.
+     *
+     * @return The line, or null at the end of the stream.
+     * @throws IOException if the line cannot be read or is longer than the protocol allows.
+     */
+    String readLine() throws IOException {
+        StringBuilder line = null;
+        while (true) {
+            if (position == limit) {
+                limit = in.read(buffer);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return line == null ? null : line.toString();
+                }
+            }
+            int start = position;
+            while (position < limit && buffer[position] != '\n') {
+                position++;
+            }
+            int end = position;
+            boolean complete = position < limit;
+            if (complete) {
+                position++;
+            }
+            if (!complete || line != null) {
+                if (line == null) {
+                    line = new StringBuilder();
+                }
+                line.append(new String(buffer, start, end - start, StandardCharsets.US_ASCII));
+                if (line.length() > MAX_LINE) {
+                    throw new IOException("Line too long");
+                }
+                if (!complete) {
+                    continue;
+                }
+                end = line.length();
+                if (end > 0 && line.charAt(end - 1) == '\r') {
+                    line.setLength(end - 1);
+                }
+                return line.toString();
+            }
+            if (end > start && buffer[end - 1] == '\r') {
+                end--;
+            }
+            return new String(buffer, start, end - start, StandardCharsets.US_ASCII);
+        }
+    }
+
+    /**
+     * Writes text that already ends with a line terminator, in one call.
+     *
+     * @param text The lines to write.
+     * @throws IOException if the text cannot be written.
+     */
+    void write(CharSequence text) throws IOException {
+        out.write(text.toString().getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+}